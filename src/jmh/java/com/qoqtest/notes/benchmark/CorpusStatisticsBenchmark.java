@@ -0,0 +1,87 @@
+package com.qoqtest.notes.benchmark;
+
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+import com.qoqtest.notes.service.CorpusWordStatistics;
+import com.qoqtest.notes.service.NoteSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CorpusWordStatistics#top} over a corpus with {@code vocabulary} distinct words, 100 per note.
+ * <ul>
+ *     <li>{@code top10} - the 10 most frequent words of all notes</li>
+ *     <li>{@code top10ByTag} - the 10 most frequent words of one tag</li>
+ *     <li>{@code allWords} - every word ranked, the cost of sorting the full vocabulary as the per-note stats do</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class CorpusStatisticsBenchmark {
+
+    private static final int WORDS_PER_NOTE = 100;
+
+    @Param({"50000", "1000000"})
+    private int vocabulary;
+
+    private CorpusWordStatistics corpusStatistics;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        corpusStatistics = new CorpusWordStatistics();
+        NoteSearchIndex searchIndex = new NoteSearchIndex(corpusStatistics);
+        NoteTag[] tags = NoteTag.values();
+
+        List<Note> batch = new ArrayList<>(1_000);
+        for (int i = 0; i < vocabulary / WORDS_PER_NOTE; i++) {
+            List<WordCount> words = new ArrayList<>(WORDS_PER_NOTE);
+            for (int w = 0; w < WORDS_PER_NOTE; w++) {
+                words.add(new WordCount(word(i * WORDS_PER_NOTE + w), 1 + random.nextInt(50)));
+            }
+
+            Note note = new Note();
+            note.setId(String.format("%024x", i));
+            note.setTags(Set.of(tags[random.nextInt(tags.length)]));
+            note.setWordFrequencies(words);
+            batch.add(note);
+
+            if (batch.size() == 1_000) {
+                searchIndex.load(batch);
+                batch = new ArrayList<>(1_000);
+            }
+        }
+        searchIndex.load(batch);
+    }
+
+    @Benchmark
+    public CorpusWordStatistics.Top top10() {
+        return corpusStatistics.top(null, 10);
+    }
+
+    @Benchmark
+    public CorpusWordStatistics.Top top10ByTag() {
+        return corpusStatistics.top(NoteTag.IMPORTANT, 10);
+    }
+
+    @Benchmark
+    public CorpusWordStatistics.Top allWords() {
+        return corpusStatistics.top(null, vocabulary);
+    }
+
+    private static String word(int rank) {
+        StringBuilder word = new StringBuilder();
+        do {
+            word.append((char) ('a' + rank % 26));
+            rank /= 26;
+        } while (rank > 0);
+        return word.toString();
+    }
+}
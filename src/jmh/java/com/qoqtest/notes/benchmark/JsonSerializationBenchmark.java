@@ -0,0 +1,56 @@
+package com.qoqtest.notes.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.qoqtest.notes.dto.NoteShortResponseDTO;
+import com.qoqtest.notes.mapper.NoteMapper;
+import com.qoqtest.notes.mapper.NoteMapperImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PagedModel;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Serialization of the list endpoint body. {@code spring.data.web.pageable.serialization-mode: via_dto}
+ * makes Spring MVC write a {@link PagedModel}, so that is what is measured here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private PagedModel<NoteShortResponseDTO> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        NoteMapper noteMapper = new NoteMapperImpl();
+        List<NoteShortResponseDTO> content = IntStream.range(0, pageSize)
+                .mapToObj(i -> noteMapper.toShortResponseDTO(SampleNotes.note("note-" + i, 100, false)))
+                .toList();
+
+        page = new PagedModel<>(new PageImpl<>(content,
+                PageRequest.of(3, pageSize, Sort.by("createdDate").descending()), 10_000));
+    }
+
+    @Benchmark
+    public byte[] pageOfShortNotes() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,165 @@
+package com.qoqtest.notes.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.qoqtest.notes.dto.NoteFullResponseDTO;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.logging.RequestLogSamplingFilter;
+import com.qoqtest.notes.logging.SampledRequestTurboFilter;
+import com.qoqtest.notes.mapper.NoteMapperImpl;
+import com.qoqtest.notes.repository.NoteRepository;
+import com.qoqtest.notes.service.CorpusWordStatistics;
+import com.qoqtest.notes.service.NoteChangeFeed;
+import com.qoqtest.notes.service.NoteSearchIndex;
+import com.qoqtest.notes.service.NoteService;
+import com.qoqtest.notes.service.NoteStatisticsIndexer;
+import com.qoqtest.notes.service.NoteTotals;
+import com.qoqtest.notes.service.ScanningWordCounter;
+import com.qoqtest.notes.service.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@code GET /api/notes/{id}} through {@link RequestLogSamplingFilter} and {@link NoteService}, which logs
+ * one INFO and one DEBUG line per call, on four concurrent request threads. Every setup logs at INFO, so they
+ * differ only in the appender and sampling.
+ * <ul>
+ *     <li>{@code OFF} - application logging disabled</li>
+ *     <li>{@code SYNC} - the previous setup: written straight to the log file by the request thread</li>
+ *     <li>{@code ASYNC} - handed to an {@link AsyncAppender} in front of the file, as in {@code logback-spring.xml}</li>
+ *     <li>{@code ASYNC_SAMPLED} - the same with 1% of reads sampled, the default {@code notes.logging.sample-rate}</li>
+ * </ul>
+ * Under sustained overload the async queue fills and further lines are dropped rather than blocking requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LoggingOverheadBenchmark {
+
+    public enum Logging { OFF, SYNC, ASYNC, ASYNC_SAMPLED }
+
+    private static final String ID = "logged";
+
+    @Param
+    private Logging logging;
+
+    private NoteService noteService;
+    private RequestLogSamplingFilter samplingFilter;
+    private Logger appLogger;
+    private Appender<ILoggingEvent> appender;
+    private SampledRequestTurboFilter turboFilter;
+    private Path logFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        Note note = SampleNotes.note(ID, 1_000, false);
+        noteService = new NoteService(repository(note), new NoteMapperImpl(),
+                new NoteStatisticsIndexer(new ScanningWordCounter()), new NoteSearchIndex(new CorpusWordStatistics()), new NoteTotals(), new SingleFlight(new SimpleMeterRegistry()), new NoteChangeFeed(new NoteMapperImpl()), new SimpleMeterRegistry());
+
+        samplingFilter = new RequestLogSamplingFilter();
+        ReflectionTestUtils.setField(samplingFilter, "sampleRate", logging == Logging.ASYNC_SAMPLED ? 0.01 : 1.0);
+
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        appLogger = context.getLogger("com.qoqtest.notes");
+        appLogger.setAdditive(false);
+        logFile = Files.createTempFile("notes-benchmark", ".log");
+
+        appLogger.setLevel(logging == Logging.OFF ? Level.OFF : Level.INFO);
+        switch (logging) {
+            case OFF -> appender = null;
+            case SYNC -> appender = fileAppender(context);
+            case ASYNC, ASYNC_SAMPLED -> appender = asyncAppender(context, fileAppender(context));
+        }
+        if (appender != null) {
+            appLogger.addAppender(appender);
+        }
+        if (logging == Logging.ASYNC_SAMPLED) {
+            turboFilter = new SampledRequestTurboFilter();
+            turboFilter.start();
+            context.addTurboFilter(turboFilter);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        if (appender != null) {
+            appLogger.detachAppender(appender);
+            appender.stop();
+        }
+        if (turboFilter != null) {
+            context.getTurboFilterList().remove(turboFilter);
+        }
+        appLogger.setLevel(null);
+        appLogger.setAdditive(true);
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public void getById(Blackhole blackhole) throws Exception {
+        samplingFilter.doFilter(new MockHttpServletRequest("GET", "/api/notes/" + ID), new MockHttpServletResponse(),
+                (request, response) -> {
+                    NoteFullResponseDTO note = noteService.getNoteById(ID);
+                    blackhole.consume(note);
+                });
+    }
+
+    private Appender<ILoggingEvent> fileAppender(LoggerContext context) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%t] %-40.40logger{39} : %m%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.toString());
+        file.setEncoder(encoder);
+        file.start();
+        return file;
+    }
+
+    private static Appender<ILoggingEvent> asyncAppender(LoggerContext context, Appender<ILoggingEvent> target) {
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.addAppender(target);
+        async.start();
+        return async;
+    }
+
+    private static NoteRepository repository(Note note) {
+        return (NoteRepository) Proxy.newProxyInstance(
+                NoteRepository.class.getClassLoader(),
+                new Class<?>[]{NoteRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.of(note);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryNoteRepository";
+                    default -> null;
+                });
+    }
+}
@@ -0,0 +1,54 @@
+package com.qoqtest.notes.benchmark;
+
+import com.qoqtest.notes.dto.NoteFullResponseDTO;
+import com.qoqtest.notes.dto.NoteRequestDTO;
+import com.qoqtest.notes.dto.NoteShortResponseDTO;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.mapper.NoteMapper;
+import com.qoqtest.notes.mapper.NoteMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoteMapperBenchmark {
+
+    private final NoteMapper noteMapper = new NoteMapperImpl();
+
+    private Note note;
+    private NoteRequestDTO request;
+
+    @Setup
+    public void setUp() {
+        note = SampleNotes.note("mapper", 10_000, true);
+        request = new NoteRequestDTO("Title", note.getText(), Set.of(NoteTag.PERSONAL));
+    }
+
+    @Benchmark
+    public Note toEntity() {
+        return noteMapper.toEntity(request);
+    }
+
+    @Benchmark
+    public NoteFullResponseDTO toFullResponseDTO() {
+        return noteMapper.toFullResponseDTO(note);
+    }
+
+    @Benchmark
+    public NoteShortResponseDTO toShortResponseDTO() {
+        return noteMapper.toShortResponseDTO(note);
+    }
+
+    @Benchmark
+    public Note updateEntityFromDto() {
+        noteMapper.updateEntityFromDto(request, note);
+        return note;
+    }
+}
@@ -0,0 +1,57 @@
+package com.qoqtest.notes.benchmark;
+
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic note fixtures shared by the benchmarks.
+ */
+final class SampleNotes {
+
+    private static final String[] ENGLISH = {
+            "the", "note", "meeting", "project", "deadline", "review", "budget", "call", "client", "report",
+            "is", "a", "and", "of", "to", "in", "for", "with", "on", "tomorrow", "important", "remember",
+            "shopping", "milk", "bread", "ideas", "roadmap", "release", "draft", "feedback"
+    };
+
+    private static final String[] MULTILINGUAL = {
+            "the", "note", "meeting", "project", "deadline", "Привет", "встреча", "проект", "заметка", "срок",
+            "Straße", "Besprechung", "Übersicht", "naïve", "café", "réunion", "projet", "会議", "プロジェクト",
+            "メモ", "締め切り", "δοκιμή", "σημείωση", "ΟΔΟΣ", "spotkanie", "żółw", "İstanbul", "toplantı",
+            "𝒜𝒷𝒸", "مشروع"
+    };
+
+    private static final String[] SEPARATORS = {" ", " ", " ", ", ", ". ", "! ", "? ", "\n", " - ", "; ", " 42 "};
+
+    private SampleNotes() {
+    }
+
+    static String text(int length, boolean multilingual, long seed) {
+        String[] vocabulary = multilingual ? MULTILINGUAL : ENGLISH;
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder(length + 32);
+
+        while (text.length() < length) {
+            String word = vocabulary[random.nextInt(vocabulary.length)];
+            text.append(random.nextInt(8) == 0 ? word.toUpperCase() : word);
+            text.append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+
+    static Note note(String id, int length, boolean multilingual) {
+        Note note = new Note();
+        note.setId(id);
+        note.setTitle("Benchmark note " + id);
+        note.setText(text(length, multilingual, id.hashCode()));
+        note.setCreatedDate(Instant.parse("2026-01-01T00:00:00Z").plusSeconds(id.hashCode() & 0xFFFF));
+        note.setTags(new HashSet<>(Set.of(NoteTag.BUSINESS, NoteTag.IMPORTANT)));
+        return note;
+    }
+}
@@ -0,0 +1,105 @@
+package com.qoqtest.notes.benchmark;
+
+import com.qoqtest.notes.dto.SearchOperator;
+import com.qoqtest.notes.dto.SearchOrder;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+import com.qoqtest.notes.service.CorpusWordStatistics;
+import com.qoqtest.notes.service.NoteSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link NoteSearchIndex} queries over {@code notes} notes of 40 words each, drawn from a 50 000-word
+ * vocabulary with a Zipf-like distribution, so the most common word occurs in most notes and the rare one
+ * in a few hundred.
+ * <ul>
+ *     <li>{@code andCommonRare} - AND of the most common and a rare word, ranked by relevance</li>
+ *     <li>{@code orCommonMid} - OR of the most common and a mid-frequency word, ranked by relevance</li>
+ *     <li>{@code midNewestByTag} - one mid-frequency word filtered by tag, newest first</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SearchIndexBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+    private static final int WORDS_PER_NOTE = 40;
+
+    @Param({"100000", "1000000"})
+    private int notes;
+
+    private NoteSearchIndex searchIndex;
+    private List<String> commonAndRare;
+    private List<String> commonAndMid;
+    private List<String> mid;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        searchIndex = new NoteSearchIndex(new CorpusWordStatistics());
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        NoteTag[] tags = NoteTag.values();
+
+        List<Note> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < notes; i++) {
+            Map<String, Long> counts = new HashMap<>();
+            for (int w = 0; w < WORDS_PER_NOTE; w++) {
+                // Log-uniform rank: word r is picked roughly in proportion to 1 / r.
+                int rank = (int) Math.pow(VOCABULARY, random.nextDouble());
+                counts.merge(word(rank), 1L, Long::sum);
+            }
+
+            Note note = new Note();
+            note.setId(String.format("%024x", i));
+            note.setCreatedDate(start.plusSeconds(i));
+            note.setTags(Set.of(tags[random.nextInt(tags.length)]));
+            note.setWordFrequencies(counts.entrySet().stream()
+                    .map(entry -> new WordCount(entry.getKey(), entry.getValue()))
+                    .toList());
+            batch.add(note);
+
+            if (batch.size() == 10_000) {
+                searchIndex.load(batch);
+                batch = new ArrayList<>(10_000);
+            }
+        }
+        searchIndex.load(batch);
+
+        commonAndRare = List.of(word(1), word(5_000));
+        commonAndMid = List.of(word(1), word(100));
+        mid = List.of(word(100));
+    }
+
+    @Benchmark
+    public NoteSearchIndex.Result andCommonRare() {
+        return searchIndex.search(commonAndRare, SearchOperator.AND, null, SearchOrder.RELEVANCE, 0, 10);
+    }
+
+    @Benchmark
+    public NoteSearchIndex.Result orCommonMid() {
+        return searchIndex.search(commonAndMid, SearchOperator.OR, null, SearchOrder.RELEVANCE, 0, 10);
+    }
+
+    @Benchmark
+    public NoteSearchIndex.Result midNewestByTag() {
+        return searchIndex.search(mid, SearchOperator.AND, Set.of(NoteTag.IMPORTANT), SearchOrder.NEWEST, 0, 10);
+    }
+
+    private static String word(int rank) {
+        StringBuilder word = new StringBuilder();
+        do {
+            word.append((char) ('a' + rank % 26));
+            rank /= 26;
+        } while (rank > 0);
+        return word.toString();
+    }
+}
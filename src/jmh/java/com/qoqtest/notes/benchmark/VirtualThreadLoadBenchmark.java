@@ -0,0 +1,161 @@
+package com.qoqtest.notes.benchmark;
+
+import com.qoqtest.notes.config.CacheConfig;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.mapper.NoteMapperImpl;
+import com.qoqtest.notes.repository.NoteRepository;
+import com.qoqtest.notes.service.CorpusWordStatistics;
+import com.qoqtest.notes.service.NoteChangeFeed;
+import com.qoqtest.notes.service.NoteSearchIndex;
+import com.qoqtest.notes.service.NoteService;
+import com.qoqtest.notes.service.NoteStatisticsIndexer;
+import com.qoqtest.notes.service.NoteTotals;
+import com.qoqtest.notes.service.ScanningWordCounter;
+import com.qoqtest.notes.service.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Burst of {@code requests} concurrent reads of {@code notes} different notes, each blocked on a
+ * {@code latencyMillis} Mongo round trip.
+ * <ul>
+ *     <li>{@code platformPool} - a 200-thread pool, Tomcat's default {@code server.tomcat.threads.max}</li>
+ *     <li>{@code virtualThreads} - one virtual thread per request, as with {@code spring.threads.virtual.enabled}</li>
+ * </ul>
+ * Once {@code requests} exceeds the pool size the platform pool queues the rest, so the burst takes
+ * {@code requests / 200} round trips; virtual threads keep every request in flight at once.
+ * <p>
+ * With {@code coalesce} concurrent reads of a note share their round trip through {@code SingleFlight}. The burst
+ * takes as long, but MongoDB sees one query per round trip instead of one per request; the queries per burst are
+ * printed once per fork.
+ * <p>
+ * {@code cache} sends the reads through a cold note cache, as {@code @Cacheable(sync = true)} does:
+ * {@code CAFFEINE} with its default synchronous loads, which run inside {@code ConcurrentHashMap.compute} and pin
+ * the carrier of a virtual thread, and {@code CAFFEINE_ASYNC} with the loaders of {@link CacheConfig} used in
+ * virtual-thread mode. The cache is cleared before every burst.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadLoadBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"200", "2000"})
+    private int requests;
+
+    @Param({"10"})
+    private long latencyMillis;
+
+    @Param({"false", "true"})
+    private boolean coalesce;
+
+    @Param({"1", "100"})
+    private int notes;
+
+    @Param
+    private CacheMode cache;
+
+    public enum CacheMode { NONE, CAFFEINE, CAFFEINE_ASYNC }
+
+    private NoteService noteService;
+    private CacheConfig cacheConfig;
+    private Cache notesCache;
+    private final AtomicLong queries = new AtomicLong();
+    private long bursts;
+    private ExecutorService platformPool;
+    private ExecutorService virtualThreads;
+
+    @Setup
+    public void setUp() {
+        Note note = SampleNotes.note("load", 1_000, false);
+        SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(singleFlight, "enabled", coalesce);
+        noteService = new NoteService(slowRepository(note, latencyMillis, queries), new NoteMapperImpl(),
+                new NoteStatisticsIndexer(new ScanningWordCounter()), new NoteSearchIndex(new CorpusWordStatistics()), new NoteTotals(), singleFlight, new NoteChangeFeed(new NoteMapperImpl()), new SimpleMeterRegistry());
+
+        if (cache != CacheMode.NONE) {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager(CacheConfig.NOTES);
+            if (cache == CacheMode.CAFFEINE_ASYNC) {
+                cacheConfig = new CacheConfig();
+                cacheConfig.virtualThreadCacheCustomizer(new CacheProperties()).customize(cacheManager);
+            }
+            notesCache = cacheManager.getCache(CacheConfig.NOTES);
+        }
+
+        platformPool = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n%d requests: %d queries per burst%n", requests, queries.get() / Math.max(bursts, 1));
+        platformPool.shutdownNow();
+        virtualThreads.shutdownNow();
+        if (cacheConfig != null) {
+            cacheConfig.destroy();
+        }
+    }
+
+    @Benchmark
+    public int platformPool() throws Exception {
+        return burst(platformPool);
+    }
+
+    @Benchmark
+    public int virtualThreads() throws Exception {
+        return burst(virtualThreads);
+    }
+
+    private int burst(ExecutorService executor) throws Exception {
+        bursts++;
+        if (notesCache != null) {
+            notesCache.clear();
+        }
+        List<Future<?>> futures = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            String id = "load-" + i % notes;
+            futures.add(executor.submit(() -> notesCache == null
+                    ? noteService.getNoteById(id)
+                    : notesCache.get(id, () -> noteService.getNoteById(id))));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return futures.size();
+    }
+
+    /**
+     * Stand-in for Mongo whose {@code findById} blocks like a network round trip.
+     */
+    private static NoteRepository slowRepository(Note note, long latencyMillis, AtomicLong queries) {
+        return (NoteRepository) Proxy.newProxyInstance(
+                NoteRepository.class.getClassLoader(),
+                new Class<?>[]{NoteRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> {
+                        queries.incrementAndGet();
+                        Thread.sleep(latencyMillis);
+                        yield Optional.of(note);
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "SlowNoteRepository";
+                    default -> null;
+                });
+    }
+}
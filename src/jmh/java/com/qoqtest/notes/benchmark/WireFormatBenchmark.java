@@ -0,0 +1,108 @@
+package com.qoqtest.notes.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.qoqtest.notes.dto.NoteShortResponseDTO;
+import com.qoqtest.notes.mapper.NoteMapper;
+import com.qoqtest.notes.mapper.NoteMapperImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PagedModel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU cost of writing the three largest response bodies as JSON, CBOR and Smile, plain and gzipped:
+ * <ul>
+ *     <li>{@code note} - a {@code NoteFullResponseDTO} with 10 000 characters of text</li>
+ *     <li>{@code page} - a page of 100 {@code NoteShortResponseDTO}s</li>
+ *     <li>{@code stats} - word statistics of 1 000 distinct words</li>
+ * </ul>
+ * The bytes on the wire of every combination are printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"note", "page", "stats"})
+    private String payload;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private Object body;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        objectMapper = new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        NoteMapper noteMapper = new NoteMapperImpl();
+        body = switch (payload) {
+            case "note" -> noteMapper.toFullResponseDTO(SampleNotes.note("note-1", 10_000, false));
+            case "page" -> {
+                List<NoteShortResponseDTO> content = IntStream.range(0, 100)
+                        .mapToObj(i -> noteMapper.toShortResponseDTO(SampleNotes.note("note-" + i, 100, false)))
+                        .toList();
+                yield new PagedModel<>(new PageImpl<>(content,
+                        PageRequest.of(3, 100, Sort.by("createdDate").descending()), 10_000));
+            }
+            default -> {
+                Map<String, Long> words = new LinkedHashMap<>();
+                for (int i = 0; i < 1_000; i++) {
+                    words.put(word(i), 1_000L - i);
+                }
+                yield words;
+            }
+        };
+
+        System.out.printf("%n%s as %s: %d bytes, %d gzipped%n", payload, format, serialize().length, serializeGzipped().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] serializeGzipped() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, body);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String word(int rank) {
+        StringBuilder word = new StringBuilder("word");
+        do {
+            word.append((char) ('a' + rank % 26));
+            rank /= 26;
+        } while (rank > 0);
+        return word.toString();
+    }
+}
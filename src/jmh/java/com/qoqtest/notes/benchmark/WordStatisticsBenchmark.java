@@ -0,0 +1,117 @@
+package com.qoqtest.notes.benchmark;
+
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.mapper.NoteMapperImpl;
+import com.qoqtest.notes.repository.NoteRepository;
+import com.qoqtest.notes.service.CorpusWordStatistics;
+import com.qoqtest.notes.service.NoteChangeFeed;
+import com.qoqtest.notes.service.NoteSearchIndex;
+import com.qoqtest.notes.service.NoteService;
+import com.qoqtest.notes.service.NoteStatisticsIndexer;
+import com.qoqtest.notes.service.NoteTotals;
+import com.qoqtest.notes.service.ScanningWordCounter;
+import com.qoqtest.notes.service.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Word statistics for notes from 100 chars up to the 10 000-char {@code @Size} limit.
+ * <ul>
+ *     <li>{@code regexPipeline} - the original split/groupingBy/sort implementation, kept as a reference</li>
+ *     <li>{@code scanningCounter} - {@link ScanningWordCounter} alone</li>
+ *     <li>{@code serviceStoredHistogram} - {@link NoteService#getNoteWordFrequencyDescending} served from the stored histogram</li>
+ *     <li>{@code serviceStaleHistogram} - the same call when the histogram has to be rebuilt</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class WordStatisticsBenchmark {
+
+    private static final String ID = "benchmark";
+
+    @Param({"100", "1000", "10000"})
+    private int length;
+
+    @Param({"false", "true"})
+    private boolean multilingual;
+
+    private String text;
+    private ScanningWordCounter wordCounter;
+    private NoteService storedService;
+    private NoteService staleService;
+
+    @Setup
+    public void setUp() {
+        wordCounter = new ScanningWordCounter();
+        NoteStatisticsIndexer indexer = new NoteStatisticsIndexer(wordCounter);
+
+        Note note = SampleNotes.note(ID, length, multilingual);
+        text = note.getText();
+
+        Note stored = new Note();
+        stored.setWordFrequencies(indexer.compute(text));
+        stored.setWordStatsVersion(NoteStatisticsIndexer.CURRENT_VERSION);
+
+        storedService = new NoteService(repository(stored, note), new NoteMapperImpl(), indexer,
+                new NoteSearchIndex(new CorpusWordStatistics()), new NoteTotals(), new SingleFlight(new SimpleMeterRegistry()), new NoteChangeFeed(new NoteMapperImpl()), new SimpleMeterRegistry());
+        staleService = new NoteService(repository(new Note(), note), new NoteMapperImpl(), indexer,
+                new NoteSearchIndex(new CorpusWordStatistics()), new NoteTotals(), new SingleFlight(new SimpleMeterRegistry()), new NoteChangeFeed(new NoteMapperImpl()), new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Map<String, Long> regexPipeline() {
+        return Arrays.stream(text.toLowerCase()
+                        .split("\\P{L}+"))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.groupingBy(word -> word, Collectors.counting()))
+                .entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        Map.Entry::getValue,
+                        (e1, e2) -> e1,
+                        LinkedHashMap::new
+                ));
+    }
+
+    @Benchmark
+    public Object scanningCounter() {
+        return wordCounter.countDescending(text);
+    }
+
+    @Benchmark
+    public Map<String, Long> serviceStoredHistogram() {
+        return storedService.getNoteWordFrequencyDescending(ID);
+    }
+
+    @Benchmark
+    public Map<String, Long> serviceStaleHistogram() {
+        return staleService.getNoteWordFrequencyDescending(ID);
+    }
+
+    /**
+     * In-memory stand-in for Mongo so only the service's own CPU cost is measured.
+     */
+    private static NoteRepository repository(Note statistics, Note full) {
+        return (NoteRepository) Proxy.newProxyInstance(
+                NoteRepository.class.getClassLoader(),
+                new Class<?>[]{NoteRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findStatisticsById" -> Optional.of(statistics);
+                    case "findById" -> Optional.of(full);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryNoteRepository";
+                    default -> null;
+                });
+    }
+}
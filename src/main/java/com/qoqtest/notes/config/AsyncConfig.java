@@ -0,0 +1,24 @@
+package com.qoqtest.notes.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    /**
+     * Computes the batch word statistics. Bounded to {@code notes.statistics.batch.parallelism} threads, all cores
+     * by default, and kept apart from the common pool so a large batch cannot starve parallel streams elsewhere.
+     * Blocking work does not belong here; being an {@code Executor} bean, it needs
+     * {@code spring.task.execution.mode=force} to keep Spring Boot's own task executor.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool statisticsPool(@Value("${notes.statistics.batch.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+}
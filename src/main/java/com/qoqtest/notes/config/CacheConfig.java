@@ -0,0 +1,79 @@
+package com.qoqtest.notes.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Caches are configured under {@code spring.cache}; {@code spring.cache.type=none} turns them off.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig implements DisposableBean {
+
+    public static final String NOTES = "notes";
+    public static final String NOTE_STATISTICS = "noteStatistics";
+
+    // Not a bean: any Executor bean makes Spring Boot back off from its applicationTaskExecutor.
+    private ExecutorService cacheLoaders;
+
+    /**
+     * A synchronous Caffeine load runs inside {@code ConcurrentHashMap.compute}, which would pin the carrier
+     * of a virtual thread for the whole Mongo call. In async mode only a future is installed under that lock;
+     * the load runs on its own virtual thread and callers wait for the future without pinning.
+     * The caller's MDC is carried over, so the load logs under the same request sampling decision.
+     * The loader executor is closed with the context, after the loads still running have finished.
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public CacheManagerCustomizer<CaffeineCacheManager> virtualThreadCacheCustomizer(CacheProperties cacheProperties) {
+        return cacheManager -> {
+            String spec = cacheProperties.getCaffeine().getSpec();
+            Caffeine<Object, Object> caffeine = StringUtils.hasText(spec) ? Caffeine.from(spec) : Caffeine.newBuilder();
+
+            if (cacheLoaders == null) {
+                cacheLoaders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("note-cache-", 0).factory());
+            }
+
+            cacheManager.setCaffeine(caffeine.executor(withCallerMdc(cacheLoaders)));
+            cacheManager.setAsyncCacheMode(true);
+        };
+    }
+
+    @Override
+    public void destroy() {
+        if (cacheLoaders != null) {
+            cacheLoaders.close();
+        }
+    }
+
+    private static Executor withCallerMdc(Executor executor) {
+        return task -> {
+            Map<String, String> context = MDC.getCopyOfContextMap();
+            executor.execute(() -> {
+                if (context != null) {
+                    MDC.setContextMap(context);
+                }
+                try {
+                    task.run();
+                } finally {
+                    MDC.clear();
+                }
+            });
+        };
+    }
+}
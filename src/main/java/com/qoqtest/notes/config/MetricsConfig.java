@@ -0,0 +1,58 @@
+package com.qoqtest.notes.config;
+
+import com.qoqtest.notes.service.NoteSearchIndex;
+import io.micrometer.common.annotation.ValueExpressionResolver;
+import io.micrometer.common.annotation.ValueResolver;
+import io.micrometer.core.aop.MeterTagAnnotationHandler;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.util.Collection;
+
+/**
+ * Every service operation is timed as {@value #OPERATIONS}, tagged with {@code operation} and, by
+ * {@link io.micrometer.core.aop.TimedAspect}, with the {@code exception} it failed with ({@code none} on success).
+ * Percentiles and histogram buckets are configured under {@code management.metrics.distribution}.
+ * Mongo command timings, repository invocation timings and cache hit ratios come from Spring Boot.
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String OPERATIONS = "notes.operations";
+    public static final String OPERATION = "operation";
+
+    /**
+     * Lets {@link io.micrometer.core.aop.MeterTag} derive tags from method arguments.
+     */
+    @Bean
+    public MeterTagAnnotationHandler meterTagAnnotationHandler() {
+        ExpressionParser parser = new SpelExpressionParser();
+        ValueExpressionResolver spel = (expression, parameter) ->
+                String.valueOf(parser.parseExpression(expression).getValue(parameter));
+
+        return new MeterTagAnnotationHandler(BeanUtils::instantiateClass, resolverClass -> spel);
+    }
+
+    @Bean
+    public MeterBinder searchIndexMetrics(NoteSearchIndex searchIndex) {
+        return registry -> Gauge.builder("notes.search.index.notes", searchIndex, NoteSearchIndex::size)
+                .description("Notes in the full-text search index")
+                .register(registry);
+    }
+
+    /**
+     * Tags a listing as {@code filtered} when any tags were requested.
+     */
+    public static class NonEmpty implements ValueResolver {
+
+        @Override
+        public String resolve(Object parameter) {
+            return String.valueOf(parameter instanceof Collection<?> collection && !collection.isEmpty());
+        }
+    }
+}
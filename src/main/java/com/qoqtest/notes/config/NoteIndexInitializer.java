@@ -0,0 +1,145 @@
+package com.qoqtest.notes.config;
+
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.repository.NoteQueries;
+import com.qoqtest.notes.repository.NoteRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Creates the indexes declared on {@link Note} at startup (Spring Boot leaves automatic index creation off)
+ * and explains the listing queries of {@link NoteRepository}, warning about any that would still
+ * scan the whole collection or sort in memory.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "notes.indexes.enabled", havingValue = "true", matchIfMissing = true)
+public class NoteIndexInitializer {
+
+    /** Plan stages that make a query cost grow with the collection rather than with the page size. */
+    private static final Set<String> BLOCKING_STAGES = Set.of("COLLSCAN", "SORT");
+
+    private static final int PAGE_SIZE = 10;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${notes.indexes.verify-query-plans:true}")
+    private boolean verifyQueryPlans;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        ensureIndexes();
+
+        if (verifyQueryPlans) {
+            verifyQueryPlans();
+        }
+    }
+
+    void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Note.class);
+        MongoPersistentEntityIndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+
+        resolver.resolveIndexFor(Note.class).forEach(index -> {
+            String name = indexOps.createIndex(index);
+            log.info("Ensured index '{}' on collection '{}'", name, mongoTemplate.getCollectionName(Note.class));
+        });
+    }
+
+    /**
+     * The keyset listing is explained with the very query {@link NoteQueries#listingAfter} builds for a page after
+     * the first, so the check covers its {@code $or} on the sort key.
+     */
+    void verifyQueryPlans() {
+        Document newestFirst = new Document("createdDate", -1);
+        List<String> allTags = Arrays.stream(NoteTag.values()).map(Enum::name).toList();
+        Set<NoteTag> tags = EnumSet.allOf(NoteTag.class);
+
+        Instant now = Instant.now();
+        String lastId = new ObjectId().toHexString();
+
+        Map<String, QueryShape> queries = new LinkedHashMap<>();
+        queries.put("findAllSummaries", new QueryShape(new Document(), newestFirst, PAGE_SIZE));
+        queries.put("findSummariesByTagsIn", new QueryShape(
+                new Document("tags", new Document("$in", allTags)), newestFirst, PAGE_SIZE));
+        queries.put("findSummariesByTagsAll", new QueryShape(
+                new Document("tags", new Document("$all", allTags)), newestFirst, PAGE_SIZE));
+        queries.put("findListingAfter", shapeOf(NoteQueries.listingAfter(null, TagMatch.ANY, now, lastId, PAGE_SIZE)));
+        queries.put("findListingAfter (any tags)", shapeOf(NoteQueries.listingAfter(tags, TagMatch.ANY, now, lastId, PAGE_SIZE)));
+        queries.put("findListingAfter (all tags)", shapeOf(NoteQueries.listingAfter(tags, TagMatch.ALL, now, lastId, PAGE_SIZE)));
+
+        queries.forEach((name, query) -> {
+            Document explain = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Note.class))
+                    .find(query.filter())
+                    .sort(query.sort())
+                    .limit(query.limit())
+                    .explain();
+
+            Set<String> blocking = findBlockingStages(explain);
+            if (blocking.isEmpty()) {
+                log.debug("Query plan for {} is index-backed", name);
+            } else {
+                log.warn("Query plan for {} uses {}; listing latency will grow with the collection size", name, blocking);
+            }
+        });
+    }
+
+    /**
+     * @return the {@link #BLOCKING_STAGES} found anywhere in the winning plan of an explain result
+     */
+    static Set<String> findBlockingStages(Document explain) {
+        Object queryPlanner = explain.get("queryPlanner");
+        if (!(queryPlanner instanceof Document planner)) {
+            return Collections.emptySet();
+        }
+
+        Set<String> stages = new TreeSet<>();
+        collectStages(planner.get("winningPlan"), stages);
+        stages.retainAll(BLOCKING_STAGES);
+        return stages;
+    }
+
+    /**
+     * The filter and sort of {@code query} as they are sent to MongoDB, with ids, dates and tags converted.
+     */
+    private QueryShape shapeOf(Query query) {
+        QueryMapper mapper = new QueryMapper(mongoTemplate.getConverter());
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getPersistentEntity(Note.class);
+
+        return new QueryShape(mapper.getMappedObject(query.getQueryObject(), entity),
+                mapper.getMappedSort(query.getSortObject(), entity), query.getLimit());
+    }
+
+    private record QueryShape(Bson filter, Bson sort, int limit) {}
+
+    private static void collectStages(Object node, Set<String> stages) {
+        if (node instanceof Document document) {
+            if (document.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            document.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+}
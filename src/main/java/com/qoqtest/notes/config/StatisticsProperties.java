@@ -0,0 +1,30 @@
+package com.qoqtest.notes.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Word statistics settings under {@code notes.statistics}.
+ *
+ * @param stopWords stop words by language code, lowercased like the words of the stored histograms
+ */
+@ConfigurationProperties("notes.statistics")
+public record StatisticsProperties(Map<String, Set<String>> stopWords) {
+
+    public StatisticsProperties {
+        Map<String, Set<String>> normalized = new HashMap<>();
+        if (stopWords != null) {
+            stopWords.forEach((language, words) -> {
+                Set<String> lowercase = new HashSet<>();
+                words.forEach(word -> lowercase.add(word.toLowerCase(Locale.ROOT)));
+                normalized.put(language.toLowerCase(Locale.ROOT), Set.copyOf(lowercase));
+            });
+        }
+        stopWords = Map.copyOf(normalized);
+    }
+}
@@ -0,0 +1,64 @@
+package com.qoqtest.notes.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * CBOR and Smile, binary encodings of the same data model as JSON, next to JSON. Clients opt in with
+ * {@code Accept: application/cbor} or {@code Accept: application/x-jackson-smile}; JSON stays the default.
+ * The mappers are built from the application's Jackson settings, so both carry the same fields and dates as JSON.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    public static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(cbor(builder));
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(smile(builder));
+    }
+
+    /**
+     * WebFlux has a Smile codec by default but no Jackson CBOR one.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public CodecCustomizer binaryCodecCustomizer(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper cbor = cbor(builder);
+        ObjectMapper smile = smile(builder);
+        return configurer -> {
+            configurer.customCodecs().register(new Jackson2CborEncoder(cbor));
+            configurer.customCodecs().register(new Jackson2CborDecoder(cbor));
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smile));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smile));
+        };
+    }
+
+    private static ObjectMapper cbor(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new CBORFactory()).build();
+    }
+
+    private static ObjectMapper smile(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new SmileFactory()).build();
+    }
+}
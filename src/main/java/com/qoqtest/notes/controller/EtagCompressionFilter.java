@@ -0,0 +1,172 @@
+package com.qoqtest.notes.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip for the note responses that carry a strong ETag: single notes, their word statistics and the listings.
+ * Tomcat's {@code server.compression} never compresses a response with a strong ETag, since the ETag names its
+ * exact bytes, so these are compressed here under an ETag of their own: {@code "3"} becomes {@code "3-gzip"}.
+ * The suffix is taken off {@code If-None-Match} and {@code If-Match} again before the controllers compare
+ * versions. All other responses are left to {@code server.compression}, whose settings apply here as well.
+ * <p>
+ * Responses are buffered to be compressed, so the streamed NDJSON export, batch word statistics and change feed are
+ * never filtered.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class EtagCompressionFilter extends OncePerRequestFilter {
+
+    static final String GZIP_SUFFIX = "-gzip";
+
+    private static final String NOTES_PATH = "/api/notes";
+    private static final String EXPORT_PATH = "/api/notes/export";
+    private static final String STATISTICS_PATH = "/api/notes/stats";
+    private static final String CHANGES_PATH = "/api/notes/changes";
+
+    @Value("${server.compression.enabled:false}")
+    private boolean enabled;
+
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize minResponseSize;
+
+    @Value("${server.compression.mime-types:application/json}")
+    private List<MediaType> mimeTypes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        return !enabled || !path.startsWith(NOTES_PATH) || path.equals(EXPORT_PATH) || path.equals(CHANGES_PATH)
+                || (path.equals(STATISTICS_PATH) && HttpMethod.POST.matches(request.getMethod()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(new UnsuffixedConditionalRequest(request), buffered);
+
+        String etag = buffered.getHeader(HttpHeaders.ETAG);
+        if (etag == null || etag.startsWith("W/")) {
+            buffered.copyBodyToResponse();
+            return;
+        }
+
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        byte[] body = buffered.getContentAsByteArray();
+
+        if (buffered.getStatus() == HttpServletResponse.SC_NOT_MODIFIED) {
+            // Confirm the representation the client asked about.
+            if (contains(request.getHeaders(HttpHeaders.IF_NONE_MATCH), gzipped(etag))) {
+                response.setHeader(HttpHeaders.ETAG, gzipped(etag));
+            }
+            buffered.copyBodyToResponse();
+        } else if (body.length >= minResponseSize.toBytes() && compressible(buffered.getContentType()) && acceptsGzip(request)) {
+            byte[] zipped = gzip(body);
+            response.setHeader(HttpHeaders.ETAG, gzipped(etag));
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.setContentLength(zipped.length);
+            response.getOutputStream().write(zipped);
+        } else {
+            buffered.copyBodyToResponse();
+        }
+    }
+
+    private boolean compressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MediaType type = MediaType.parseMediaType(contentType);
+        return mimeTypes.stream().anyMatch(mimeType -> mimeType.isCompatibleWith(type));
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        Enumeration<String> headers = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (headers != null && headers.hasMoreElements()) {
+            for (String coding : headers.nextElement().split(",")) {
+                String[] parts = coding.trim().split(";");
+                boolean matches = parts[0].trim().equalsIgnoreCase("gzip") || parts[0].trim().equals("*");
+                boolean refused = Arrays.stream(parts).skip(1)
+                        .map(param -> param.replace(" ", ""))
+                        .anyMatch(param -> param.matches("[qQ]=0(\\.0{0,3})?"));
+                if (matches && !refused) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream zipped = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(zipped)) {
+            out.write(body);
+        }
+        return zipped.toByteArray();
+    }
+
+    private static String gzipped(String etag) {
+        return etag.endsWith("\"") ? etag.substring(0, etag.length() - 1) + GZIP_SUFFIX + "\"" : etag;
+    }
+
+    private static boolean contains(Enumeration<String> headers, String etag) {
+        return headers != null && Collections.list(headers).stream().anyMatch(header -> header.contains(etag));
+    }
+
+    /**
+     * Shows the controllers the plain ETags in the conditional headers.
+     */
+    private static final class UnsuffixedConditionalRequest extends HttpServletRequestWrapper {
+
+        private UnsuffixedConditionalRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            String value = super.getHeader(name);
+            return value != null && isConditional(name) ? unsuffixed(value) : value;
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            Enumeration<String> values = super.getHeaders(name);
+            if (values == null || !isConditional(name)) {
+                return values;
+            }
+            return Collections.enumeration(Collections.list(values).stream().map(UnsuffixedConditionalRequest::unsuffixed).toList());
+        }
+
+        private static boolean isConditional(String name) {
+            return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name) || HttpHeaders.IF_MATCH.equalsIgnoreCase(name);
+        }
+
+        private static String unsuffixed(String value) {
+            return value.replace(GZIP_SUFFIX + "\"", "\"");
+        }
+    }
+}
@@ -1,62 +1,287 @@
 package com.qoqtest.notes.controller;
 
+import com.qoqtest.notes.dto.CorpusStatisticsDTO;
+import com.qoqtest.notes.dto.NoteBatchIdsDTO;
+import com.qoqtest.notes.dto.NoteBatchResultDTO;
+import com.qoqtest.notes.dto.NoteBatchTagsDTO;
+import com.qoqtest.notes.dto.NoteChangeDTO;
+import com.qoqtest.notes.dto.NoteCursorPageDTO;
 import com.qoqtest.notes.dto.NoteFullResponseDTO;
+import com.qoqtest.notes.dto.NoteImportResultDTO;
 import com.qoqtest.notes.dto.NoteRequestDTO;
+import com.qoqtest.notes.dto.NoteSearchHitDTO;
 import com.qoqtest.notes.dto.NoteShortResponseDTO;
+import com.qoqtest.notes.dto.PageTotal;
+import com.qoqtest.notes.dto.SearchOperator;
+import com.qoqtest.notes.dto.SearchOrder;
+import com.qoqtest.notes.dto.TagFacetsDTO;
+import com.qoqtest.notes.dto.TagMatch;
 import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.service.CorpusStatisticsService;
+import com.qoqtest.notes.service.NoteBatchService;
+import com.qoqtest.notes.service.NoteChangeFeed;
+import com.qoqtest.notes.service.NoteExportService;
+import com.qoqtest.notes.service.NoteSearchService;
 import com.qoqtest.notes.service.NoteService;
+import com.qoqtest.notes.service.NoteStatisticsBatchService;
+import com.qoqtest.notes.service.NoteStatisticsIndexer;
+import com.qoqtest.notes.service.NoteVersion;
+import com.qoqtest.notes.service.WordStatisticsFilter;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.qoqtest.notes.controller.NoteEtags.etag;
+import static com.qoqtest.notes.controller.NoteEtags.expectedVersion;
+import static com.qoqtest.notes.controller.NoteEtags.withVersion;
 
 @RestController
 @RequestMapping("/api/notes")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class NoteController {
 
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
     private final NoteService noteService;
+    private final NoteBatchService noteBatchService;
+    private final NoteSearchService noteSearchService;
+    private final NoteExportService noteExportService;
+    private final NoteStatisticsBatchService noteStatisticsBatchService;
+    private final CorpusStatisticsService corpusStatisticsService;
+    private final WordStatisticsFilter wordStatisticsFilter;
+    private final NoteChangeFeed noteChangeFeed;
+
+    @Value("${notes.changes.heartbeat-interval:30s}")
+    private Duration heartbeatInterval = Duration.ofSeconds(30);
 
     @PostMapping
     @Operation(summary = "Create a new note", description = "Saves a note with title, text, and optional tags.")
     public ResponseEntity<NoteFullResponseDTO> create(@Valid @RequestBody NoteRequestDTO dto){
-        return new ResponseEntity<>(noteService.createNote(dto), HttpStatus.CREATED);
+        return withVersion(ResponseEntity.status(HttpStatus.CREATED), noteService.createNote(dto));
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Create notes in bulk", description = "Validates every note and inserts the valid ones with batched writes. " +
+            "Returns one result per note, in request order.")
+    public ResponseEntity<NoteBatchResultDTO> createBatch(@RequestBody List<NoteRequestDTO> dtos) {
+        return ResponseEntity.ok(noteBatchService.createNotes(dtos));
+    }
+
+    @PostMapping("/batch/delete")
+    @Operation(summary = "Delete notes in bulk", description = "Deletes the notes with the given ids. Returns one result per id, in request order.")
+    public ResponseEntity<NoteBatchResultDTO> deleteBatch(@Valid @RequestBody NoteBatchIdsDTO dto) {
+        return ResponseEntity.ok(noteBatchService.deleteNotes(dto.ids()));
+    }
+
+    @PostMapping("/batch/tags")
+    @Operation(summary = "Change tags in bulk", description = "Adds and then removes tags on the notes with the given ids. Returns one result per id, in request order.")
+    public ResponseEntity<NoteBatchResultDTO> updateTagsBatch(@Valid @RequestBody NoteBatchTagsDTO dto) {
+        return ResponseEntity.ok(noteBatchService.updateTags(dto.ids(), dto.add(), dto.remove()));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Import notes", description = "Creates a note from every line of a newline-delimited JSON body, such as an export. " +
+            "Lines are validated like single notes and inserted in batches; the response counts the lines and lists the failed ones. " +
+            "Send 'Content-Encoding: gzip' for a compressed body.")
+    public ResponseEntity<NoteImportResultDTO> importNotes(
+            @RequestHeader (value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream body
+            ) throws IOException {
+        if ("gzip".equalsIgnoreCase(contentEncoding)) {
+            try (GZIPInputStream unzipped = new GZIPInputStream(body, GZIP_BUFFER_SIZE)) {
+                return ResponseEntity.ok(noteBatchService.importNotes(unzipped));
+            }
+        }
+        return ResponseEntity.ok(noteBatchService.importNotes(body));
     }
 
     @GetMapping
-    @Operation(summary = "List notes", description = "Returns a paginated list of notes showing only Title and Created Date.")
+    @Operation(summary = "List notes", description = "Returns a paginated list of notes showing only Title and Created Date. " +
+            "Notes with ANY (default) or ALL of the given tags are listed. " +
+            "The total is APPROXIMATE by default, kept in memory per tag combination; pass total=EXACT to count it.")
     public ResponseEntity<Page<NoteShortResponseDTO>> getAll(
             @RequestParam (required = false)Set<NoteTag> tags,
-            @RequestParam (defaultValue = "0") int page,
-            @RequestParam (defaultValue = "10") int size
+            @RequestParam (defaultValue = "ANY") TagMatch match,
+            @RequestParam (defaultValue = "0") @Min(0) int page,
+            @RequestParam (defaultValue = "10") @Min(1) @Max(NoteService.MAX_PAGE_SIZE) int size,
+            @RequestParam (defaultValue = "APPROXIMATE") PageTotal total
             ) {
-        return ResponseEntity.ok(noteService.getAllNotes(tags, page, size));
+        return ResponseEntity.ok(noteService.getAllNotes(tags, match, page, size, total));
+    }
+
+    @GetMapping(params = "after")
+    @Operation(summary = "List notes by cursor", description = "Returns the notes following the given cursor, newest first, without a total count. " +
+            "Pass an empty 'after' for the first page and the returned 'nextCursor' for the following ones.")
+    public ResponseEntity<NoteCursorPageDTO> getAllAfter(
+            @RequestParam (required = false)Set<NoteTag> tags,
+            @RequestParam (defaultValue = "ANY") TagMatch match,
+            @RequestParam String after,
+            @RequestParam (defaultValue = "10") @Min(1) @Max(NoteService.MAX_PAGE_SIZE) int size
+            ) {
+        return ResponseEntity.ok(noteService.getNotesAfter(tags, match, after, size));
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Count notes per tag", description = "Returns how many notes match the optional tag filter " +
+            "and, for every tag, how many of them carry it. Answered from the in-memory counts per tag combination.")
+    public ResponseEntity<TagFacetsDTO> getTagFacets(
+            @RequestParam (required = false)Set<NoteTag> tags,
+            @RequestParam (defaultValue = "ANY") TagMatch match
+            ) {
+        return ResponseEntity.ok(noteService.getTagFacets(tags, match));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search notes", description = "Finds notes whose text contains all (AND) or any (OR) of the words in 'q', " +
+            "optionally filtered by tags. Results are ordered by relevance or newest first.")
+    public ResponseEntity<Page<NoteSearchHitDTO>> search(
+            @RequestParam String q,
+            @RequestParam (defaultValue = "AND") SearchOperator operator,
+            @RequestParam (required = false)Set<NoteTag> tags,
+            @RequestParam (defaultValue = "RELEVANCE") SearchOrder sort,
+            @RequestParam (defaultValue = "0") @Min(0) int page,
+            @RequestParam (defaultValue = "10") @Min(1) @Max(NoteService.MAX_PAGE_SIZE) int size
+            ) {
+        return ResponseEntity.ok(noteSearchService.search(q, operator, tags, sort, page, size));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export notes", description = "Streams the full content of every note as newline-delimited JSON, " +
+            "optionally filtered by tags and by a created date range [from, to). With gzip=true the file is gzip-compressed.")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam (required = false)Set<NoteTag> tags,
+            @RequestParam (required = false) Instant from,
+            @RequestParam (required = false) Instant to,
+            @RequestParam (defaultValue = "false") boolean gzip
+            ) {
+        StreamingResponseBody body = gzip
+                ? out -> {
+                    try (GZIPOutputStream zipped = new GZIPOutputStream(out, GZIP_BUFFER_SIZE)) {
+                        noteExportService.exportNotes(tags, from, to, zipped);
+                    }
+                }
+                : out -> noteExportService.exportNotes(tags, from, to, out);
+
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(gzip ? "notes.ndjson.gz" : "notes.ndjson")
+                .build();
+        return ResponseEntity.ok()
+                .contentType(gzip ? GZIP : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get corpus word statistics", description = "Returns the most frequent words across all notes, " +
+            "or across the notes with the given tag, sorted descending. At most " + CorpusStatisticsService.MAX_LIMIT + " words.")
+    public ResponseEntity<CorpusStatisticsDTO> getCorpusStatistics(
+            @RequestParam (required = false) NoteTag tag,
+            @RequestParam (defaultValue = "10") int limit
+            ) {
+        return ResponseEntity.ok(corpusStatisticsService.getTopWords(tag, limit));
+    }
+
+    @PostMapping("/stats")
+    @Operation(summary = "Get word statistics of many notes", description = "Streams the word statistics of the notes with the given ids, " +
+            "filtered by ANY (default) or ALL of the optional tags, as newline-delimited JSON. Without ids, every note with the tags is included. " +
+            "Notes are read with one query and computed in parallel; lines come as soon as they are ready, and ids without a note " +
+            "are reported as NOT_FOUND at the end. 'limit', 'minCount' and 'stopWords' apply to every note as on the single-note endpoint.")
+    public ResponseEntity<StreamingResponseBody> getUniqueWordsByNotes(
+            @Valid @RequestBody (required = false) NoteBatchIdsDTO dto,
+            @RequestParam (required = false)Set<NoteTag> tags,
+            @RequestParam (defaultValue = "ANY") TagMatch match,
+            @RequestParam (required = false) Integer limit,
+            @RequestParam (defaultValue = "1") long minCount,
+            @RequestParam (required = false) String stopWords
+            ) {
+        // Resolved up front, so an unknown language is still answered with 400 instead of a broken stream.
+        UnaryOperator<Map<String, Long>> selection = wordStatisticsFilter.selector(limit, minCount, stopWords);
+        List<String> ids = dto == null ? null : dto.ids();
+
+        StreamingResponseBody body = out -> noteStatisticsBatchService.writeStatistics(ids, tags, match, selection, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Follow note changes", description = "Streams every created, updated and deleted note as a server-sent event " +
+            "whose id is a resume token. Reconnecting with 'Last-Event-ID' or 'after' set to that token first replays the changes " +
+            "missed in between; a RESET event means they are no longer known and the notes should be listed again.")
+    public Flux<ServerSentEvent<NoteChangeDTO>> changes(
+            @RequestHeader (name = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam (required = false) String after
+            ) {
+        Flux<ServerSentEvent<NoteChangeDTO>> events = noteChangeFeed.changesAfter(after != null ? after : lastEventId)
+                .map(event -> ServerSentEvent.builder(event.change()).id(event.token()).build());
+        // Comments keep proxies from closing a quiet connection.
+        return events.publish(shared -> Flux.merge(shared, Flux.interval(heartbeatInterval)
+                .map(tick -> ServerSentEvent.<NoteChangeDTO>builder().comment("heartbeat").build())
+                .takeUntilOther(shared.ignoreElements())));
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get note details", description = "Retrieves the full content of a specific note, including its text and tags.")
-    public ResponseEntity<NoteFullResponseDTO> getById(@PathVariable String id) {
-        return ResponseEntity.ok(noteService.getNoteById(id));
+    @Operation(summary = "Get note details", description = "Retrieves the full content of a specific note, including its text and tags. " +
+            "Returns 304 Not Modified if the note still matches 'If-None-Match' or was not changed since 'If-Modified-Since'.")
+    public ResponseEntity<NoteFullResponseDTO> getById(@PathVariable String id, WebRequest request) {
+        if (isConditional(request)) {
+            // Only the version is read until it is clear that the client's copy is out of date.
+            NoteVersion version = noteService.getNoteVersion(id);
+            if (request.checkNotModified(etag(version.version()), epochMilli(version.lastModified()))) {
+                return null;
+            }
+            // checkNotModified has set ETag and Last-Modified already.
+            return ResponseEntity.ok(noteService.getNoteById(id));
+        }
+        return withVersion(ResponseEntity.ok(), noteService.getNoteById(id));
     }
 
     @PutMapping("/{id}")
-    @Operation(summary = "Update a note", description = "Fully updates an existing note. Requires all mandatory fields (title, text).")
+    @Operation(summary = "Update a note", description = "Fully updates an existing note. Requires all mandatory fields (title, text). " +
+            "With 'If-Match' the update is only applied if the note is still at that ETag, otherwise 412 Precondition Failed is returned.")
     public ResponseEntity<NoteFullResponseDTO> update(
             @PathVariable String id,
+            @RequestHeader (value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody NoteRequestDTO dto) {
-        return ResponseEntity.ok(noteService.updateNote(id, dto));
+        return withVersion(ResponseEntity.ok(), noteService.updateNote(id, dto, expectedVersion(ifMatch)));
     }
 
     @PatchMapping("/{id}")
-    @Operation(summary = "Partially update a note", description = "Updates only the provided fields of an existing note.")
-    public ResponseEntity<NoteFullResponseDTO> patch(@PathVariable String id, @RequestBody NoteRequestDTO dto) {
-        return ResponseEntity.ok(noteService.updateNote(id, dto));
+    @Operation(summary = "Partially update a note", description = "Updates only the provided fields of an existing note. " +
+            "With 'If-Match' the update is only applied if the note is still at that ETag, otherwise 412 Precondition Failed is returned.")
+    public ResponseEntity<NoteFullResponseDTO> patch(
+            @PathVariable String id,
+            @RequestHeader (value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody NoteRequestDTO dto) {
+        return withVersion(ResponseEntity.ok(), noteService.updateNote(id, dto, expectedVersion(ifMatch)));
     }
 
     @DeleteMapping("/{id}")
@@ -70,10 +295,40 @@ public class NoteController {
     }
 
     @GetMapping("/{id}/stats")
-    @Operation(summary = "Get word statistics", description = "Calculates the frequency of unique words in a note, sorted descending.")
-    public ResponseEntity<Map<String, Long>> getUniqueWordsByNote(@PathVariable String id) {
+    @Operation(summary = "Get word statistics", description = "Calculates the frequency of unique words in a note, sorted descending. " +
+            "Optionally returns only the top 'limit' words, words occurring at least 'minCount' times, and leaves out " +
+            "the stop words of the 'stopWords' language. Supports 'If-None-Match' and 'If-Modified-Since' like the note itself.")
+    public ResponseEntity<Map<String, Long>> getUniqueWordsByNote(
+            @PathVariable String id,
+            @RequestParam (required = false) Integer limit,
+            @RequestParam (defaultValue = "1") long minCount,
+            @RequestParam (required = false) String stopWords,
+            WebRequest request
+            ) {
+        // Read before the statistics, so the ETag can be older than the body but never newer.
+        NoteVersion version = noteService.getNoteVersion(id);
+        if (request.checkNotModified(statisticsEtag(version.version()), epochMilli(version.lastModified()))) {
+            return null;
+        }
+
+        // checkNotModified has set ETag and Last-Modified already.
         Map<String, Long> statistics = noteService.getNoteWordFrequencyDescending(id);
-        return ResponseEntity.ok(statistics);
+        return ResponseEntity.ok(wordStatisticsFilter.select(statistics, limit, minCount, stopWords));
+    }
+
+    private static boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    /**
+     * Strong ETag of the word statistics of a note, which also change with the word counting algorithm.
+     */
+    private static String statisticsEtag(long version) {
+        return "\"" + version + "-" + NoteStatisticsIndexer.CURRENT_VERSION + "\"";
+    }
+
+    private static long epochMilli(Instant instant) {
+        return instant != null ? instant.toEpochMilli() : -1;
     }
 
 }
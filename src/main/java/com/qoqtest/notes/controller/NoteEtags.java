@@ -0,0 +1,49 @@
+package com.qoqtest.notes.controller;
+
+import com.qoqtest.notes.dto.NoteFullResponseDTO;
+import com.qoqtest.notes.exception.NoteVersionMismatchException;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * ETags of single notes, shared by the servlet and the reactive controller.
+ */
+final class NoteEtags {
+
+    private NoteEtags() {
+    }
+
+    static ResponseEntity<NoteFullResponseDTO> withVersion(ResponseEntity.BodyBuilder response, NoteFullResponseDTO note) {
+        response.eTag(etag(note.version()));
+        if (note.lastModifiedDate() != null) {
+            response.lastModified(note.lastModifiedDate());
+        }
+        return response.body(note);
+    }
+
+    /**
+     * Strong ETag of a note: its version.
+     */
+    static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * The version named by an If-Match header, or {@code null} if there is none or it is {@code *}.
+     * If-Match compares strongly, so a weak or foreign ETag never matches.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // Not one of our ETags, handled below.
+            }
+        }
+        throw new NoteVersionMismatchException("If-Match " + ifMatch + " is not the ETag of a version of the note");
+    }
+}
@@ -0,0 +1,24 @@
+package com.qoqtest.notes.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Strong ETags for the note listings ({@code GET /api/notes}), which have no single version to take them from.
+ * The ETag is a hash of the response body, so a listing is still read and serialized, but a matching
+ * {@code If-None-Match} gets 304 Not Modified without the body being sent.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class NoteListingEtagFilter extends ShallowEtagHeaderFilter {
+
+    private static final String LISTING_PATH = "/api/notes";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !LISTING_PATH.equals(UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+    }
+}
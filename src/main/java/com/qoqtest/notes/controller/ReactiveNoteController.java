@@ -0,0 +1,138 @@
+package com.qoqtest.notes.controller;
+
+import com.qoqtest.notes.dto.NoteCursorPageDTO;
+import com.qoqtest.notes.dto.NoteFullResponseDTO;
+import com.qoqtest.notes.dto.NoteRequestDTO;
+import com.qoqtest.notes.dto.NoteShortResponseDTO;
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.service.NoteService;
+import com.qoqtest.notes.service.ReactiveNoteService;
+import com.qoqtest.notes.service.WordStatisticsFilter;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Set;
+
+import static com.qoqtest.notes.controller.NoteEtags.expectedVersion;
+import static com.qoqtest.notes.controller.NoteEtags.withVersion;
+
+/**
+ * WebFlux version of {@link NoteController}, active when the application runs with the {@code reactive} profile.
+ */
+@RestController
+@RequestMapping("/api/notes")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveNoteController {
+
+    private final ReactiveNoteService noteService;
+    private final WordStatisticsFilter wordStatisticsFilter;
+
+    @PostMapping
+    @Operation(summary = "Create a new note", description = "Saves a note with title, text, and optional tags.")
+    public Mono<ResponseEntity<NoteFullResponseDTO>> create(@Valid @RequestBody NoteRequestDTO dto) {
+        return noteService.createNote(dto)
+                .map(note -> withVersion(ResponseEntity.status(HttpStatus.CREATED), note));
+    }
+
+    @GetMapping
+    @Operation(summary = "List notes", description = "Returns a paginated list of notes showing only Title and Created Date.")
+    public Mono<PagedModel<NoteShortResponseDTO>> getAll(
+            @RequestParam (required = false) Set<NoteTag> tags,
+            @RequestParam (defaultValue = "ANY") TagMatch match,
+            @RequestParam (defaultValue = "0") @Min(0) int page,
+            @RequestParam (defaultValue = "10") @Min(1) @Max(NoteService.MAX_PAGE_SIZE) int size
+            ) {
+        // Same JSON shape as the servlet stack's spring.data.web.pageable.serialization-mode=via_dto.
+        return noteService.getAllNotes(tags, match, page, size).map(PagedModel::new);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream notes", description = "Streams every note (Title and Created Date), newest first, as newline-delimited JSON with backpressure.")
+    public Flux<NoteShortResponseDTO> stream(
+            @RequestParam (required = false) Set<NoteTag> tags,
+            @RequestParam (defaultValue = "ANY") TagMatch match
+            ) {
+        return noteService.streamNotes(tags, match);
+    }
+
+    @GetMapping(params = "after")
+    @Operation(summary = "List notes by cursor", description = "Returns the notes following the given cursor, newest first, without a total count. " +
+            "Pass an empty 'after' for the first page and the returned 'nextCursor' for the following ones.")
+    public Mono<NoteCursorPageDTO> getAllAfter(
+            @RequestParam (required = false) Set<NoteTag> tags,
+            @RequestParam (defaultValue = "ANY") TagMatch match,
+            @RequestParam String after,
+            @RequestParam (defaultValue = "10") @Min(1) @Max(NoteService.MAX_PAGE_SIZE) int size
+            ) {
+        return noteService.getNotesAfter(tags, match, after, size);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get note details", description = "Retrieves the full content of a specific note, including its text and tags.")
+    public Mono<ResponseEntity<NoteFullResponseDTO>> getById(@PathVariable String id) {
+        return noteService.getNoteById(id)
+                .map(note -> withVersion(ResponseEntity.ok(), note));
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Update a note", description = "Fully updates an existing note. Requires all mandatory fields (title, text). " +
+            "With 'If-Match' the update is only applied if the note is still at that ETag, otherwise 412 Precondition Failed is returned.")
+    public Mono<ResponseEntity<NoteFullResponseDTO>> update(
+            @PathVariable String id,
+            @RequestHeader (value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody NoteRequestDTO dto) {
+        return noteService.updateNote(id, dto, expectedVersion(ifMatch))
+                .map(note -> withVersion(ResponseEntity.ok(), note));
+    }
+
+    @PatchMapping("/{id}")
+    @Operation(summary = "Partially update a note", description = "Updates only the provided fields of an existing note. " +
+            "With 'If-Match' the update is only applied if the note is still at that ETag, otherwise 412 Precondition Failed is returned.")
+    public Mono<ResponseEntity<NoteFullResponseDTO>> patch(
+            @PathVariable String id,
+            @RequestHeader (value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody NoteRequestDTO dto) {
+        return noteService.updateNote(id, dto, expectedVersion(ifMatch))
+                .map(note -> withVersion(ResponseEntity.ok(), note));
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(
+            summary = "Delete a note",
+            description = "Removes a note from the database by its unique ID. Returns 204 No Content on success."
+    )
+    public Mono<Void> delete(@PathVariable String id) {
+        return noteService.deleteNote(id);
+    }
+
+    @GetMapping("/{id}/stats")
+    @Operation(summary = "Get word statistics", description = "Calculates the frequency of unique words in a note, sorted descending. " +
+            "Optionally returns only the top 'limit' words, words occurring at least 'minCount' times, and leaves out " +
+            "the stop words of the 'stopWords' language.")
+    public Mono<Map<String, Long>> getUniqueWordsByNote(
+            @PathVariable String id,
+            @RequestParam (required = false) Integer limit,
+            @RequestParam (defaultValue = "1") long minCount,
+            @RequestParam (required = false) String stopWords
+            ) {
+        return noteService.getNoteWordFrequencyDescending(id)
+                .map(statistics -> wordStatisticsFilter.select(statistics, limit, minCount, stopWords));
+    }
+
+}
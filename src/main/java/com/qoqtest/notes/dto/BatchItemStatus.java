@@ -0,0 +1,5 @@
+package com.qoqtest.notes.dto;
+
+public enum BatchItemStatus {
+        CREATED, UPDATED, DELETED, NOT_FOUND, INVALID, FAILED
+}
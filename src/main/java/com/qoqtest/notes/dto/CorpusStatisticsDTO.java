@@ -0,0 +1,12 @@
+package com.qoqtest.notes.dto;
+
+import com.qoqtest.notes.entity.NoteTag;
+
+import java.util.Map;
+
+public record CorpusStatisticsDTO(
+        NoteTag tag,
+        long notes,
+        long uniqueWords,
+        Map<String, Long> words
+) {}
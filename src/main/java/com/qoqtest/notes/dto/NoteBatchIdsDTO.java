@@ -0,0 +1,12 @@
+package com.qoqtest.notes.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record NoteBatchIdsDTO(
+        @NotEmpty(message = "Ids are mandatory")
+        @Schema(description = "Ids of the notes to process", example = "[\"65f000000000000000000001\", \"65f000000000000000000002\"]")
+        List<String> ids
+) {}
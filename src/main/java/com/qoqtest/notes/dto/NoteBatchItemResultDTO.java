@@ -0,0 +1,17 @@
+package com.qoqtest.notes.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record NoteBatchItemResultDTO(
+        int index,
+        String id,
+        BatchItemStatus status,
+        Map<String, String> errors
+) {
+    public NoteBatchItemResultDTO(int index, String id, BatchItemStatus status) {
+        this(index, id, status, null);
+    }
+}
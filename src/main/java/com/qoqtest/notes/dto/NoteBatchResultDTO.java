@@ -0,0 +1,9 @@
+package com.qoqtest.notes.dto;
+
+import java.util.List;
+
+public record NoteBatchResultDTO(
+        int succeeded,
+        int failed,
+        List<NoteBatchItemResultDTO> items
+) {}
@@ -0,0 +1,20 @@
+package com.qoqtest.notes.dto;
+
+import com.qoqtest.notes.entity.NoteTag;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+import java.util.Set;
+
+public record NoteBatchTagsDTO(
+        @NotEmpty(message = "Ids are mandatory")
+        @Schema(description = "Ids of the notes to retag", example = "[\"65f000000000000000000001\"]")
+        List<String> ids,
+
+        @Schema(description = "Tags to add", example = "[\"IMPORTANT\"]")
+        Set<NoteTag> add,
+
+        @Schema(description = "Tags to remove; applied after 'add'", example = "[\"PERSONAL\"]")
+        Set<NoteTag> remove
+) {}
@@ -0,0 +1,25 @@
+package com.qoqtest.notes.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.qoqtest.notes.entity.NoteTag;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * One event of the change feed. Creates and updates carry the version of the note they produced; deletes carry only
+ * the id, resets nothing but the operation.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record NoteChangeDTO(
+        NoteChangeOperation op,
+        String id,
+        Long version,
+        String title,
+        Instant createdDate,
+        Set<NoteTag> tags
+) {
+    public NoteChangeDTO(NoteChangeOperation op, String id) {
+        this(op, id, null, null, null, null);
+    }
+}
@@ -0,0 +1,9 @@
+package com.qoqtest.notes.dto;
+
+/**
+ * What happened to a note in the change feed. {@code RESET} means changes may have been missed,
+ * so the client should list the notes again.
+ */
+public enum NoteChangeOperation {
+        CREATE, UPDATE, DELETE, RESET
+}
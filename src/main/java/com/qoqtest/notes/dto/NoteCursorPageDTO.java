@@ -0,0 +1,10 @@
+package com.qoqtest.notes.dto;
+
+import java.util.List;
+
+public record NoteCursorPageDTO(
+        List<NoteShortResponseDTO> content,
+        int size,
+        boolean hasNext,
+        String nextCursor
+) {}
@@ -9,5 +9,7 @@ public record NoteFullResponseDTO(
         String title,
         String text,
         Instant createdDate,
-        Set<NoteTag> tags
+        Set<NoteTag> tags,
+        long version,
+        Instant lastModifiedDate
 ) {}
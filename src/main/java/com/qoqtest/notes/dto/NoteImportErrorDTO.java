@@ -0,0 +1,9 @@
+package com.qoqtest.notes.dto;
+
+import java.util.Map;
+
+public record NoteImportErrorDTO(
+        long line,
+        BatchItemStatus status,
+        Map<String, String> errors
+) {}
@@ -0,0 +1,12 @@
+package com.qoqtest.notes.dto;
+
+import java.util.List;
+
+public record NoteImportResultDTO(
+        long lines,
+        long imported,
+        long skipped,
+        long failed,
+        List<NoteImportErrorDTO> errors,
+        boolean errorsTruncated
+) {}
@@ -3,14 +3,17 @@ package com.qoqtest.notes.dto;
 import com.qoqtest.notes.entity.NoteTag;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import java.util.Set;
 
 public record NoteRequestDTO(
         @NotBlank(message = "Title is mandatory")
+        @Size(max = 255, message = "Title must be at most 255 characters")
         @Schema(description = "Note title", example = "Shopping List")
         String title,
 
         @NotBlank(message = "Text is mandatory")
+        @Size(max = 10000, message = "Text must be at most 10000 characters")
         @Schema(description = "Main content of the note", example = "Buy milk, eggs, and bread")
         String text,
 
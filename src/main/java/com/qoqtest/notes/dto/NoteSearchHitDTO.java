@@ -0,0 +1,10 @@
+package com.qoqtest.notes.dto;
+
+import java.time.Instant;
+
+public record NoteSearchHitDTO(
+        String id,
+        String title,
+        Instant createdDate,
+        double score
+) {}
@@ -0,0 +1,23 @@
+package com.qoqtest.notes.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * One line of the batch word statistics: the words of a note sorted descending, or why there are none.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record NoteStatisticsDTO(
+        String id,
+        Map<String, Long> words,
+        BatchItemStatus status
+) {
+    public NoteStatisticsDTO(String id, Map<String, Long> words) {
+        this(id, words, null);
+    }
+
+    public NoteStatisticsDTO(String id, BatchItemStatus status) {
+        this(id, null, status);
+    }
+}
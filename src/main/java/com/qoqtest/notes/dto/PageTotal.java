@@ -0,0 +1,8 @@
+package com.qoqtest.notes.dto;
+
+public enum PageTotal {
+    /** Counted by MongoDB for every page that needs it. */
+    EXACT,
+    /** Taken from the in-memory counts per tag combination, or estimated from the collection metadata. */
+    APPROXIMATE
+}
@@ -0,0 +1,11 @@
+package com.qoqtest.notes.dto;
+
+/**
+ * How the terms of a search query are combined.
+ */
+public enum SearchOperator {
+    /** Every term must occur in the note. */
+    AND,
+    /** At least one term must occur in the note. */
+    OR
+}
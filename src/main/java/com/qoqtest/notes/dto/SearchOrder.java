@@ -0,0 +1,8 @@
+package com.qoqtest.notes.dto;
+
+public enum SearchOrder {
+    /** Best match first; equally relevant notes newest first. */
+    RELEVANCE,
+    /** Newest first, like the note listing. */
+    NEWEST
+}
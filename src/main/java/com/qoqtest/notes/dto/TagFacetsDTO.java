@@ -0,0 +1,17 @@
+package com.qoqtest.notes.dto;
+
+import com.qoqtest.notes.entity.NoteTag;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @param notes  number of notes matching the filter
+ * @param facets for every tag, the number of notes matching the filter that also have the tag
+ */
+public record TagFacetsDTO(
+        Set<NoteTag> tags,
+        TagMatch match,
+        long notes,
+        Map<NoteTag, Long> facets
+) {}
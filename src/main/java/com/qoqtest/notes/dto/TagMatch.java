@@ -0,0 +1,11 @@
+package com.qoqtest.notes.dto;
+
+/**
+ * How the tags of a listing filter are combined.
+ */
+public enum TagMatch {
+    /** The note has at least one of the tags. */
+    ANY,
+    /** The note has every one of the tags. */
+    ALL
+}
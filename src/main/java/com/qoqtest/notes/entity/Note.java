@@ -4,9 +4,12 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Set;
 
 @Getter
@@ -16,6 +19,10 @@ import java.util.Set;
 @AllArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Document(collection = "notes")
+@CompoundIndexes({
+        @CompoundIndex(name = "createdDate_id", def = "{ 'createdDate': -1, '_id': -1 }"),
+        @CompoundIndex(name = "tags_createdDate_id", def = "{ 'tags': 1, 'createdDate': -1, '_id': -1 }")
+})
 public class Note {
     @Id
     @EqualsAndHashCode.Include
@@ -33,4 +40,32 @@ public class Note {
 
     private Set<NoteTag> tags;
 
+    /**
+     * Incremented on every change of the note and used as its ETag. Notes written before versioning
+     * have no stored version and count as version 0.
+     */
+    private long version;
+
+    /**
+     * Time of the last change; {@code null} until the note is first changed.
+     */
+    @Getter(AccessLevel.NONE)
+    private Instant lastModifiedDate;
+
+    /**
+     * Word histogram of {@link #text}, sorted by count descending.
+     * Computed on write so the stats endpoint never has to tokenize the text.
+     */
+    @ToString.Exclude
+    private List<WordCount> wordFrequencies;
+
+    /**
+     * Algorithm version {@link #wordFrequencies} was computed with; stale histograms are rebuilt lazily.
+     */
+    private Integer wordStatsVersion;
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate != null ? lastModifiedDate : createdDate;
+    }
+
 }
@@ -1,5 +1,35 @@
 package com.qoqtest.notes.entity;
 
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum NoteTag {
-        BUSINESS, PERSONAL, IMPORTANT
-}
\ No newline at end of file
+        BUSINESS, PERSONAL, IMPORTANT;
+
+        /**
+         * The tags as a bit mask with bit {@code tag.ordinal()} set for every tag; {@code null} is the empty mask.
+         */
+        public static int mask(Collection<NoteTag> tags) {
+                int mask = 0;
+                if (tags != null) {
+                        for (NoteTag tag : tags) {
+                                mask |= 1 << tag.ordinal();
+                        }
+                }
+                return mask;
+        }
+
+        /**
+         * The tags of a {@link #mask}.
+         */
+        public static Set<NoteTag> of(int mask) {
+                Set<NoteTag> tags = EnumSet.noneOf(NoteTag.class);
+                for (NoteTag tag : values()) {
+                        if ((mask & 1 << tag.ordinal()) != 0) {
+                                tags.add(tag);
+                        }
+                }
+                return tags;
+        }
+}
@@ -0,0 +1,6 @@
+package com.qoqtest.notes.entity;
+
+public record WordCount(
+        String word,
+        long count
+) {}
@@ -0,0 +1,7 @@
+package com.qoqtest.notes.exception;
+
+public class CorpusStatisticsUnavailableException extends RuntimeException {
+    public CorpusStatisticsUnavailableException(String message) {
+        super(message);
+    }
+}
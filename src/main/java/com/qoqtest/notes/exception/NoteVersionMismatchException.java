@@ -0,0 +1,7 @@
+package com.qoqtest.notes.exception;
+
+public class NoteVersionMismatchException extends RuntimeException {
+    public NoteVersionMismatchException(String message) {
+        super(message);
+    }
+}
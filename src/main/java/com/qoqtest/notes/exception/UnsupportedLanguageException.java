@@ -0,0 +1,7 @@
+package com.qoqtest.notes.exception;
+
+public class UnsupportedLanguageException extends RuntimeException {
+    public UnsupportedLanguageException(String message) {
+        super(message);
+    }
+}
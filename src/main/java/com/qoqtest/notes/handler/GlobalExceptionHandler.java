@@ -1,20 +1,28 @@
 package com.qoqtest.notes.handler;
 
 import com.qoqtest.notes.dto.ErrorResponseDTO;
+import com.qoqtest.notes.exception.CorpusStatisticsUnavailableException;
+import com.qoqtest.notes.exception.InvalidCursorException;
 import com.qoqtest.notes.exception.NoteNotFoundException;
+import com.qoqtest.notes.exception.NoteVersionMismatchException;
+import com.qoqtest.notes.exception.UnsupportedLanguageException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.ZipException;
 
 @RestControllerAdvice
 @Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
 
     @ExceptionHandler(NoteNotFoundException.class)
@@ -30,6 +38,71 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    @ExceptionHandler(CorpusStatisticsUnavailableException.class)
+    public ResponseEntity<ErrorResponseDTO> handleCorpusStatisticsUnavailable(CorpusStatisticsUnavailableException ex, HttpServletRequest request) {
+        log.warn("Corpus statistics unavailable: {}", ex.getMessage());
+
+        ErrorResponseDTO error = new ErrorResponseDTO(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
+    @ExceptionHandler(UnsupportedLanguageException.class)
+    public ResponseEntity<ErrorResponseDTO> handleUnsupportedLanguage(UnsupportedLanguageException ex, HttpServletRequest request) {
+        log.warn("Unsupported language: {}", ex.getMessage());
+
+        ErrorResponseDTO error = new ErrorResponseDTO(
+                HttpStatus.BAD_REQUEST.value(),
+                "Bad Request",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(NoteVersionMismatchException.class)
+    public ResponseEntity<ErrorResponseDTO> handleVersionMismatch(NoteVersionMismatchException ex, HttpServletRequest request) {
+        log.warn("Precondition failed: {}", ex.getMessage());
+
+        ErrorResponseDTO error = new ErrorResponseDTO(
+                HttpStatus.PRECONDITION_FAILED.value(),
+                "Precondition Failed",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInvalidCursor(InvalidCursorException ex, HttpServletRequest request) {
+        log.warn("Invalid cursor: {}", ex.getMessage());
+
+        ErrorResponseDTO error = new ErrorResponseDTO(
+                HttpStatus.BAD_REQUEST.value(),
+                "Bad Request",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(ZipException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInvalidGzip(ZipException ex, HttpServletRequest request) {
+        log.warn("Invalid gzip body: {}", ex.getMessage());
+
+        ErrorResponseDTO error = new ErrorResponseDTO(
+                HttpStatus.BAD_REQUEST.value(),
+                "Bad Request",
+                "Request body is not valid gzip",
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponseDTO> handleValidationErrors(MethodArgumentNotValidException ex, HttpServletRequest request) {
         log.warn("Validation failed");
@@ -48,6 +121,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ErrorResponseDTO> handleParameterValidationErrors(HandlerMethodValidationException ex, HttpServletRequest request) {
+        log.warn("Parameter validation failed");
+
+        ErrorResponseDTO error = new ErrorResponseDTO(
+                HttpStatus.BAD_REQUEST.value(),
+                "Validation Error",
+                "One or more parameters are invalid",
+                request.getRequestURI(),
+                parameterErrors(ex)
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponseDTO> handleGeneralException(Exception ex, HttpServletRequest request) {
         log.error("CRITICAL ERROR: ", ex);
@@ -60,4 +147,11 @@ public class GlobalExceptionHandler {
         );
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
+
+    static Map<String, String> parameterErrors(HandlerMethodValidationException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getParameterValidationResults().forEach(result -> result.getResolvableErrors().forEach(err ->
+                errors.put(result.getMethodParameter().getParameterName(), err.getDefaultMessage())));
+        return errors;
+    }
 }
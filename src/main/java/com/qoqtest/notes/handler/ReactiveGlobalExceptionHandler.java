@@ -0,0 +1,125 @@
+package com.qoqtest.notes.handler;
+
+import com.qoqtest.notes.dto.ErrorResponseDTO;
+import com.qoqtest.notes.exception.InvalidCursorException;
+import com.qoqtest.notes.exception.NoteNotFoundException;
+import com.qoqtest.notes.exception.NoteVersionMismatchException;
+import com.qoqtest.notes.exception.UnsupportedLanguageException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WebFlux version of {@link GlobalExceptionHandler}, producing the same error bodies.
+ */
+@RestControllerAdvice
+@Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveGlobalExceptionHandler {
+
+    @ExceptionHandler(NoteNotFoundException.class)
+    public ResponseEntity<ErrorResponseDTO> handleNoteNotFound(NoteNotFoundException ex, ServerWebExchange exchange) {
+        log.warn("Note not found: {}", ex.getMessage());
+
+        ErrorResponseDTO error = new ErrorResponseDTO(
+                HttpStatus.NOT_FOUND.value(),
+                "Not Found",
+                ex.getMessage(),
+                exchange.getRequest().getPath().value()
+        );
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    @ExceptionHandler(UnsupportedLanguageException.class)
+    public ResponseEntity<ErrorResponseDTO> handleUnsupportedLanguage(UnsupportedLanguageException ex, ServerWebExchange exchange) {
+        log.warn("Unsupported language: {}", ex.getMessage());
+
+        ErrorResponseDTO error = new ErrorResponseDTO(
+                HttpStatus.BAD_REQUEST.value(),
+                "Bad Request",
+                ex.getMessage(),
+                exchange.getRequest().getPath().value()
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(NoteVersionMismatchException.class)
+    public ResponseEntity<ErrorResponseDTO> handleVersionMismatch(NoteVersionMismatchException ex, ServerWebExchange exchange) {
+        log.warn("Precondition failed: {}", ex.getMessage());
+
+        ErrorResponseDTO error = new ErrorResponseDTO(
+                HttpStatus.PRECONDITION_FAILED.value(),
+                "Precondition Failed",
+                ex.getMessage(),
+                exchange.getRequest().getPath().value()
+        );
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInvalidCursor(InvalidCursorException ex, ServerWebExchange exchange) {
+        log.warn("Invalid cursor: {}", ex.getMessage());
+
+        ErrorResponseDTO error = new ErrorResponseDTO(
+                HttpStatus.BAD_REQUEST.value(),
+                "Bad Request",
+                ex.getMessage(),
+                exchange.getRequest().getPath().value()
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponseDTO> handleValidationErrors(WebExchangeBindException ex, ServerWebExchange exchange) {
+        log.warn("Validation failed");
+
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getFieldErrors().forEach(err ->
+                errors.put(err.getField(), err.getDefaultMessage()));
+
+        ErrorResponseDTO error = new ErrorResponseDTO(
+                HttpStatus.BAD_REQUEST.value(),
+                "Validation Error",
+                "One or more fields are invalid",
+                exchange.getRequest().getPath().value(),
+                errors
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ErrorResponseDTO> handleParameterValidationErrors(HandlerMethodValidationException ex, ServerWebExchange exchange) {
+        log.warn("Parameter validation failed");
+
+        ErrorResponseDTO error = new ErrorResponseDTO(
+                HttpStatus.BAD_REQUEST.value(),
+                "Validation Error",
+                "One or more parameters are invalid",
+                exchange.getRequest().getPath().value(),
+                GlobalExceptionHandler.parameterErrors(ex)
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponseDTO> handleGeneralException(Exception ex, ServerWebExchange exchange) {
+        log.error("CRITICAL ERROR: ", ex);
+
+        ErrorResponseDTO error = new ErrorResponseDTO(
+                HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                "Internal Server Error",
+                "An unexpected error occurred",
+                exchange.getRequest().getPath().value()
+        );
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+    }
+}
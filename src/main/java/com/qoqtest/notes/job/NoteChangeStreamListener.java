@@ -0,0 +1,150 @@
+package com.qoqtest.notes.job;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.qoqtest.notes.dto.NoteChangeDTO;
+import com.qoqtest.notes.dto.NoteChangeOperation;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.mapper.NoteMapper;
+import com.qoqtest.notes.service.NoteChangeFeed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds the {@link NoteChangeFeed} from a MongoDB change stream on the notes collection, so it also carries the
+ * writes of other instances and of anything else writing to the database. Change streams need a replica set.
+ * <p>
+ * Writes that leave the version alone, i.e. rebuilt word statistics, are filtered out by the server. After an error
+ * the stream is reopened after the last change seen, so nothing is lost as long as the oplog still has it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "notes.changes.change-stream.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class NoteChangeStreamListener {
+
+    private static final List<String> OPERATIONS = List.of("insert", "replace", "delete");
+
+    private final MongoTemplate mongoTemplate;
+    private final NoteMapper noteMapper;
+    private final NoteChangeFeed changeFeed;
+
+    @Value("${notes.changes.change-stream.retry-delay:5s}")
+    private Duration retryDelay = Duration.ofSeconds(5);
+
+    private volatile boolean running = true;
+    private BsonDocument resumeToken;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void listen() {
+        log.info("Listening to the change stream of the notes collection");
+        while (running) {
+            try {
+                watch();
+            } catch (MongoException e) {
+                log.error("Change stream of the notes collection failed, reopening in {} ms", retryDelay.toMillis(), e);
+                pause();
+            }
+        }
+        log.info("Stopped listening to the change stream of the notes collection");
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        running = false;
+    }
+
+    private void watch() {
+        List<Bson> pipeline = List.of(
+                Aggregates.match(Filters.or(
+                        Filters.in("operationType", OPERATIONS),
+                        Filters.exists("updateDescription.updatedFields.version"))),
+                // Only what a change carries is sent, not the text and word histogram.
+                Aggregates.project(Projections.exclude("fullDocument.text", "fullDocument.wordFrequencies")));
+
+        var stream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Note.class))
+                .watch(pipeline)
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+            while (running) {
+                ChangeStreamDocument<Document> event = cursor.tryNext();
+                if (event != null) {
+                    publish(event);
+                }
+                // Also moves on while the collection is quiet, so a restart does not replay old changes.
+                if (cursor.getResumeToken() != null) {
+                    resumeToken = cursor.getResumeToken();
+                }
+            }
+        }
+    }
+
+    private void publish(ChangeStreamDocument<Document> event) {
+        String id = id(event.getDocumentKey());
+        NoteChangeDTO change = switch (event.getOperationType()) {
+            case INSERT -> change(event, NoteChangeOperation.CREATE);
+            case UPDATE, REPLACE -> change(event, NoteChangeOperation.UPDATE);
+            case DELETE -> new NoteChangeDTO(NoteChangeOperation.DELETE, id);
+            default -> null;
+        };
+        if (change != null) {
+            changeFeed.publish(change);
+        } else {
+            log.debug("Skipped {} of note {} in the change stream", event.getOperationType(), id);
+        }
+    }
+
+    private NoteChangeDTO change(ChangeStreamDocument<Document> event, NoteChangeOperation op) {
+        // Missing when the note was deleted before the update was looked up; its delete follows.
+        if (event.getFullDocument() == null) {
+            return null;
+        }
+        return noteMapper.toChangeDTO(mongoTemplate.getConverter().read(Note.class, event.getFullDocument()), op);
+    }
+
+    private static String id(BsonDocument documentKey) {
+        BsonValue id = documentKey == null ? null : documentKey.get("_id");
+        if (id == null) {
+            return null;
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(retryDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.qoqtest.notes.job;
+
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.repository.NoteRepository;
+import com.qoqtest.notes.service.NoteTotals;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads the {@link NoteTotals} from MongoDB at startup and again every {@code notes.totals.refresh-interval},
+ * which bounds how long writes of other instances are missing from them. Until the first load finishes,
+ * listings count their totals in MongoDB.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "notes.totals.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class NoteTotalsRefreshJob {
+
+    private final NoteRepository noteRepository;
+    private final NoteTotals noteTotals;
+
+    @Scheduled(fixedDelayString = "${notes.totals.refresh-interval:10m}")
+    public void refresh() {
+        long start = System.nanoTime();
+
+        Map<Set<NoteTag>, Long> countsByTags = noteRepository.countByTagCombination();
+        noteTotals.load(countsByTags);
+
+        log.debug("Note totals refreshed. Tag combinations: {}, took {} ms",
+                countsByTags.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,101 @@
+package com.qoqtest.notes.job;
+
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.WordCount;
+import com.qoqtest.notes.repository.NoteRepository;
+import com.qoqtest.notes.service.NoteSearchIndex;
+import com.qoqtest.notes.service.NoteStatisticsIndexer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Fills the {@link NoteSearchIndex}, and with it the corpus word statistics, from MongoDB at startup. Runs in the background; notes written
+ * meanwhile are indexed by the services as usual, and search only sees the notes loaded so far.
+ * <p>
+ * Notes with a stale histogram are read in full with one query per batch and indexed with the current word rules.
+ * Their new histograms are stored here only if {@link WordStatisticsBackfillJob} is not enabled to store them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "notes.search.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SearchIndexLoadJob {
+
+    private final NoteRepository noteRepository;
+    private final NoteSearchIndex searchIndex;
+    private final NoteStatisticsIndexer statisticsIndexer;
+
+    @Value("${notes.search.load-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${notes.statistics.backfill.enabled:false}")
+    private boolean backfillEnabled;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        log.info("Loading notes into the search index");
+        long start = System.nanoTime();
+        long loaded = 0;
+
+        searchIndex.beginLoad();
+        try (Stream<Note> notes = noteRepository.streamSearchFields()) {
+            List<Note> batch = new ArrayList<>(batchSize);
+            Iterator<Note> iterator = notes.iterator();
+
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+
+                if (batch.size() == batchSize) {
+                    loaded += load(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            loaded += load(batch);
+        } finally {
+            searchIndex.finishLoad();
+        }
+
+        log.info("Search index loaded. Notes: {}, took {} ms", loaded, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private int load(List<Note> batch) {
+        List<String> staleIds = batch.stream().filter(statisticsIndexer::isStale).map(Note::getId).toList();
+        if (!staleIds.isEmpty()) {
+            // Not backfilled yet: index them with the current word rules rather than an outdated histogram.
+            Map<String, Note> current = new HashMap<>();
+            noteRepository.findAllById(staleIds).forEach(full -> current.put(full.getId(), withCurrentStatistics(full)));
+            batch.replaceAll(note -> current.getOrDefault(note.getId(), note));
+        }
+
+        searchIndex.load(batch);
+        return batch.size();
+    }
+
+    /**
+     * The note with the histogram of its text, indexed at the version that text was read at.
+     */
+    private Note withCurrentStatistics(Note full) {
+        List<WordCount> frequencies = statisticsIndexer.compute(full.getText());
+        if (!backfillEnabled) {
+            noteRepository.updateWordStatistics(full.getId(), full.getVersion(), frequencies, NoteStatisticsIndexer.CURRENT_VERSION);
+        }
+        full.setWordFrequencies(frequencies);
+        return full;
+    }
+}
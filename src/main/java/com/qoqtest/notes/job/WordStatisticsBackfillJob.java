@@ -0,0 +1,61 @@
+package com.qoqtest.notes.job;
+
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.repository.NoteRepository;
+import com.qoqtest.notes.service.NoteStatisticsIndexer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Computes word histograms for notes stored before they were maintained on write,
+ * or with an older {@link NoteStatisticsIndexer#CURRENT_VERSION}.
+ * Runs in the background; until it finishes the stats endpoint rebuilds stale histograms on demand.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "notes.statistics.backfill.enabled", havingValue = "true")
+public class WordStatisticsBackfillJob {
+
+    private final NoteRepository noteRepository;
+    private final NoteStatisticsIndexer statisticsIndexer;
+
+    @Value("${notes.statistics.backfill.batch-size:500}")
+    private int batchSize;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        log.info("Starting word statistics backfill (version {})", NoteStatisticsIndexer.CURRENT_VERSION);
+
+        long processed = 0;
+        List<Note> batch;
+
+        // Every processed note drops out of the filter, so the first page always holds the next batch. A note changed
+        // since it was read keeps its histogram and stays in the filter if that is still stale.
+        while (!(batch = noteRepository.findByWordStatsVersionNot(
+                NoteStatisticsIndexer.CURRENT_VERSION, PageRequest.of(0, batchSize))).isEmpty()) {
+
+            for (Note note : batch) {
+                if (noteRepository.updateWordStatistics(note.getId(), note.getVersion(),
+                        statisticsIndexer.compute(note.getText()),
+                        NoteStatisticsIndexer.CURRENT_VERSION)) {
+                    processed++;
+                }
+            }
+
+            log.debug("Word statistics backfill progress: {} notes", processed);
+        }
+
+        log.info("Word statistics backfill finished. Notes updated: {}", processed);
+    }
+}
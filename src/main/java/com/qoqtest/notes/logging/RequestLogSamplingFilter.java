@@ -0,0 +1,43 @@
+package com.qoqtest.notes.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples the log output of read requests: only a {@code notes.logging.sample-rate} share of GET requests
+ * write their DEBUG and INFO lines, and those write all of them, so every logged request can be followed
+ * from start to end. Writes are always logged, and so are warnings and errors of every request.
+ * The decision is kept in the {@value #SAMPLED} MDC entry and applied by {@link SampledRequestTurboFilter}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RequestLogSamplingFilter extends OncePerRequestFilter {
+
+    public static final String SAMPLED = "sampled";
+
+    @Value("${notes.logging.sample-rate:0.01}")
+    private double sampleRate = 0.01;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean sampled = !"GET".equals(request.getMethod()) || ThreadLocalRandom.current().nextDouble() < sampleRate;
+
+        MDC.put(SAMPLED, String.valueOf(sampled));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(SAMPLED);
+        }
+    }
+}
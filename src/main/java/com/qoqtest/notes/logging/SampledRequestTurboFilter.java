@@ -0,0 +1,23 @@
+package com.qoqtest.notes.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Denies events below WARN on threads serving a request that {@link RequestLogSamplingFilter} did not sample.
+ * Turbo filters run before the event is created, so the message of a dropped line is never formatted.
+ */
+public class SampledRequestTurboFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        return "false".equals(MDC.get(RequestLogSamplingFilter.SAMPLED)) ? FilterReply.DENY : FilterReply.NEUTRAL;
+    }
+}
@@ -1,5 +1,7 @@
 package com.qoqtest.notes.mapper;
 
+import com.qoqtest.notes.dto.NoteChangeDTO;
+import com.qoqtest.notes.dto.NoteChangeOperation;
 import com.qoqtest.notes.dto.NoteFullResponseDTO;
 import com.qoqtest.notes.dto.NoteRequestDTO;
 import com.qoqtest.notes.dto.NoteShortResponseDTO;
@@ -11,14 +13,24 @@ public interface NoteMapper {
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdDate", ignore = true)
+    @Mapping(target = "wordFrequencies", ignore = true)
+    @Mapping(target = "wordStatsVersion", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
     Note toEntity(NoteRequestDTO dto);
 
     NoteFullResponseDTO toFullResponseDTO(Note note);
 
     NoteShortResponseDTO toShortResponseDTO(Note note);
 
+    NoteChangeDTO toChangeDTO(Note note, NoteChangeOperation op);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdDate", ignore = true)
+    @Mapping(target = "wordFrequencies", ignore = true)
+    @Mapping(target = "wordStatsVersion", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateEntityFromDto(NoteRequestDTO dto, @MappingTarget Note note);
 
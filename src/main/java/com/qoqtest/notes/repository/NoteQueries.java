@@ -0,0 +1,150 @@
+package com.qoqtest.notes.repository;
+
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Queries shared by the blocking and the reactive repository implementations.
+ */
+public final class NoteQueries {
+
+    private static final int EXPORT_BATCH_SIZE = 1000;
+
+    private NoteQueries() {
+    }
+
+    static Query byId(String id) {
+        return query(where("_id").is(id));
+    }
+
+    /**
+     * The note with the given id if it is still at {@code version}. Notes without a stored version are at version 0.
+     */
+    static Query byIdAndVersion(String id, long version) {
+        Criteria criteria = where("_id").is(id);
+        return query(version == 0 ? criteria.and("version").in(0L, null) : criteria.and("version").is(version));
+    }
+
+    /**
+     * {@code $set} of the non-null fields of {@code changes} plus the move to the next version. The word histogram is
+     * only set together with the text it was computed from.
+     */
+    static Update changedFields(Note changes) {
+        Update update = new Update()
+                .inc("version", 1)
+                .set("lastModifiedDate", changes.getLastModifiedDate());
+
+        if (changes.getTitle() != null) {
+            update.set("title", changes.getTitle());
+        }
+        if (changes.getText() != null) {
+            update.set("text", changes.getText())
+                    .set("wordFrequencies", changes.getWordFrequencies())
+                    .set("wordStatsVersion", changes.getWordStatsVersion());
+        }
+        if (changes.getTags() != null) {
+            update.set("tags", changes.getTags());
+        }
+        return update;
+    }
+
+    static Update wordStatistics(List<WordCount> wordFrequencies, int version) {
+        return new Update()
+                .set("wordFrequencies", wordFrequencies)
+                .set("wordStatsVersion", version);
+    }
+
+    /**
+     * The query of {@link NoteRepositoryCustom#findListingAfter}; also explained at startup by
+     * {@link com.qoqtest.notes.config.NoteIndexInitializer}.
+     */
+    public static Query listingAfter(Set<NoteTag> tags, TagMatch match, Instant createdDate, String id, int limit) {
+        Criteria criteria = new Criteria();
+
+        if (tags != null && !tags.isEmpty()) {
+            if (match == TagMatch.ALL) {
+                criteria.and("tags").all(tags);
+            } else {
+                criteria.and("tags").in(tags);
+            }
+        }
+
+        if (createdDate != null) {
+            criteria.orOperator(
+                    where("createdDate").lt(createdDate),
+                    where("createdDate").is(createdDate).and("_id").lt(toObjectId(id)));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdDate", "_id"))
+                .limit(limit);
+        query.fields().include("title", "createdDate");
+        return query;
+    }
+
+    static Query export(Set<NoteTag> tags, Instant from, Instant to) {
+        Criteria criteria = new Criteria();
+
+        if (tags != null && !tags.isEmpty()) {
+            criteria.and("tags").in(tags);
+        }
+
+        if (from != null || to != null) {
+            Criteria createdDate = criteria.and("createdDate");
+            if (from != null) {
+                createdDate.gte(from);
+            }
+            if (to != null) {
+                createdDate.lt(to);
+            }
+        }
+
+        // No sort: documents come in index or natural order, so the server never buffers the result.
+        Query query = new Query(criteria).cursorBatchSize(EXPORT_BATCH_SIZE);
+        query.fields().exclude("wordFrequencies", "wordStatsVersion");
+        return query;
+    }
+
+    /**
+     * The word histograms of the notes among {@code ids} with any or all of {@code tags}; {@code null} or empty
+     * arguments do not filter.
+     */
+    static Query statistics(Collection<String> ids, Set<NoteTag> tags, TagMatch match) {
+        Criteria criteria = new Criteria();
+
+        if (ids != null && !ids.isEmpty()) {
+            criteria.and("_id").in(ids);
+        }
+
+        if (tags != null && !tags.isEmpty()) {
+            if (match == TagMatch.ALL) {
+                criteria.and("tags").all(tags);
+            } else {
+                criteria.and("tags").in(tags);
+            }
+        }
+
+        Query query = new Query(criteria).cursorBatchSize(EXPORT_BATCH_SIZE);
+        query.fields().include("wordFrequencies", "wordStatsVersion");
+        return query;
+    }
+
+    private static Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
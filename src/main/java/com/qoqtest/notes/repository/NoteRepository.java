@@ -2,16 +2,57 @@ package com.qoqtest.notes.repository;
 
 import com.qoqtest.notes.entity.NoteTag;
 import com.qoqtest.notes.entity.Note;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Repository
-public interface NoteRepository extends MongoRepository<Note, String> {
+public interface NoteRepository extends MongoRepository<Note, String>, NoteRepositoryCustom {
 
-    Page<Note> findByTagsIn(Set<NoteTag> tags, Pageable pageable);
-}
+    String LISTING_FIELDS = "{ 'title': 1, 'createdDate': 1 }";
+
+    /**
+     * Listing page that loads only the fields of {@link com.qoqtest.notes.dto.NoteShortResponseDTO},
+     * never the note text or the word histogram. No count query is issued.
+     */
+    @Query(value = "{}", fields = LISTING_FIELDS)
+    List<Note> findAllSummaries(Pageable pageable);
+
+    @Query(value = "{ 'tags': { '$in': ?0 } }", fields = LISTING_FIELDS)
+    List<Note> findSummariesByTagsIn(Set<NoteTag> tags, Pageable pageable);
+
+    @Query(value = "{ 'tags': { '$all': ?0 } }", fields = LISTING_FIELDS)
+    List<Note> findSummariesByTagsAll(Set<NoteTag> tags, Pageable pageable);
+
+    long countByTagsIn(Set<NoteTag> tags);
+
+    @Query(value = "{ 'tags': { '$all': ?0 } }", count = true)
+    long countByTagsAll(Set<NoteTag> tags);
 
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = LISTING_FIELDS)
+    List<Note> findSummariesByIdIn(Collection<String> ids);
+
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'wordFrequencies': 1, 'wordStatsVersion': 1 }")
+    Optional<Note> findStatisticsById(String id);
+
+    /**
+     * The note with nothing but what its ETag and Last-Modified headers are made of.
+     */
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'version': 1, 'lastModifiedDate': 1, 'createdDate': 1 }")
+    Optional<Note> findVersionById(String id);
+
+    /**
+     * The existing notes among the given ids, with nothing but their title, creation date, tags, word histogram and
+     * version.
+     */
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = "{ 'title': 1, 'createdDate': 1, 'tags': 1, 'wordFrequencies': 1, 'version': 1 }")
+    List<Note> findStatisticsByIdIn(Collection<String> ids);
+
+    List<Note> findByWordStatsVersionNot(Integer wordStatsVersion, Pageable pageable);
+}
@@ -0,0 +1,92 @@
+package com.qoqtest.notes.repository;
+
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public interface NoteRepositoryCustom {
+
+    /**
+     * Overwrites only the stored word histogram, leaving the rest of the document untouched. The histogram is only
+     * stored while the note is still at {@code noteVersion}, the version whose text it was computed from, so a
+     * rebuild that raced with an update cannot overwrite the histogram of the newer text.
+     *
+     * @return whether the note was still at {@code noteVersion}
+     */
+    boolean updateWordStatistics(String id, long noteVersion, List<WordCount> wordFrequencies, int version);
+
+    /**
+     * Sets the non-null title, text, tags and word histogram of {@code changes} on the note with its id and moves it
+     * to the next version, stamped with the {@code lastModifiedDate} of {@code changes}, in one atomic round trip.
+     *
+     * @param expectedVersion version the note must be at, or {@code null} to update any version
+     * @return the note as it was before the update, or empty if it does not exist or is at another version
+     */
+    Optional<Note> updateFields(Note changes, Long expectedVersion);
+
+    /**
+     * Keyset page of the newest-first listing: up to {@code limit} notes ordered by
+     * {@code createdDate desc, _id desc} that come strictly after the given sort key.
+     * A {@code null} {@code createdDate} starts from the newest note. No count query is issued.
+     * Only {@code _id}, {@code title} and {@code createdDate} are loaded.
+     */
+    List<Note> findListingAfter(Set<NoteTag> tags, TagMatch match, Instant createdDate, String id, int limit);
+
+    /**
+     * Inserts all notes with one unordered bulk write. The notes must already carry their ids.
+     *
+     * @throws org.springframework.data.mongodb.BulkOperationException listing the notes that could not be inserted
+     */
+    void insertBulk(List<Note> notes);
+
+    /**
+     * Deletes the note in one round trip.
+     *
+     * @return the deleted note with nothing but its tags, or empty if it did not exist
+     */
+    Optional<Note> removeById(String id);
+
+    /**
+     * Adds and then removes tags on every given note with a single update, moving each to the next version once.
+     */
+    void updateTags(Collection<String> ids, Set<NoteTag> add, Set<NoteTag> remove);
+
+    /**
+     * Number of notes by their exact set of tags, from one aggregation over the collection. Untagged notes are
+     * counted under the empty set.
+     */
+    Map<Set<NoteTag>, Long> countByTagCombination();
+
+    /**
+     * Number of notes from the collection metadata, without scanning the collection or an index.
+     */
+    long estimatedCount();
+
+    /**
+     * Streams every note with only the fields the search index needs: {@code createdDate}, {@code tags},
+     * {@code version} and the word histogram. The stream holds an open cursor and must be closed.
+     */
+    Stream<Note> streamSearchFields();
+
+    /**
+     * Streams the notes with any of the given tags created in {@code [from, to)}, in no particular order;
+     * {@code null} or empty arguments do not filter. The word histogram is not loaded.
+     * The stream holds an open cursor and must be closed.
+     */
+    Stream<Note> streamForExport(Set<NoteTag> tags, Instant from, Instant to);
+
+    /**
+     * Streams the notes among {@code ids} with any or all of {@code tags} from one query, with nothing but their
+     * word histogram; {@code null} or empty arguments do not filter. The stream holds an open cursor and must be closed.
+     */
+    Stream<Note> streamStatistics(Collection<String> ids, Set<NoteTag> tags, TagMatch match);
+}
@@ -0,0 +1,131 @@
+package com.qoqtest.notes.repository;
+
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@RequiredArgsConstructor
+public class NoteRepositoryCustomImpl implements NoteRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean updateWordStatistics(String id, long noteVersion, List<WordCount> wordFrequencies, int version) {
+        return mongoTemplate.updateFirst(NoteQueries.byIdAndVersion(id, noteVersion),
+                NoteQueries.wordStatistics(wordFrequencies, version), Note.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public Optional<Note> updateFields(Note changes, Long expectedVersion) {
+        Query query = expectedVersion == null
+                ? NoteQueries.byId(changes.getId())
+                : NoteQueries.byIdAndVersion(changes.getId(), expectedVersion);
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, NoteQueries.changedFields(changes), Note.class));
+    }
+
+    @Override
+    public List<Note> findListingAfter(Set<NoteTag> tags, TagMatch match, Instant createdDate, String id, int limit) {
+        return mongoTemplate.find(NoteQueries.listingAfter(tags, match, createdDate, id, limit), Note.class);
+    }
+
+    @Override
+    public void insertBulk(List<Note> notes) {
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class)
+                .insert(notes)
+                .execute();
+    }
+
+    @Override
+    public Optional<Note> removeById(String id) {
+        Query query = NoteQueries.byId(id);
+        query.fields().include("tags");
+
+        return Optional.ofNullable(mongoTemplate.findAndRemove(query, Note.class));
+    }
+
+    @Override
+    public void updateTags(Collection<String> ids, Set<NoteTag> add, Set<NoteTag> remove) {
+        boolean adding = add != null && !add.isEmpty();
+        boolean removing = remove != null && !remove.isEmpty();
+        if (ids.isEmpty() || (!adding && !removing)) {
+            return;
+        }
+
+        // $addToSet and $pull on the same field conflict within one update, so both are done by one pipeline
+        // update that also moves every note to the next version exactly once.
+        Document tags = new Document("$setDifference", List.of(
+                new Document("$setUnion", List.of(new Document("$ifNull", List.of("$tags", List.of())), tagNames(add))),
+                tagNames(remove)));
+        Document newVersion = new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L));
+
+        mongoTemplate.updateMulti(query(where("_id").in(ids)),
+                AggregationUpdate.from(List.of(Aggregation.stage(new Document("$set", new Document("tags", tags)
+                        .append("version", newVersion)
+                        .append("lastModifiedDate", "$$NOW"))))),
+                Note.class);
+    }
+
+    @Override
+    public Map<Set<NoteTag>, Long> countByTagCombination() {
+        Aggregation aggregation = Aggregation.newAggregation(Aggregation.group("tags").count().as("count"));
+
+        Map<Set<NoteTag>, Long> counts = new HashMap<>();
+        for (Document group : mongoTemplate.aggregate(aggregation, Note.class, Document.class)) {
+            Set<NoteTag> tags = EnumSet.noneOf(NoteTag.class);
+            if (group.get("_id") instanceof List<?> names) {
+                names.forEach(name -> tags.add(NoteTag.valueOf(name.toString())));
+            }
+            counts.merge(tags, ((Number) group.get("count")).longValue(), Long::sum);
+        }
+        return counts;
+    }
+
+    @Override
+    public long estimatedCount() {
+        return mongoTemplate.estimatedCount(Note.class);
+    }
+
+    @Override
+    public Stream<Note> streamSearchFields() {
+        Query query = new Query();
+        query.fields().include("createdDate", "tags", "version", "wordFrequencies", "wordStatsVersion");
+
+        return mongoTemplate.stream(query, Note.class);
+    }
+
+    @Override
+    public Stream<Note> streamForExport(Set<NoteTag> tags, Instant from, Instant to) {
+        return mongoTemplate.stream(NoteQueries.export(tags, from, to), Note.class);
+    }
+
+    @Override
+    public Stream<Note> streamStatistics(Collection<String> ids, Set<NoteTag> tags, TagMatch match) {
+        return mongoTemplate.stream(NoteQueries.statistics(ids, tags, match), Note.class);
+    }
+
+    private static List<String> tagNames(Set<NoteTag> tags) {
+        return tags == null ? List.of() : tags.stream().map(Enum::name).toList();
+    }
+}
@@ -0,0 +1,55 @@
+package com.qoqtest.notes.repository;
+
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Reactive counterpart of {@link NoteRepository}, used when the application runs with the {@code reactive} profile.
+ */
+@Repository
+public interface ReactiveNoteRepository extends ReactiveMongoRepository<Note, String>, ReactiveNoteRepositoryCustom {
+
+    @Query(value = "{}", fields = NoteRepository.LISTING_FIELDS)
+    Flux<Note> findAllSummaries(Pageable pageable);
+
+    @Query(value = "{ 'tags': { '$in': ?0 } }", fields = NoteRepository.LISTING_FIELDS)
+    Flux<Note> findSummariesByTagsIn(Set<NoteTag> tags, Pageable pageable);
+
+    @Query(value = "{ 'tags': { '$all': ?0 } }", fields = NoteRepository.LISTING_FIELDS)
+    Flux<Note> findSummariesByTagsAll(Set<NoteTag> tags, Pageable pageable);
+
+    /**
+     * Every matching summary in {@code sort} order, read from a single cursor with backpressure.
+     */
+    @Query(value = "{}", fields = NoteRepository.LISTING_FIELDS)
+    Flux<Note> streamAllSummaries(Sort sort);
+
+    @Query(value = "{ 'tags': { '$in': ?0 } }", fields = NoteRepository.LISTING_FIELDS)
+    Flux<Note> streamSummariesByTagsIn(Set<NoteTag> tags, Sort sort);
+
+    @Query(value = "{ 'tags': { '$all': ?0 } }", fields = NoteRepository.LISTING_FIELDS)
+    Flux<Note> streamSummariesByTagsAll(Set<NoteTag> tags, Sort sort);
+
+    Mono<Long> countByTagsIn(Set<NoteTag> tags);
+
+    @Query(value = "{ 'tags': { '$all': ?0 } }", count = true)
+    Mono<Long> countByTagsAll(Set<NoteTag> tags);
+
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'wordFrequencies': 1, 'wordStatsVersion': 1 }")
+    Mono<Note> findStatisticsById(String id);
+
+    /**
+     * Same projection as {@link NoteRepository#findVersionById}.
+     */
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'version': 1, 'lastModifiedDate': 1, 'createdDate': 1 }")
+    Mono<Note> findVersionById(String id);
+}
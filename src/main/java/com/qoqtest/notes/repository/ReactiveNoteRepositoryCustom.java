@@ -0,0 +1,33 @@
+package com.qoqtest.notes.repository;
+
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reactive counterpart of {@link NoteRepositoryCustom}.
+ */
+public interface ReactiveNoteRepositoryCustom {
+
+    /**
+     * Same conditional update as {@link NoteRepositoryCustom#updateWordStatistics}.
+     */
+    Mono<Boolean> updateWordStatistics(String id, long noteVersion, List<WordCount> wordFrequencies, int version);
+
+    /**
+     * Same update as {@link NoteRepositoryCustom#updateFields}.
+     *
+     * @param expectedVersion version the note must be at, or {@code null} to update any version
+     * @return the updated note, or empty if it does not exist or is at another version
+     */
+    Mono<Note> updateFields(Note changes, Long expectedVersion);
+
+    Flux<Note> findListingAfter(Set<NoteTag> tags, TagMatch match, Instant createdDate, String id, int limit);
+}
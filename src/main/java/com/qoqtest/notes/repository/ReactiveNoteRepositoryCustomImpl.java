@@ -0,0 +1,44 @@
+package com.qoqtest.notes.repository;
+
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class ReactiveNoteRepositoryCustomImpl implements ReactiveNoteRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Boolean> updateWordStatistics(String id, long noteVersion, List<WordCount> wordFrequencies, int version) {
+        return mongoTemplate.updateFirst(NoteQueries.byIdAndVersion(id, noteVersion),
+                        NoteQueries.wordStatistics(wordFrequencies, version), Note.class)
+                .map(result -> result.getMatchedCount() > 0);
+    }
+
+    @Override
+    public Mono<Note> updateFields(Note changes, Long expectedVersion) {
+        Query query = expectedVersion == null
+                ? NoteQueries.byId(changes.getId())
+                : NoteQueries.byIdAndVersion(changes.getId(), expectedVersion);
+
+        return mongoTemplate.findAndModify(query, NoteQueries.changedFields(changes),
+                FindAndModifyOptions.options().returnNew(true), Note.class);
+    }
+
+    @Override
+    public Flux<Note> findListingAfter(Set<NoteTag> tags, TagMatch match, Instant createdDate, String id, int limit) {
+        return mongoTemplate.find(NoteQueries.listingAfter(tags, match, createdDate, id, limit), Note.class);
+    }
+}
@@ -0,0 +1,45 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.config.MetricsConfig;
+import com.qoqtest.notes.dto.CorpusStatisticsDTO;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.exception.CorpusStatisticsUnavailableException;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Word statistics across all notes or the notes of one tag, served from {@link CorpusWordStatistics}
+ * without reading any note. The counts are only filled by loading the {@link NoteSearchIndex}, so with
+ * {@code notes.search.enabled=false} they would only cover the notes written since startup and are not served.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CorpusStatisticsService {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private final CorpusWordStatistics corpusStatistics;
+    private final NoteStatisticsIndexer statisticsIndexer;
+
+    @Value("${notes.search.enabled:true}")
+    private boolean searchEnabled = true;
+
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "corpusStats"})
+    public CorpusStatisticsDTO getTopWords(NoteTag tag, int limit) {
+        log.info("Fetching the top {} words of notes tagged {}", limit, tag == null ? "anything" : tag);
+        if (!searchEnabled) {
+            throw new CorpusStatisticsUnavailableException(
+                    "Corpus statistics are loaded with the search index, which is disabled (notes.search.enabled=false)");
+        }
+
+        CorpusWordStatistics.Top top = corpusStatistics.top(tag, Math.clamp(limit, 0, MAX_LIMIT));
+
+        log.info("Corpus statistics served. Notes: {}, unique words: {}", top.notes(), top.uniqueWords());
+
+        return new CorpusStatisticsDTO(tag, top.notes(), top.uniqueWords(), statisticsIndexer.toMap(top.words()));
+    }
+}
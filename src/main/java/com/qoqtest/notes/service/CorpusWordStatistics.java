@@ -0,0 +1,156 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Word counts summed over all notes and over the notes of every tag, kept up to date as notes are written.
+ * <p>
+ * Every word maps to one counter per slot: slot 0 counts all notes, slot {@code 1 + tag.ordinal()} the
+ * notes with that tag. The counts are changed only by {@link NoteSearchIndex}, under its write lock, together
+ * with the notes it indexes, so a note is counted exactly while it is indexed. Reads need no lock.
+ * <p>
+ * {@link #top} scans the words once, in parallel on the common fork-join pool for large vocabularies,
+ * keeping only the best {@code limit} words in bounded heaps.
+ */
+@Component
+public class CorpusWordStatistics {
+
+    private static final int SLOTS = 1 + NoteTag.values().length;
+    private static final int ALL = 0;
+
+    /** Below this many words, a sequential scan is faster than splitting it up. */
+    private static final int PARALLEL_THRESHOLD = 16_384;
+
+    private final ConcurrentHashMap<String, AtomicLongArray> counts = new ConcurrentHashMap<>();
+    private final AtomicLongArray notes = new AtomicLongArray(SLOTS);
+
+    /**
+     * @param tag         the tag whose notes were counted, or {@code null} for all notes
+     * @param notes       number of counted notes
+     * @param uniqueWords number of distinct words in them
+     * @param words       the most frequent words, by count descending, then alphabetically
+     */
+    public record Top(NoteTag tag, long notes, long uniqueWords, List<WordCount> words) {}
+
+    /**
+     * The {@code limit} most frequent words in all notes, or in the notes with {@code tag} if given.
+     */
+    public Top top(NoteTag tag, int limit) {
+        int slot = tag == null ? ALL : 1 + tag.ordinal();
+
+        Stream<Map.Entry<String, AtomicLongArray>> words = counts.size() < PARALLEL_THRESHOLD
+                ? counts.entrySet().stream()
+                : counts.entrySet().parallelStream();
+        TopWords top = words.collect(Collector.of(
+                () -> new TopWords(limit),
+                (heap, entry) -> heap.offer(entry.getKey(), entry.getValue().get(slot)),
+                TopWords::merge));
+
+        return new Top(tag, notes.get(slot), top.unique, top.sorted());
+    }
+
+    void add(List<WordCount> words, int tagMask) {
+        apply(words, tagMask, 1);
+    }
+
+    void remove(List<WordCount> words, int tagMask) {
+        apply(words, tagMask, -1);
+    }
+
+    void retag(List<WordCount> words, int oldTagMask, int newTagMask) {
+        if (oldTagMask != newTagMask) {
+            applyToTags(words, oldTagMask & ~newTagMask, -1);
+            applyToTags(words, newTagMask & ~oldTagMask, 1);
+        }
+    }
+
+    /**
+     * Changes slot 0 and the slots of the tags in {@code tagMask}. Words whose total drops to zero are dropped.
+     */
+    private void apply(List<WordCount> words, int tagMask, int sign) {
+        notes.addAndGet(ALL, sign);
+        applyToTags(words, tagMask, sign);
+        if (words == null) {
+            return;
+        }
+
+        for (WordCount wordCount : words) {
+            AtomicLongArray slots = counts.computeIfAbsent(wordCount.word(), word -> new AtomicLongArray(SLOTS));
+            if (slots.addAndGet(ALL, sign * wordCount.count()) <= 0) {
+                counts.remove(wordCount.word(), slots);
+            }
+        }
+    }
+
+    private void applyToTags(List<WordCount> words, int tagMask, int sign) {
+        for (int tag = 0; tag < SLOTS - 1; tag++) {
+            if ((tagMask & (1 << tag)) == 0) {
+                continue;
+            }
+            notes.addAndGet(1 + tag, sign);
+            if (words == null) {
+                continue;
+            }
+            for (WordCount wordCount : words) {
+                counts.computeIfAbsent(wordCount.word(), word -> new AtomicLongArray(SLOTS))
+                        .addAndGet(1 + tag, sign * wordCount.count());
+            }
+        }
+    }
+
+    /**
+     * Bounded heap of the best words seen so far, worst on top. Also counts the words with a non-zero count.
+     */
+    private static final class TopWords {
+        private static final Comparator<WordCount> WORST_FIRST = Comparator.comparingLong(WordCount::count)
+                .thenComparing(WordCount::word, Comparator.reverseOrder());
+
+        private final int limit;
+        private final PriorityQueue<WordCount> heap;
+        private long unique;
+
+        private TopWords(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.max(1, limit) + 1, WORST_FIRST);
+        }
+
+        private void offer(String word, long count) {
+            if (count <= 0) {
+                return;
+            }
+            unique++;
+            if (heap.size() < limit || (limit > 0 && count >= heap.peek().count())) {
+                push(new WordCount(word, count));
+            }
+        }
+
+        private TopWords merge(TopWords other) {
+            unique += other.unique;
+            other.heap.forEach(this::push);
+            return this;
+        }
+
+        private void push(WordCount wordCount) {
+            if (heap.size() < limit) {
+                heap.add(wordCount);
+            } else if (limit > 0 && WORST_FIRST.compare(heap.peek(), wordCount) < 0) {
+                heap.poll();
+                heap.add(wordCount);
+            }
+        }
+
+        private List<WordCount> sorted() {
+            List<WordCount> words = new ArrayList<>(heap);
+            words.sort(WORST_FIRST.reversed());
+            return words;
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package com.qoqtest.notes.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import com.qoqtest.notes.config.CacheConfig;
+import com.qoqtest.notes.config.MetricsConfig;
+import com.qoqtest.notes.dto.BatchItemStatus;
+import com.qoqtest.notes.dto.NoteBatchItemResultDTO;
+import com.qoqtest.notes.dto.NoteBatchResultDTO;
+import com.qoqtest.notes.dto.NoteImportErrorDTO;
+import com.qoqtest.notes.dto.NoteImportResultDTO;
+import com.qoqtest.notes.dto.NoteRequestDTO;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.mapper.NoteMapper;
+import com.qoqtest.notes.repository.NoteRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk create, import, delete and retag. Items are processed in chunks of {@code notes.batch.chunk-size},
+ * one Mongo bulk write per chunk, and every item gets its own result in request order. Deletes are one
+ * {@code findAndRemove} per note, so a note deleted concurrently by another request is only counted once.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NoteBatchService {
+
+    private static final int IMPORT_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_IMPORT_LINE_LENGTH = 64 * 1024;
+    private static final long IMPORT_PROGRESS_INTERVAL = 100_000;
+
+    private final NoteRepository noteRepository;
+    private final NoteMapper noteMapper;
+    private final NoteStatisticsIndexer statisticsIndexer;
+    private final NoteSearchIndex searchIndex;
+    private final NoteTotals noteTotals;
+    private final SingleFlight singleFlight;
+    private final NoteChangeFeed changeFeed;
+    private final Validator validator;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+
+    private int chunkSize = 1000;
+
+    @Value("${notes.batch.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${notes.batch.chunk-size:1000}")
+    void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("notes.batch.chunk-size must be at least 1, was " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "batchCreate"})
+    public NoteBatchResultDTO createNotes(List<NoteRequestDTO> dtos) {
+        log.info("Request to create {} notes in bulk", dtos.size());
+
+        NoteBatchItemResultDTO[] results = new NoteBatchItemResultDTO[dtos.size()];
+        List<Note> chunk = new ArrayList<>();
+        List<Integer> chunkIndexes = new ArrayList<>();
+
+        for (int i = 0; i < dtos.size(); i++) {
+            NoteRequestDTO dto = dtos.get(i);
+
+            Map<String, String> errors = validate(dto);
+            if (!errors.isEmpty()) {
+                results[i] = new NoteBatchItemResultDTO(i, null, BatchItemStatus.INVALID, errors);
+                continue;
+            }
+
+            chunk.add(toNote(dto));
+            chunkIndexes.add(i);
+
+            if (chunk.size() == chunkSize) {
+                insertChunk(chunk, chunkIndexes, results);
+                chunk = new ArrayList<>();
+                chunkIndexes = new ArrayList<>();
+            }
+        }
+        insertChunk(chunk, chunkIndexes, results);
+
+        return summarize(results);
+    }
+
+    /**
+     * Creates a note from every line of an NDJSON stream, validated like {@link #createNotes}. Lines are read one
+     * at a time and written in chunks, so memory use does not depend on the size of the stream, and the stream is
+     * only read as fast as the chunks are written. Blank lines are skipped. Only failed lines are reported,
+     * the first {@code notes.batch.import.max-reported-errors} of them.
+     * <p>
+     * The {@code id} and {@code createdDate} of a line, as written by the export, are kept, so an export is restored
+     * with its ids and listing order. A line whose id already exists is skipped, so a file can be imported again.
+     */
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "batchImport"})
+    public NoteImportResultDTO importNotes(InputStream in) throws IOException {
+        log.info("Request to import notes from NDJSON");
+
+        ObjectReader lineReader = objectMapper.reader()
+                .with(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+        ObjectReader noteReader = objectMapper.readerFor(NoteRequestDTO.class);
+        ImportProgress progress = new ImportProgress();
+        List<Note> chunk = new ArrayList<>();
+        List<Long> chunkLines = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), IMPORT_BUFFER_SIZE);
+        StringBuilder line = new StringBuilder();
+        long lineNumber = 0;
+
+        while (readLine(reader, line)) {
+            lineNumber++;
+            String text = line.toString();
+            if (text.isBlank()) {
+                continue;
+            }
+            progress.lines++;
+
+            Map<String, String> errors = new HashMap<>();
+            ImportLine parsed = parseLine(lineReader, noteReader, text, errors);
+            if (errors.isEmpty()) {
+                errors = validate(parsed.note());
+            }
+            if (!errors.isEmpty()) {
+                progress.fail(lineNumber, BatchItemStatus.INVALID, errors);
+                continue;
+            }
+
+            Note note = toNote(parsed.note());
+            if (parsed.id() != null) {
+                note.setId(parsed.id());
+            }
+            if (parsed.createdDate() != null) {
+                note.setCreatedDate(parsed.createdDate());
+            }
+            chunk.add(note);
+            chunkLines.add(lineNumber);
+
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, chunkLines, progress);
+                chunk = new ArrayList<>();
+                chunkLines = new ArrayList<>();
+            }
+        }
+        importChunk(chunk, chunkLines, progress);
+
+        log.info("Import finished. Lines: {}, imported: {}, skipped: {}, failed: {}",
+                progress.lines, progress.imported, progress.skipped, progress.failed);
+        return new NoteImportResultDTO(progress.lines, progress.imported, progress.skipped, progress.failed,
+                progress.errors, progress.failed > progress.errors.size());
+    }
+
+    /**
+     * Deletes every note with its own atomic find-and-remove, as {@link NoteService#deleteNote} does. Only the notes
+     * this call removed are reported as {@code DELETED} and taken out of the totals, the search index and the
+     * change feed; a note another request removed first is {@code NOT_FOUND}.
+     */
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "batchDelete"})
+    public NoteBatchResultDTO deleteNotes(List<String> ids) {
+        log.info("Request to delete {} notes in bulk", ids.size());
+
+        NoteBatchItemResultDTO[] results = new NoteBatchItemResultDTO[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            BatchItemStatus status;
+            try {
+                Optional<Note> removed = noteRepository.removeById(id);
+                removed.ifPresent(note -> {
+                    noteTotals.remove(searchIndex.remove(id).orElse(note.getTags()));
+                    changeFeed.deleted(id);
+                });
+                status = removed.isPresent() ? BatchItemStatus.DELETED : BatchItemStatus.NOT_FOUND;
+            } catch (DataAccessException e) {
+                log.error("Delete of note {} failed", id, e);
+                status = BatchItemStatus.FAILED;
+            }
+            evict(List.of(id), CacheConfig.NOTES, CacheConfig.NOTE_STATISTICS);
+            results[i] = new NoteBatchItemResultDTO(i, id, status);
+        }
+
+        return summarize(results);
+    }
+
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "batchTags"})
+    public NoteBatchResultDTO updateTags(List<String> ids, Set<NoteTag> add, Set<NoteTag> remove) {
+        log.info("Request to retag {} notes in bulk, adding: {}, removing: {}", ids.size(), add, remove);
+
+        return forEachChunk(ids, BatchItemStatus.UPDATED, (existingIds, existing) -> {
+            noteRepository.updateTags(existingIds, add, remove);
+            Map<String, Set<NoteTag>> tagsBefore = new HashMap<>();
+            existing.forEach(note -> tagsBefore.put(note.getId(), note.getTags()));
+            // Read back with their new versions, so a retag older than what the index holds changes neither it nor
+            // the totals, as in NoteService.updateNote.
+            for (Note note : noteRepository.findStatisticsByIdIn(existingIds)) {
+                NoteSearchIndex.Indexed indexed = searchIndex.index(note);
+                if (indexed.applied()) {
+                    noteTotals.retag(indexed.previousTags() == null ? tagsBefore.get(note.getId()) : indexed.previousTags(),
+                            note.getTags());
+                }
+                changeFeed.updated(note);
+            }
+            evict(existingIds, CacheConfig.NOTES);
+        });
+    }
+
+    private void insertChunk(List<Note> chunk, List<Integer> chunkIndexes, NoteBatchItemResultDTO[] results) {
+        Map<Integer, InsertFailure> failures = insertChunk(chunk);
+
+        for (int i = 0; i < chunk.size(); i++) {
+            int index = chunkIndexes.get(i);
+            InsertFailure failure = failures.get(i);
+            results[index] = failure == null
+                    ? new NoteBatchItemResultDTO(index, chunk.get(i).getId(), BatchItemStatus.CREATED)
+                    : new NoteBatchItemResultDTO(index, null, BatchItemStatus.FAILED, Map.of("write", failure.message()));
+        }
+    }
+
+    private void importChunk(List<Note> chunk, List<Long> chunkLines, ImportProgress progress) {
+        Map<Integer, InsertFailure> failures = insertChunk(chunk);
+
+        for (int i = 0; i < chunk.size(); i++) {
+            InsertFailure failure = failures.get(i);
+            if (failure == null) {
+                progress.imported++;
+            } else if (failure.duplicateId()) {
+                progress.skipped++;
+            } else {
+                progress.fail(chunkLines.get(i), BatchItemStatus.FAILED, Map.of("write", failure.message()));
+            }
+        }
+
+        if (progress.lines / IMPORT_PROGRESS_INTERVAL > progress.reportedLines / IMPORT_PROGRESS_INTERVAL) {
+            log.info("Import progress. Lines: {}, imported: {}, failed: {}", progress.lines, progress.imported, progress.failed);
+        }
+        progress.reportedLines = progress.lines;
+    }
+
+    /**
+     * Inserts the chunk with one unordered bulk write and adds the inserted notes to the search index, the totals and the change feed.
+     *
+     * @return failure by position in the chunk
+     */
+    private Map<Integer, InsertFailure> insertChunk(List<Note> chunk) {
+        if (chunk.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Integer, InsertFailure> failures = new HashMap<>();
+        try {
+            noteRepository.insertBulk(chunk);
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), new InsertFailure(error.getMessage(),
+                        ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY));
+            }
+        } catch (DataAccessException e) {
+            log.error("Bulk insert of {} notes failed", chunk.size(), e);
+            for (int i = 0; i < chunk.size(); i++) {
+                failures.put(i, new InsertFailure("Write failed", false));
+            }
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            if (!failures.containsKey(i)) {
+                searchIndex.index(chunk.get(i));
+                noteTotals.add(chunk.get(i).getTags());
+                changeFeed.created(chunk.get(i));
+            }
+        }
+
+        log.debug("Inserted chunk of {} notes, {} failed", chunk.size(), failures.size());
+        return failures;
+    }
+
+    /**
+     * Applies {@code write} to the ids and the projected fields of the existing notes of every chunk of ids;
+     * missing ids are reported as {@code NOT_FOUND}.
+     */
+    private NoteBatchResultDTO forEachChunk(List<String> ids, BatchItemStatus success,
+                                            BiConsumer<Set<String>, List<Note>> write) {
+        NoteBatchItemResultDTO[] results = new NoteBatchItemResultDTO[ids.size()];
+
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<String> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+
+            BatchItemStatus found;
+            Set<String> existing = Collections.emptySet();
+            try {
+                List<Note> notes = noteRepository.findStatisticsByIdIn(chunk);
+                existing = notes.stream().map(Note::getId).collect(Collectors.toSet());
+                write.accept(existing, notes);
+                found = success;
+            } catch (DataAccessException e) {
+                log.error("Bulk write of {} notes failed", chunk.size(), e);
+                found = BatchItemStatus.FAILED;
+            }
+
+            for (int i = 0; i < chunk.size(); i++) {
+                String id = chunk.get(i);
+                BatchItemStatus status = found == BatchItemStatus.FAILED || existing.contains(id)
+                        ? found
+                        : BatchItemStatus.NOT_FOUND;
+                results[from + i] = new NoteBatchItemResultDTO(from + i, id, status);
+            }
+        }
+
+        return summarize(results);
+    }
+
+    private Note toNote(NoteRequestDTO dto) {
+        Note note = noteMapper.toEntity(dto);
+        note.setId(new ObjectId().toHexString());
+        statisticsIndexer.index(note);
+        return note;
+    }
+
+    /**
+     * The note of an import line, with the id and creation date it was exported with, if any.
+     */
+    private record ImportLine(NoteRequestDTO note, String id, Instant createdDate) {}
+
+    private static ImportLine parseLine(ObjectReader lineReader, ObjectReader noteReader, String line,
+                                        Map<String, String> errors) throws IOException {
+        if (line.length() > MAX_IMPORT_LINE_LENGTH) {
+            errors.put("line", "must not be longer than " + MAX_IMPORT_LINE_LENGTH + " characters");
+            return null;
+        }
+
+        try {
+            JsonNode tree = lineReader.readTree(line);
+            NoteRequestDTO note = noteReader.readValue(tree);
+
+            String id = null;
+            JsonNode idNode = tree.path("id");
+            if (!idNode.isMissingNode() && !idNode.isNull()) {
+                if (idNode.isTextual() && ObjectId.isValid(idNode.asText())) {
+                    id = idNode.asText();
+                } else {
+                    errors.put("id", "is not a note id");
+                }
+            }
+
+            Instant createdDate = null;
+            JsonNode createdDateNode = tree.path("createdDate");
+            if (!createdDateNode.isMissingNode() && !createdDateNode.isNull()) {
+                try {
+                    createdDate = lineReader.treeToValue(createdDateNode, Instant.class);
+                } catch (JsonProcessingException e) {
+                    errors.put("createdDate", "is not a timestamp");
+                }
+            }
+
+            return new ImportLine(note, id, createdDate);
+        } catch (MismatchedInputException e) {
+            String field = e.getPath().isEmpty() ? null : e.getPath().getFirst().getFieldName();
+            if (field == null) {
+                errors.put("line", "is not a note object");
+            } else {
+                errors.put(field, "has an invalid value");
+            }
+        } catch (JsonProcessingException e) {
+            errors.put("line", "is not valid JSON");
+        }
+        return null;
+    }
+
+    /**
+     * Reads the next line into {@code line}, without its terminator. Characters beyond
+     * {@link #MAX_IMPORT_LINE_LENGTH} are dropped, so an overlong line cannot exhaust memory.
+     *
+     * @return {@code false} at the end of the stream
+     */
+    private static boolean readLine(Reader reader, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int c = reader.read();
+        if (c == -1) {
+            return false;
+        }
+
+        while (c != -1 && c != '\n') {
+            if (line.length() <= MAX_IMPORT_LINE_LENGTH) {
+                line.append((char) c);
+            }
+            c = reader.read();
+        }
+
+        int last = line.length() - 1;
+        if (last >= 0 && line.charAt(last) == '\r') {
+            line.setLength(last);
+        }
+        return true;
+    }
+
+    private Map<String, String> validate(NoteRequestDTO dto) {
+        if (dto == null) {
+            return Map.of("note", "must not be null");
+        }
+
+        Map<String, String> errors = new HashMap<>();
+        for (ConstraintViolation<NoteRequestDTO> violation : validator.validate(dto)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    private void evict(Collection<String> ids, String... cacheNames) {
+        ids.forEach(singleFlight::forget);
+        for (String cacheName : cacheNames) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                ids.forEach(cache::evict);
+            }
+        }
+    }
+
+    private record InsertFailure(String message, boolean duplicateId) {}
+
+    private final class ImportProgress {
+        private long lines;
+        private long imported;
+        private long skipped;
+        private long failed;
+        private long reportedLines;
+        private final List<NoteImportErrorDTO> errors = new ArrayList<>();
+
+        private void fail(long line, BatchItemStatus status, Map<String, String> lineErrors) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new NoteImportErrorDTO(line, status, lineErrors));
+            }
+        }
+    }
+
+    private static NoteBatchResultDTO summarize(NoteBatchItemResultDTO[] results) {
+        int succeeded = 0;
+        for (NoteBatchItemResultDTO result : results) {
+            if (result.status() == BatchItemStatus.CREATED
+                    || result.status() == BatchItemStatus.UPDATED
+                    || result.status() == BatchItemStatus.DELETED) {
+                succeeded++;
+            }
+        }
+
+        log.info("Bulk operation finished. Succeeded: {}, failed: {}", succeeded, results.length - succeeded);
+        return new NoteBatchResultDTO(succeeded, results.length - succeeded, Arrays.asList(results));
+    }
+}
@@ -0,0 +1,9 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.dto.NoteChangeDTO;
+
+/**
+ * A change of the feed and the token to resume the feed after it.
+ */
+public record NoteChangeEvent(String token, NoteChangeDTO change) {
+}
@@ -0,0 +1,211 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.dto.NoteChangeDTO;
+import com.qoqtest.notes.dto.NoteChangeOperation;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.mapper.NoteMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The latest {@code notes.changes.buffer-size} note changes, numbered in the order they happened, and the live
+ * feed of new ones. Every change carries a token of this feed and its number; a subscriber that passes the token
+ * of the last change it saw gets the changes after it first. A token the feed cannot resume from, because it
+ * was issued before a restart or its changes have left the buffer, gets a {@code RESET} first.
+ * <p>
+ * Changes are recorded by the services after every write, or, with {@code notes.changes.change-stream.enabled},
+ * only by the MongoDB change stream listener, which also sees the writes of other instances.
+ * <p>
+ * Subscribers read from the buffer on their own threads, after being woken by a write, so a slow client never
+ * holds up a write; one that falls more than the buffer behind gets a {@code RESET}.
+ * <p>
+ * Concurrent writes of a note may be recorded in another order than MongoDB applied them. The feed remembers the
+ * last version it recorded for the latest {@code notes.changes.buffer-size} notes and drops a change of a version
+ * that is not newer, or of a note it recorded as deleted, so subscribers never see a note go back to an older state.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NoteChangeFeed {
+
+    private final NoteMapper noteMapper;
+
+    /** Recorded version of a deleted note; no later change of it is newer. */
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final String feedId = Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 16);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Sinks.Many<Long> written = Sinks.many().multicast().directBestEffort();
+
+    private NoteChangeDTO[] buffer;
+    private long nextSequence;
+    private Map<String, Long> recordedVersions;
+
+    @Value("${notes.changes.buffer-size:10000}")
+    private int bufferSize = 10_000;
+
+    @Value("${notes.changes.change-stream.enabled:false}")
+    private boolean changeStream;
+
+    public void created(Note note) {
+        recordWrite(noteMapper.toChangeDTO(note, NoteChangeOperation.CREATE));
+    }
+
+    public void updated(Note note) {
+        recordWrite(noteMapper.toChangeDTO(note, NoteChangeOperation.UPDATE));
+    }
+
+    public void deleted(String id) {
+        recordWrite(new NoteChangeDTO(NoteChangeOperation.DELETE, id));
+    }
+
+    /**
+     * Appends a change and wakes the subscribers, unless it is older than the last change recorded for its note.
+     */
+    public void publish(NoteChangeDTO change) {
+        lock.lock();
+        try {
+            if (buffer == null) {
+                buffer = new NoteChangeDTO[bufferSize];
+                recordedVersions = new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                        return size() > bufferSize;
+                    }
+                };
+            }
+            if (isOutdated(change)) {
+                log.debug("Dropped {} of note {} at version {}, a newer change was recorded", change.op(), change.id(), change.version());
+                return;
+            }
+            buffer[(int) (nextSequence % buffer.length)] = change;
+            nextSequence++;
+            // Emitted under the lock, as a sink must not be called concurrently.
+            written.tryEmitNext(nextSequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The changes after the one {@code token} was issued for, followed by every new change; without a token only
+     * the new ones. Never completes.
+     */
+    public Flux<NoteChangeEvent> changesAfter(String token) {
+        return Flux.defer(() -> {
+            Cursor cursor = resume(token);
+            // Subscribed to the wake-ups before the first read, so no write can fall between the two.
+            return Flux.merge(written.asFlux().onBackpressureLatest(), Mono.just(0L))
+                    .publishOn(Schedulers.boundedElastic(), 1)
+                    .concatMapIterable(wakeUp -> read(cursor));
+        });
+    }
+
+    /**
+     * Whether the change is not newer than the last one recorded for its note; remembers it otherwise.
+     */
+    private boolean isOutdated(NoteChangeDTO change) {
+        if (change.id() == null) {
+            return false;
+        }
+        Long recorded = recordedVersions.get(change.id());
+        if (change.op() == NoteChangeOperation.DELETE) {
+            recordedVersions.put(change.id(), DELETED);
+            return false;
+        }
+        if (change.version() == null) {
+            return false;
+        }
+        if (recorded != null && recorded >= change.version()) {
+            return true;
+        }
+        recordedVersions.put(change.id(), change.version());
+        return false;
+    }
+
+    private void recordWrite(NoteChangeDTO change) {
+        if (!changeStream) {
+            publish(change);
+        }
+    }
+
+    private Cursor resume(String token) {
+        lock.lock();
+        try {
+            Cursor cursor = new Cursor(nextSequence);
+            if (token == null || token.isBlank()) {
+                return cursor;
+            }
+
+            int separator = token.indexOf('-');
+            if (separator > 0 && token.substring(0, separator).equals(feedId)) {
+                try {
+                    long after = Long.parseLong(token.substring(separator + 1)) + 1;
+                    if (after >= oldestSequence() && after <= nextSequence) {
+                        cursor.next = after;
+                        return cursor;
+                    }
+                } catch (NumberFormatException ignored) {
+                    // Not one of our tokens, handled below.
+                }
+            }
+
+            log.debug("Change feed cannot resume after token {}, resetting", token);
+            cursor.reset = true;
+            return cursor;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<NoteChangeEvent> read(Cursor cursor) {
+        lock.lock();
+        try {
+            List<NoteChangeEvent> events = new ArrayList<>();
+            if (cursor.next < oldestSequence()) {
+                cursor.reset = true;
+                cursor.next = nextSequence;
+            }
+            if (cursor.reset) {
+                events.add(new NoteChangeEvent(token(cursor.next - 1), new NoteChangeDTO(NoteChangeOperation.RESET, null)));
+                cursor.reset = false;
+            }
+            for (; cursor.next < nextSequence; cursor.next++) {
+                events.add(new NoteChangeEvent(token(cursor.next), buffer[(int) (cursor.next % buffer.length)]));
+            }
+            return events;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long oldestSequence() {
+        return Math.max(0, nextSequence - bufferSize);
+    }
+
+    private String token(long sequence) {
+        return feedId + "-" + sequence;
+    }
+
+    /**
+     * Number of the next change a subscriber reads, and whether it has to be told to start over first.
+     */
+    private static final class Cursor {
+        private long next;
+        private boolean reset;
+
+        private Cursor(long next) {
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in the newest-first listing: the sort key ({@code createdDate}, {@code id}) of the last note returned.
+ * Clients receive it as an opaque URL-safe token.
+ */
+public record NoteCursor(Instant createdDate, String id) {
+
+    private static final char SEPARATOR = ':';
+
+    /** Position before the newest note; never encoded. */
+    public static final NoteCursor START = new NoteCursor(null, null);
+
+    public static NoteCursor of(Note note) {
+        return new NoteCursor(note.getCreatedDate(), note.getId());
+    }
+
+    public String encode() {
+        String raw = createdDate.toEpochMilli() + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static NoteCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new InvalidCursorException("Invalid cursor: " + token);
+            }
+            return new NoteCursor(
+                    Instant.ofEpochMilli(Long.parseLong(raw.substring(0, separator))),
+                    raw.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+}
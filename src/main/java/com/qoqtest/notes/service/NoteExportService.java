@@ -0,0 +1,65 @@
+package com.qoqtest.notes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.qoqtest.notes.config.MetricsConfig;
+import com.qoqtest.notes.dto.NoteFullResponseDTO;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.mapper.NoteMapper;
+import com.qoqtest.notes.repository.NoteRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Writes notes as newline-delimited JSON while they are read from one Mongo cursor,
+ * so memory use does not depend on how many notes are exported.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NoteExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final NoteRepository noteRepository;
+    private final NoteMapper noteMapper;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes one {@link NoteFullResponseDTO} per line. The stream is flushed but not closed.
+     *
+     * @return number of notes written
+     */
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "export"})
+    public long exportNotes(Set<NoteTag> tags, Instant from, Instant to, OutputStream out) throws IOException {
+        log.info("Exporting notes, filtering by tags: {}, created from: {} to: {}", tags, from, to);
+
+        ObjectWriter writer = objectMapper.writerFor(NoteFullResponseDTO.class);
+        BufferedOutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        long exported = 0;
+
+        try (Stream<Note> notes = noteRepository.streamForExport(tags, from, to)) {
+            Iterator<Note> iterator = notes.iterator();
+            while (iterator.hasNext()) {
+                buffered.write(writer.writeValueAsBytes(noteMapper.toFullResponseDTO(iterator.next())));
+                buffered.write('\n');
+                exported++;
+            }
+        }
+        buffered.flush();
+
+        log.info("Exported {} notes", exported);
+        return exported;
+    }
+}
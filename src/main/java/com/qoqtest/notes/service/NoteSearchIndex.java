@@ -0,0 +1,584 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.dto.SearchOperator;
+import com.qoqtest.notes.dto.SearchOrder;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the stored word histograms of all notes, used by full-text search.
+ * <p>
+ * Every indexed note gets a dense doc number, and every term maps to a posting list of doc numbers in
+ * ascending order together with the term's count in that note, all in primitive arrays. Doc numbers only
+ * ever grow, so indexing a note appends to its posting lists and they stay sorted without shifting.
+ * Removing or re-indexing a note just marks its old doc number dead; dead entries are dropped and the
+ * doc numbers renumbered once they outnumber the live ones.
+ * <p>
+ * Terms are taken from {@link Note#getWordFrequencies()}, so search uses exactly the word rules of the
+ * stats endpoint and the index never tokenizes note text itself. Matches are ranked with BM25.
+ * <p>
+ * Indexed notes are also counted in {@link CorpusWordStatistics}. Every doc keeps the note version and the word
+ * histogram it was indexed with, so removing or re-indexing a note takes out exactly what it added, and a write of
+ * a version older than the indexed one is ignored: writes that reach the index out of order leave the newest.
+ * Recently removed ids are remembered, so a late write cannot bring a deleted note back.
+ * <p>
+ * Guarded by a read-write lock rather than {@code synchronized}, so waiting writers do not pin virtual threads.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NoteSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /** Dead doc numbers are only compacted away once there are at least this many. */
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+
+    /** Removed ids remembered to ignore writes that arrive after the removal. */
+    private static final int MAX_REMEMBERED_REMOVALS = 10_000;
+
+    private static final String[] NO_TERMS = new String[0];
+    private static final int[] NO_COUNTS = new int[0];
+
+    private static final Result NO_MATCHES = new Result(List.of(), 0);
+    private static final Indexed IGNORED = new Indexed(false, null);
+
+    private final CorpusWordStatistics corpusStatistics;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<String, Integer> docsById = new HashMap<>();
+
+    private String[] ids = new String[1024];
+    private long[] createdMillis = new long[1024];
+    private int[] lengths = new int[1024];
+    private byte[] tagMasks = new byte[1024];
+    private long[] versions = new long[1024];
+    // The histogram each doc was indexed with, holding the term strings of the posting lists rather than copies.
+    private String[][] docTerms = new String[1024][];
+    private int[][] docCounts = new int[1024][];
+    private final BitSet dead = new BitSet();
+
+    private int docCount;
+    private int deadCount;
+    private long totalLength;
+
+    private boolean loading;
+    private final Set<String> removedWhileLoading = new HashSet<>();
+    private final Set<String> recentlyRemoved = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_REMEMBERED_REMOVALS;
+        }
+    });
+
+    public record Hit(String id, double score) {}
+
+    /**
+     * Outcome of {@link #index(Note)}.
+     *
+     * @param applied      whether the index changed
+     * @param previousTags the tags the note was indexed with until then, {@code null} if it was not indexed
+     */
+    public record Indexed(boolean applied, Set<NoteTag> previousTags) {}
+
+    /**
+     * @param hits  the requested slice of matches, best first
+     * @param total number of matching notes
+     */
+    public record Result(List<Hit> hits, int total) {}
+
+    /**
+     * Adds the note, replacing what was indexed for its id before, unless that is already at its version or newer,
+     * or the note was removed. The tags it replaces let callers keep counts in step with the index, as those are
+     * the tags of the newest version applied so far.
+     */
+    public Indexed index(Note note) {
+        lock.writeLock().lock();
+        try {
+            Indexed indexed = indexDoc(note);
+            compactIfNeeded();
+            return indexed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the tags the note was indexed with, or empty if it was not indexed
+     */
+    public Optional<Set<NoteTag>> remove(String id) {
+        lock.writeLock().lock();
+        try {
+            int tagMask = removeDoc(id);
+            recentlyRemoved.add(id);
+            if (loading) {
+                removedWhileLoading.add(id);
+            }
+            compactIfNeeded();
+            return tagMask < 0 ? Optional.empty() : Optional.of(NoteTag.of(tagMask));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts loading the stored notes. Until {@link #finishLoad()}, {@link #load} skips notes that were
+     * indexed or removed in the meantime, so a slow load never overwrites newer writes.
+     */
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            loading = true;
+            removedWhileLoading.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void load(List<Note> notes) {
+        lock.writeLock().lock();
+        try {
+            for (Note note : notes) {
+                if (!docsById.containsKey(note.getId()) && !removedWhileLoading.contains(note.getId())
+                        && !recentlyRemoved.contains(note.getId())) {
+                    addDoc(note);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void finishLoad() {
+        lock.writeLock().lock();
+        try {
+            loading = false;
+            removedWhileLoading.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the notes containing all ({@link SearchOperator#AND}) or any ({@link SearchOperator#OR}) of the
+     * given lowercase terms and, if {@code tags} is not empty, at least one of the tags. Only the best
+     * {@code offset + limit} matches are kept while scanning.
+     */
+    public Result search(Collection<String> terms, SearchOperator operator, Set<NoteTag> tags,
+                         SearchOrder order, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list != null) {
+                    lists.add(list);
+                } else if (operator == SearchOperator.AND) {
+                    return NO_MATCHES;
+                }
+            }
+            if (lists.isEmpty()) {
+                return NO_MATCHES;
+            }
+            // The rarest term drives the intersection.
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            Scorer scorer = new Scorer(lists);
+            TopMatches top = new TopMatches(order, offset + limit);
+            int tagMask = NoteTag.mask(tags);
+
+            int total = operator == SearchOperator.AND
+                    ? matchAll(lists, scorer, tagMask, top)
+                    : matchAny(lists, scorer, tagMask, top);
+
+            return new Result(top.slice(offset), total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int matchAll(List<PostingList> lists, Scorer scorer, int tagMask, TopMatches top) {
+        PostingList lead = lists.getFirst();
+        int[] cursors = new int[lists.size()];
+        int total = 0;
+
+        candidates:
+        for (int i = 0; i < lead.size; i++) {
+            int doc = lead.docs[i];
+            if (!isMatch(doc, tagMask)) {
+                continue;
+            }
+
+            double score = scorer.score(0, doc, lead.counts[i]);
+            for (int t = 1; t < lists.size(); t++) {
+                PostingList list = lists.get(t);
+                int at = list.seek(cursors[t], doc);
+                cursors[t] = at;
+                if (at == list.size) {
+                    break candidates;
+                }
+                if (list.docs[at] != doc) {
+                    continue candidates;
+                }
+                score += scorer.score(t, doc, list.counts[at]);
+            }
+
+            total++;
+            top.offer(doc, score);
+        }
+        return total;
+    }
+
+    private int matchAny(List<PostingList> lists, Scorer scorer, int tagMask, TopMatches top) {
+        int[] cursors = new int[lists.size()];
+        int total = 0;
+
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (int t = 0; t < lists.size(); t++) {
+                PostingList list = lists.get(t);
+                if (cursors[t] < list.size) {
+                    doc = Math.min(doc, list.docs[cursors[t]]);
+                }
+            }
+            if (doc == Integer.MAX_VALUE) {
+                return total;
+            }
+
+            double score = 0;
+            for (int t = 0; t < lists.size(); t++) {
+                PostingList list = lists.get(t);
+                if (cursors[t] < list.size && list.docs[cursors[t]] == doc) {
+                    score += scorer.score(t, doc, list.counts[cursors[t]]);
+                    cursors[t]++;
+                }
+            }
+
+            if (isMatch(doc, tagMask)) {
+                total++;
+                top.offer(doc, score);
+            }
+        }
+    }
+
+    private boolean isMatch(int doc, int tagMask) {
+        return !dead.get(doc) && (tagMask == 0 || (tagMasks[doc] & tagMask) != 0);
+    }
+
+    private Indexed indexDoc(Note note) {
+        if (recentlyRemoved.contains(note.getId())) {
+            return IGNORED;
+        }
+        Integer doc = docsById.get(note.getId());
+        if (doc == null) {
+            addDoc(note);
+            return new Indexed(true, null);
+        }
+        if (versions[doc] >= note.getVersion()) {
+            return IGNORED;
+        }
+
+        Indexed indexed = new Indexed(true, NoteTag.of(tagMasks[doc]));
+
+        if (hasWords(doc, note.getWordFrequencies()) && createdMillis[doc] == toMillis(note.getCreatedDate())) {
+            // Same text: retag in place instead of appending a new doc to every posting list of the note.
+            int oldMask = tagMasks[doc];
+            tagMasks[doc] = (byte) NoteTag.mask(note.getTags());
+            versions[doc] = note.getVersion();
+            corpusStatistics.retag(wordsOf(doc), oldMask, tagMasks[doc]);
+            return indexed;
+        }
+        removeDoc(note.getId());
+        addDoc(note);
+        return indexed;
+    }
+
+    private void addDoc(Note note) {
+        if (docCount == ids.length) {
+            int capacity = docCount * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            createdMillis = Arrays.copyOf(createdMillis, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            tagMasks = Arrays.copyOf(tagMasks, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            docTerms = Arrays.copyOf(docTerms, capacity);
+            docCounts = Arrays.copyOf(docCounts, capacity);
+        }
+
+        int doc = docCount++;
+        int length = 0;
+        List<WordCount> noteWords = note.getWordFrequencies() == null ? List.of() : note.getWordFrequencies();
+        String[] terms = noteWords.isEmpty() ? NO_TERMS : new String[noteWords.size()];
+        int[] counts = noteWords.isEmpty() ? NO_COUNTS : new int[noteWords.size()];
+        for (int i = 0; i < terms.length; i++) {
+            WordCount wordCount = noteWords.get(i);
+            PostingList list = postings.computeIfAbsent(wordCount.word(), PostingList::new);
+            list.add(doc, wordCount.count());
+            terms[i] = list.term;
+            counts[i] = (int) wordCount.count();
+            length += (int) wordCount.count();
+        }
+
+        ids[doc] = note.getId();
+        createdMillis[doc] = toMillis(note.getCreatedDate());
+        lengths[doc] = length;
+        tagMasks[doc] = (byte) NoteTag.mask(note.getTags());
+        versions[doc] = note.getVersion();
+        docTerms[doc] = terms;
+        docCounts[doc] = counts;
+        totalLength += length;
+        docsById.put(note.getId(), doc);
+        corpusStatistics.add(noteWords, tagMasks[doc]);
+    }
+
+    /**
+     * @return the tag mask of the removed doc, or -1 if the note was not indexed
+     */
+    private int removeDoc(String id) {
+        Integer doc = docsById.remove(id);
+        if (doc == null) {
+            return -1;
+        }
+        corpusStatistics.remove(wordsOf(doc), tagMasks[doc]);
+
+        dead.set(doc);
+        deadCount++;
+        totalLength -= lengths[doc];
+        ids[doc] = null;
+        docTerms[doc] = null;
+        docCounts[doc] = null;
+        return tagMasks[doc];
+    }
+
+    private List<WordCount> wordsOf(int doc) {
+        List<WordCount> words = new ArrayList<>(docTerms[doc].length);
+        for (int i = 0; i < docTerms[doc].length; i++) {
+            words.add(new WordCount(docTerms[doc][i], docCounts[doc][i]));
+        }
+        return words;
+    }
+
+    private boolean hasWords(int doc, List<WordCount> words) {
+        int size = words == null ? 0 : words.size();
+        if (size != docTerms[doc].length) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (words.get(i).count() != docCounts[doc][i] || !words.get(i).word().equals(docTerms[doc][i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long toMillis(Instant instant) {
+        return instant == null ? 0 : instant.toEpochMilli();
+    }
+
+    private void compactIfNeeded() {
+        if (deadCount < MIN_DEAD_TO_COMPACT || deadCount <= docsById.size()) {
+            return;
+        }
+
+        int[] renumbered = new int[docCount];
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (dead.get(doc)) {
+                renumbered[doc] = -1;
+                continue;
+            }
+            renumbered[doc] = live;
+            ids[live] = ids[doc];
+            createdMillis[live] = createdMillis[doc];
+            lengths[live] = lengths[doc];
+            tagMasks[live] = tagMasks[doc];
+            versions[live] = versions[doc];
+            docTerms[live] = docTerms[doc];
+            docCounts[live] = docCounts[doc];
+            live++;
+        }
+        Arrays.fill(ids, live, docCount, null);
+        Arrays.fill(docTerms, live, docCount, null);
+        Arrays.fill(docCounts, live, docCount, null);
+
+        postings.values().removeIf(list -> list.renumber(renumbered) == 0);
+        docsById.replaceAll((id, doc) -> renumbered[doc]);
+
+        log.debug("Compacted search index: dropped {} dead notes, {} live notes and {} terms remain",
+                deadCount, live, postings.size());
+
+        docCount = live;
+        deadCount = 0;
+        dead.clear();
+    }
+
+    /**
+     * Doc numbers in ascending order and the term's count in each note.
+     * Counts are stored as shorts; a note's text is far too short to overflow them.
+     */
+    private static final class PostingList {
+
+        private final String term;
+        private int[] docs = new int[2];
+        private short[] counts = new short[2];
+        private int size;
+
+        PostingList(String term) {
+            this.term = term;
+        }
+
+        void add(int doc, long count) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            docs[size] = doc;
+            counts[size] = (short) Math.min(count, Short.MAX_VALUE);
+            size++;
+        }
+
+        /**
+         * @return the first position at or after {@code from} whose doc is not below {@code doc}, or {@code size}
+         */
+        int seek(int from, int doc) {
+            // Gallop ahead, then binary search the last step.
+            int low = from;
+            int step = 1;
+            while (from + step < size && docs[from + step] < doc) {
+                low = from + step;
+                step <<= 1;
+            }
+
+            int found = Arrays.binarySearch(docs, low, Math.min(from + step, size), doc);
+            return found >= 0 ? found : -found - 1;
+        }
+
+        /**
+         * Drops dead docs and applies the new doc numbers; returns the remaining size.
+         */
+        int renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = renumbered[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    counts[kept] = counts[i];
+                    kept++;
+                }
+            }
+            size = kept;
+
+            if (size > 0 && size < docs.length / 4) {
+                docs = Arrays.copyOf(docs, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            return size;
+        }
+    }
+
+    /**
+     * BM25 contribution of each query term. Document frequencies count dead entries until the next
+     * compaction, which only shifts scores slightly.
+     */
+    private final class Scorer {
+
+        private final double[] idf;
+        private final double averageLength;
+
+        Scorer(List<PostingList> lists) {
+            int liveDocs = docsById.size();
+            averageLength = liveDocs == 0 ? 1 : Math.max(1.0, (double) totalLength / liveDocs);
+
+            idf = new double[lists.size()];
+            for (int t = 0; t < idf.length; t++) {
+                int df = lists.get(t).size;
+                int docs = Math.max(liveDocs, df);
+                idf[t] = Math.log(1 + (docs - df + 0.5) / (df + 0.5));
+            }
+        }
+
+        double score(int term, int doc, int count) {
+            double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+            return idf[term] * count * (K1 + 1) / (count + norm);
+        }
+    }
+
+    /**
+     * Bounded heap holding the best matches seen so far, worst on top.
+     */
+    private final class TopMatches {
+
+        private final SearchOrder order;
+        private final int capacity;
+        private final PriorityQueue<Match> heap;
+
+        TopMatches(SearchOrder order, int capacity) {
+            this.order = order;
+            this.capacity = capacity;
+            this.heap = new PriorityQueue<>(this::rank);
+        }
+
+        void offer(int doc, double score) {
+            if (capacity <= 0) {
+                return;
+            }
+            if (heap.size() < capacity) {
+                heap.add(new Match(doc, score));
+            } else if (rank(doc, score, heap.peek().doc(), heap.peek().score()) > 0) {
+                heap.poll();
+                heap.add(new Match(doc, score));
+            }
+        }
+
+        List<Hit> slice(int offset) {
+            List<Hit> hits = new ArrayList<>(heap.size());
+            while (!heap.isEmpty()) {
+                Match match = heap.poll();
+                hits.add(new Hit(ids[match.doc()], match.score()));
+            }
+            Collections.reverse(hits);
+            return offset >= hits.size() ? List.of() : hits.subList(offset, hits.size());
+        }
+
+        private int rank(Match a, Match b) {
+            return rank(a.doc(), a.score(), b.doc(), b.score());
+        }
+
+        /**
+         * Positive if the first match ranks ahead of the second.
+         */
+        private int rank(int docA, double scoreA, int docB, double scoreB) {
+            if (order == SearchOrder.RELEVANCE) {
+                int byScore = Double.compare(scoreA, scoreB);
+                if (byScore != 0) {
+                    return byScore;
+                }
+            }
+            // Newest first, ties broken by id like the note listing.
+            int byDate = Long.compare(createdMillis[docA], createdMillis[docB]);
+            return byDate != 0 ? byDate : ids[docA].compareTo(ids[docB]);
+        }
+    }
+
+    private record Match(int doc, double score) {}
+}
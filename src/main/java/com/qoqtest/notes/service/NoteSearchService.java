@@ -0,0 +1,74 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.config.MetricsConfig;
+import com.qoqtest.notes.dto.NoteSearchHitDTO;
+import com.qoqtest.notes.dto.SearchOperator;
+import com.qoqtest.notes.dto.SearchOrder;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+import com.qoqtest.notes.repository.NoteRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search: matches and ranks notes in the {@link NoteSearchIndex}, then loads the
+ * titles of only the requested page.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NoteSearchService {
+
+    private final NoteSearchIndex searchIndex;
+    private final WordCounter wordCounter;
+    private final NoteRepository noteRepository;
+
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "search"})
+    public Page<NoteSearchHitDTO> search(String query, SearchOperator operator, Set<NoteTag> tags,
+                                         SearchOrder order, int page, int size) {
+        log.info("Request to search notes for '{}' ({}), filtering by tags: {}, order: {}, page: {}, size: {}",
+                query, operator, tags, order, page, size);
+
+        Pageable pageable = PageRequest.of(page, size);
+
+        // Query terms follow the same word rules as the stored histograms.
+        List<String> terms = wordCounter.countDescending(query).stream().map(WordCount::word).toList();
+        if (terms.isEmpty()) {
+            log.debug("Search query '{}' contains no words", query);
+            return Page.empty(pageable);
+        }
+
+        int offset = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE - size);
+        NoteSearchIndex.Result result = searchIndex.search(terms, operator, tags, order, offset, size);
+
+        List<String> ids = result.hits().stream().map(NoteSearchIndex.Hit::id).toList();
+        Map<String, Note> summaries = ids.isEmpty()
+                ? Map.of()
+                : noteRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(Note::getId, Function.identity()));
+
+        List<NoteSearchHitDTO> content = new ArrayList<>(ids.size());
+        for (NoteSearchIndex.Hit hit : result.hits()) {
+            Note note = summaries.get(hit.id());
+            // A note deleted after the index was searched is simply left out.
+            if (note != null) {
+                content.add(new NoteSearchHitDTO(hit.id(), note.getTitle(), note.getCreatedDate(), hit.score()));
+            }
+        }
+
+        log.info("Found {} notes matching '{}'", result.total(), query);
+
+        return new PageImpl<>(content, pageable, result.total());
+    }
+}
@@ -1,55 +1,99 @@
 package com.qoqtest.notes.service;
 
+import com.qoqtest.notes.config.CacheConfig;
+import com.qoqtest.notes.config.MetricsConfig;
+import com.qoqtest.notes.dto.NoteCursorPageDTO;
 import com.qoqtest.notes.dto.NoteFullResponseDTO;
 import com.qoqtest.notes.dto.NoteRequestDTO;
 import com.qoqtest.notes.dto.NoteShortResponseDTO;
+import com.qoqtest.notes.dto.PageTotal;
+import com.qoqtest.notes.dto.TagFacetsDTO;
+import com.qoqtest.notes.dto.TagMatch;
 import com.qoqtest.notes.entity.NoteTag;
 import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.WordCount;
 import com.qoqtest.notes.exception.NoteNotFoundException;
+import com.qoqtest.notes.exception.NoteVersionMismatchException;
 import com.qoqtest.notes.mapper.NoteMapper;
 import com.qoqtest.notes.repository.NoteRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.aop.MeterTag;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.LongSupplier;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NoteService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final NoteRepository noteRepository;
     private final NoteMapper noteMapper;
+    private final NoteStatisticsIndexer statisticsIndexer;
+    private final NoteSearchIndex searchIndex;
+    private final NoteTotals noteTotals;
+    private final SingleFlight singleFlight;
+    private final NoteChangeFeed changeFeed;
+    private final MeterRegistry meterRegistry;
 
     @Transactional
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "create"})
     public NoteFullResponseDTO createNote(NoteRequestDTO dto){
         log.debug("Creating a new note with title: {}", dto.title());
         Note note = noteMapper.toEntity(dto);
+        statisticsIndexer.index(note);
         Note saveNote = noteRepository.save(note);
+        searchIndex.index(saveNote);
+        noteTotals.add(saveNote.getTags());
+        changeFeed.created(saveNote);
         log.info("Created new note with title: {}", dto.title());
         return noteMapper.toFullResponseDTO(saveNote);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.NOTES, CacheConfig.NOTE_STATISTICS}, key = "#id")
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "delete"})
     public void deleteNote (String id){
         log.info("Attempting to delete note with id: {}", id);
 
-        noteRepository.deleteById(id);
+        noteRepository.removeById(id)
+                .ifPresent(removed -> {
+                    // The tags of the newest version the index applied, see updateNote.
+                    noteTotals.remove(searchIndex.remove(id).orElse(removed.getTags()));
+                    changeFeed.deleted(id);
+                });
+        singleFlight.forget(id);
 
         log.info("Successfully deleted note with id: {}", id);
     }
 
+    /**
+     * Cached per id. Loads are synchronized per key and eviction happens after the write,
+     * so a read racing with {@link #updateNote} or {@link #deleteNote} cannot leave a stale entry behind.
+     * Concurrent loads share one query through {@link SingleFlight}, also with the cache turned off.
+     */
+    @Cacheable(cacheNames = CacheConfig.NOTES, key = "#id", sync = true)
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "getById"})
     public NoteFullResponseDTO getNoteById(String id) {
         log.info("Fetching note with id: {}", id);
 
-        return noteRepository.findById(id)
+        return singleFlight.execute("getById", id, () -> noteRepository.findById(id)
                 .map(note -> {
                     log.debug("Note found in database: {}", note.getTitle());
                     return noteMapper.toFullResponseDTO(note);
@@ -57,85 +101,217 @@ public class NoteService {
                 .orElseThrow(() -> {
                     log.warn("Note not found with id: {}", id);
                     return new NoteNotFoundException("Note not found with id: " + id);
-                });
+                }));
     }
 
-    public Page<NoteShortResponseDTO> getAllNotes(Set<NoteTag> tags, int page, int size) {
-        log.info("Request to get notes page: {}, size: {}, filtering by tags: {}", page, size, tags);
+    /**
+     * Loads nothing but the version of the note, so a conditional request can be answered without its text.
+     * Not cached, but concurrent loads share one query through {@link SingleFlight}.
+     */
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "getVersion"})
+    public NoteVersion getNoteVersion(String id) {
+        return singleFlight.execute("getVersion", id, () -> noteRepository.findVersionById(id)
+                .map(note -> new NoteVersion(note.getVersion(), note.getLastModifiedDate()))
+                .orElseThrow(() -> {
+                    log.warn("Note not found with id: {}", id);
+                    return new NoteNotFoundException("Note not found with id: " + id);
+                }));
+    }
+
+    /**
+     * A page of the newest-first listing of the notes with any or all of {@code tags}. Its total is counted only if
+     * the page itself does not tell it, and with {@link PageTotal#APPROXIMATE} is read from {@link NoteTotals} instead;
+     * until those are loaded, an unfiltered total is estimated from the collection metadata and a filtered one counted.
+     */
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "list"})
+    public Page<NoteShortResponseDTO> getAllNotes(
+            @MeterTag(key = "filtered", resolver = MetricsConfig.NonEmpty.class) Set<NoteTag> tags, TagMatch match,
+            int page, int size, PageTotal total) {
+        log.info("Request to get notes page: {}, size: {}, filtering by {} of tags: {}, total: {}", page, size, match, tags, total);
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
+        boolean filtered = tags != null && !tags.isEmpty();
 
-        Page<Note> notesPage;
+        List<Note> notes;
+        LongSupplier exactTotal;
 
-        if (tags == null || tags.isEmpty()) {
+        if (!filtered) {
             log.debug("No tags provided, fetching all notes with pagination");
-            notesPage = noteRepository.findAll(pageable);
+            notes = noteRepository.findAllSummaries(pageable);
+            exactTotal = noteRepository::count;
+        } else if (match == TagMatch.ALL) {
+            log.debug("Filtering notes by all of tags: {}", tags);
+            notes = noteRepository.findSummariesByTagsAll(tags, pageable);
+            exactTotal = () -> noteRepository.countByTagsAll(tags);
         } else {
             log.debug("Filtering notes by tags: {}", tags);
-            notesPage = noteRepository.findByTagsIn(tags, pageable);
+            notes = noteRepository.findSummariesByTagsIn(tags, pageable);
+            exactTotal = () -> noteRepository.countByTagsIn(tags);
         }
 
+        LongSupplier approximateTotal = () -> noteTotals.count(tags, match)
+                .orElseGet(filtered ? exactTotal : noteRepository::estimatedCount);
+
+        Page<Note> notesPage = PageableExecutionUtils.getPage(notes, pageable,
+                total == PageTotal.EXACT ? exactTotal : approximateTotal);
+
         log.info("Found {} notes on current page. Total elements in DB: {}",
                 notesPage.getNumberOfElements(), notesPage.getTotalElements());
 
         return notesPage.map(noteMapper::toShortResponseDTO);
     }
 
+    /**
+     * How many of the notes with any or all of {@code tags} carry each tag, answered from {@link NoteTotals},
+     * or from one aggregation until those are loaded.
+     */
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "facets"})
+    public TagFacetsDTO getTagFacets(Set<NoteTag> tags, TagMatch match) {
+        log.info("Request to count tag facets, filtering by {} of tags: {}", match, tags);
+
+        TagCombinationCounts counts = noteTotals.snapshot()
+                .orElseGet(() -> TagCombinationCounts.of(noteRepository.countByTagCombination()));
+
+        return new TagFacetsDTO(tags == null ? Set.of() : tags, match,
+                counts.count(tags, match), counts.facets(tags, match));
+    }
+
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "listAfter"})
+    public NoteCursorPageDTO getNotesAfter(
+            @MeterTag(key = "filtered", resolver = MetricsConfig.NonEmpty.class) Set<NoteTag> tags, TagMatch match,
+            String after, int size) {
+        log.info("Request to get notes after cursor: '{}', size: {}, filtering by {} of tags: {}", after, size, match, tags);
+
+        NoteCursor cursor = (after == null || after.isBlank()) ? null : NoteCursor.decode(after);
+
+        // One extra note tells whether another page exists without counting the collection.
+        List<Note> notes = noteRepository.findListingAfter(tags, match,
+                cursor == null ? null : cursor.createdDate(),
+                cursor == null ? null : cursor.id(),
+                size + 1);
+
+        boolean hasNext = notes.size() > size;
+        if (hasNext) {
+            notes = notes.subList(0, size);
+        }
+
+        String nextCursor = hasNext ? NoteCursor.of(notes.getLast()).encode() : null;
+
+        log.info("Found {} notes after cursor. Has next page: {}", notes.size(), hasNext);
+
+        return new NoteCursorPageDTO(
+                notes.stream().map(noteMapper::toShortResponseDTO).toList(),
+                notes.size(),
+                hasNext,
+                nextCursor);
+    }
+
+    /**
+     * Applies the non-null fields of {@code dto} and moves the note to the next version with a single atomic
+     * {@code findAndModify}, so concurrent updates never overwrite each other. A new text gets its word histogram
+     * computed up front and written with it.
+     * <p>
+     * The note is read back as it was before the update; the updated note follows from it, since the update only
+     * sets known values. Concurrent updates may reach the search index and the totals in another order than MongoDB
+     * applied them, so the totals move the note from the tags of the version the index held, and an update older
+     * than that changes neither.
+     *
+     * @param expectedVersion version the client based the change on, or {@code null} to apply it to the latest version
+     * @throws NoteVersionMismatchException if the note is not at {@code expectedVersion}
+     */
     @Transactional
-    public NoteFullResponseDTO updateNote(String id, NoteRequestDTO dto) {
+    @CacheEvict(cacheNames = {CacheConfig.NOTES, CacheConfig.NOTE_STATISTICS}, key = "#id")
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "update"})
+    public NoteFullResponseDTO updateNote(String id, NoteRequestDTO dto, Long expectedVersion) {
         log.info("Attempting to update note with id: {}", id);
 
-        Note existingNote = noteRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.warn("Update failed: Note with id {} not found", id);
-                    return new NoteNotFoundException("Note not found with id: " + id);
-                });
-
+        Note changes = noteMapper.toEntity(dto);
+        changes.setId(id);
+        // Mongo stores milliseconds, so the returned note carries exactly what was written.
+        changes.setLastModifiedDate(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        if (changes.getText() != null) {
+            log.debug("Text changed, rebuilding word statistics for note id: {}", id);
+            statisticsIndexer.index(changes);
+        }
 
-        log.debug("Original note state: title='{}', tags={}", existingNote.getTitle(), existingNote.getTags());
+        Note note = noteRepository.updateFields(changes, expectedVersion)
+                .orElseThrow(() -> updateFailed(id, expectedVersion));
+        log.debug("Original note state: title='{}', tags={}, version={}", note.getTitle(), note.getTags(), note.getVersion());
 
-        noteMapper.updateEntityFromDto(dto, existingNote);
+        Set<NoteTag> originalTags = note.getTags();
+        noteMapper.updateEntityFromDto(dto, note);
+        if (changes.getText() != null) {
+            note.setWordFrequencies(changes.getWordFrequencies());
+            note.setWordStatsVersion(changes.getWordStatsVersion());
+        }
+        note.setVersion(note.getVersion() + 1);
+        note.setLastModifiedDate(changes.getLastModifiedDate());
 
-        Note updatedNote = noteRepository.save(existingNote);
+        NoteSearchIndex.Indexed indexed = searchIndex.index(note);
+        if (indexed.applied()) {
+            noteTotals.retag(indexed.previousTags() == null ? originalTags : indexed.previousTags(), note.getTags());
+        }
+        singleFlight.forget(id);
+        changeFeed.updated(note);
+        log.info("Successfully updated note with id: {}. New title: '{}'", id, note.getTitle());
+        return noteMapper.toFullResponseDTO(note);
+    }
 
-        log.info("Successfully updated note with id: {}. New title: '{}'", id, updatedNote.getTitle());
+    private RuntimeException updateFailed(String id, Long expectedVersion) {
+        Optional<Note> current = expectedVersion == null ? Optional.empty() : noteRepository.findVersionById(id);
+        if (current.isEmpty()) {
+            log.warn("Update failed: Note with id {} not found", id);
+            return new NoteNotFoundException("Note not found with id: " + id);
+        }
 
-        return noteMapper.toFullResponseDTO(updatedNote);
+        long version = current.get().getVersion();
+        log.warn("Update failed: Note with id {} is at version {}, not {}", id, version, expectedVersion);
+        return new NoteVersionMismatchException("Note " + id + " is at version " + version + ", not " + expectedVersion);
     }
 
+    @Cacheable(cacheNames = CacheConfig.NOTE_STATISTICS, key = "#id", sync = true)
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "stats"})
     public Map<String, Long> getNoteWordFrequencyDescending(String id) {
-        log.info("Calculating word statistics for note id: {}", id);
+        log.info("Fetching word statistics for note id: {}", id);
 
-        Note note = noteRepository.findById(id)
+        return singleFlight.execute("stats", id, () -> loadWordFrequencyDescending(id));
+    }
+
+    private Map<String, Long> loadWordFrequencyDescending(String id) {
+        Note note = noteRepository.findStatisticsById(id)
                 .orElseThrow(() -> {
                     log.warn("Statistics calculation failed: Note with id {} not found", id);
                     return new NoteNotFoundException("Note not found with id: " + id);
                 });
 
-        String text = note.getText();
-        if (text == null || text.isBlank()) {
-            log.info("Note with id {} has no text content. Returning empty statistics.", id);
-            return Collections.emptyMap();
+        List<WordCount> frequencies = note.getWordFrequencies();
+        boolean stale = statisticsIndexer.isStale(note);
+
+        if (stale) {
+            log.debug("Stored statistics for note {} are missing or outdated (version {}), rebuilding",
+                    id, note.getWordStatsVersion());
+            frequencies = rebuildWordStatistics(id);
         }
+        // Ratio of histograms served as stored versus rebuilt from the text.
+        meterRegistry.counter("notes.statistics.histograms", "result", stale ? "rebuilt" : "stored").increment();
 
-        log.debug("Processing text of length: {} characters", text.length());
+        log.info("Statistics served for note {}. Unique words found: {}", id, frequencies.size());
 
-        Map<String, Long> statistics = Arrays.stream(text.toLowerCase()
-                        .split("\\P{L}+"))
-                .filter(word -> !word.isEmpty())
-                .collect(Collectors.groupingBy(word -> word, Collectors.counting()))
-                .entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new
-                ));
+        return statisticsIndexer.toMap(frequencies);
+    }
 
-        log.info("Statistics calculated successfully for note {}. Unique words found: {}", id, statistics.size());
+    private List<WordCount> rebuildWordStatistics(String id) {
+        Note note = noteRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Statistics calculation failed: Note with id {} not found", id);
+                    return new NoteNotFoundException("Note not found with id: " + id);
+                });
 
-        return statistics;
+        List<WordCount> frequencies = statisticsIndexer.compute(note.getText());
+        if (!noteRepository.updateWordStatistics(id, note.getVersion(), frequencies, NoteStatisticsIndexer.CURRENT_VERSION)) {
+            log.debug("Note {} changed while its statistics were rebuilt, not storing them", id);
+        }
+        return frequencies;
     }
 
 }
@@ -0,0 +1,167 @@
+package com.qoqtest.notes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.qoqtest.notes.config.MetricsConfig;
+import com.qoqtest.notes.dto.BatchItemStatus;
+import com.qoqtest.notes.dto.NoteStatisticsDTO;
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.exception.NoteNotFoundException;
+import com.qoqtest.notes.repository.NoteRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Word statistics of many notes at once, written as newline-delimited JSON. The histograms are read from one Mongo
+ * cursor and turned into response lines in parallel on the bounded {@code statisticsPool}. Every line is written as
+ * soon as it is ready, so lines come in completion order, not in the order of the ids.
+ * <p>
+ * Only a few notes per pool thread are read ahead of the writer, so memory use does not depend on the size of
+ * the batch. Stale histograms are rebuilt and stored through {@link NoteService}, like on the single-note endpoint;
+ * as that waits on Mongo, each rebuild gets a virtual thread instead of holding up a pool thread. When the response
+ * cannot be written, the lines still being computed are cancelled.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NoteStatisticsBatchService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int NOTES_AHEAD_PER_THREAD = 4;
+    private static final ThreadFactory REBUILD_THREADS = Thread.ofVirtual().name("note-statistics-rebuild-", 0).factory();
+
+    private final NoteRepository noteRepository;
+    private final NoteService noteService;
+    private final NoteStatisticsIndexer statisticsIndexer;
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool statisticsPool;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Writes one {@link NoteStatisticsDTO} per line for the notes among {@code ids} with any or all of {@code tags};
+     * {@code null} or empty arguments do not filter. Requested ids that match no note get a {@code NOT_FOUND} line
+     * at the end. The stream is flushed but not closed.
+     *
+     * @param selection narrows down the words of every note, see {@link WordStatisticsFilter#selector}
+     * @return number of lines written
+     */
+    @Timed(value = MetricsConfig.OPERATIONS, extraTags = {MetricsConfig.OPERATION, "batchStats"})
+    public long writeStatistics(List<String> ids, Set<NoteTag> tags, TagMatch match,
+                                UnaryOperator<Map<String, Long>> selection, OutputStream out) throws IOException {
+        log.info("Computing word statistics of {} notes, filtering by {} of tags: {}",
+                ids == null ? "all" : ids.size(), match, tags);
+
+        ObjectWriter writer = objectMapper.writerFor(NoteStatisticsDTO.class);
+        BufferedOutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        BlockingQueue<Future<byte[]>> finished = new LinkedBlockingQueue<>();
+        ExecutorService rebuilds = Executors.newThreadPerTaskExecutor(REBUILD_THREADS);
+        CompletionService<byte[]> computed = new ExecutorCompletionService<>(statisticsPool, finished);
+        CompletionService<byte[]> rebuilt = new ExecutorCompletionService<>(rebuilds, finished);
+        Set<Future<byte[]>> pending = new HashSet<>();
+        int maxPending = statisticsPool.getParallelism() * NOTES_AHEAD_PER_THREAD;
+
+        // Only tracked for requested ids, so statistics of a whole tag cost no memory per note.
+        Set<String> found = ids == null || ids.isEmpty() ? null : new HashSet<>();
+        long written = 0;
+
+        try (Stream<Note> notes = noteRepository.streamStatistics(ids, tags, match)) {
+            Iterator<Note> iterator = notes.iterator();
+            while (iterator.hasNext()) {
+                Note note = iterator.next();
+                if (found != null) {
+                    found.add(note.getId());
+                }
+                CompletionService<byte[]> lines = statisticsIndexer.isStale(note) ? rebuilt : computed;
+                pending.add(lines.submit(() -> line(writer, note, selection)));
+
+                if (pending.size() == maxPending) {
+                    write(buffered, next(finished, pending, buffered));
+                    written++;
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(buffered, next(finished, pending, buffered));
+                written++;
+            }
+        } finally {
+            // Only left over when the response failed; nobody will read these lines, so running ones are interrupted.
+            pending.forEach(line -> line.cancel(true));
+            rebuilds.shutdownNow();
+        }
+
+        if (found != null) {
+            for (String id : new LinkedHashSet<>(ids)) {
+                if (!found.contains(id)) {
+                    write(buffered, writer.writeValueAsBytes(new NoteStatisticsDTO(id, BatchItemStatus.NOT_FOUND)));
+                    written++;
+                }
+            }
+        }
+        buffered.flush();
+
+        log.info("Wrote word statistics of {} notes", written);
+        return written;
+    }
+
+    private byte[] line(ObjectWriter writer, Note note, UnaryOperator<Map<String, Long>> selection) throws IOException {
+        String id = note.getId();
+        NoteStatisticsDTO statistics;
+        try {
+            Map<String, Long> frequencies;
+            if (statisticsIndexer.isStale(note)) {
+                frequencies = noteService.getNoteWordFrequencyDescending(id);
+            } else {
+                meterRegistry.counter("notes.statistics.histograms", "result", "stored").increment();
+                frequencies = statisticsIndexer.toMap(note.getWordFrequencies());
+            }
+            statistics = new NoteStatisticsDTO(id, selection.apply(frequencies));
+        } catch (NoteNotFoundException e) {
+            // Deleted while its histogram was being rebuilt.
+            statistics = new NoteStatisticsDTO(id, BatchItemStatus.NOT_FOUND);
+        } catch (RuntimeException e) {
+            log.error("Word statistics of note {} failed", id, e);
+            statistics = new NoteStatisticsDTO(id, BatchItemStatus.FAILED);
+        }
+        return writer.writeValueAsBytes(statistics);
+    }
+
+    /**
+     * The next finished line; the lines written so far are flushed before waiting for it.
+     */
+    private static byte[] next(BlockingQueue<Future<byte[]>> finished, Set<Future<byte[]>> pending,
+                               OutputStream buffered) throws IOException {
+        try {
+            Future<byte[]> line = finished.poll();
+            if (line == null) {
+                buffered.flush();
+                line = finished.take();
+            }
+            pending.remove(line);
+            return line.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while computing word statistics");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Word statistics line could not be written", e.getCause());
+        }
+    }
+
+    private static void write(OutputStream out, byte[] line) throws IOException {
+        out.write(line);
+        out.write('\n');
+    }
+}
@@ -0,0 +1,47 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.WordCount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Builds the word histogram stored on every {@link Note}.
+ * Bump {@link #CURRENT_VERSION} whenever the tokenization rules change so existing histograms get rebuilt.
+ */
+@Component
+@RequiredArgsConstructor
+public class NoteStatisticsIndexer {
+
+    public static final int CURRENT_VERSION = 2;
+
+    private final WordCounter wordCounter;
+
+    public void index(Note note) {
+        note.setWordFrequencies(compute(note.getText()));
+        note.setWordStatsVersion(CURRENT_VERSION);
+    }
+
+    public boolean isStale(Note note) {
+        return note.getWordFrequencies() == null
+                || !Objects.equals(note.getWordStatsVersion(), CURRENT_VERSION);
+    }
+
+    public List<WordCount> compute(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+
+        return wordCounter.countDescending(text);
+    }
+
+    public Map<String, Long> toMap(List<WordCount> frequencies) {
+        Map<String, Long> statistics = new LinkedHashMap<>(Math.max(16, frequencies.size() * 4 / 3 + 1));
+        for (WordCount wordCount : frequencies) {
+            statistics.put(wordCount.word(), wordCount.count());
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,87 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.entity.NoteTag;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Number of notes per combination of tags, so the note listing can report its total and the tag facets without
+ * a count query.
+ * <p>
+ * Slot {@code m} counts the notes whose tags form the mask {@code m} of {@link NoteTag#mask}; see
+ * {@link TagCombinationCounts}. The counts are loaded from MongoDB periodically and adjusted on every write of
+ * this instance in between; writes of other instances and writes racing with a load only show up after the next
+ * load, which makes them approximate.
+ * <p>
+ * Updates and deletes move a note away from the tags it has in the {@link NoteSearchIndex}, and updates the index
+ * ignores as outdated are skipped, so concurrent updates that arrive out of order leave the tags of the newest one.
+ */
+@Component
+public class NoteTotals {
+
+    private final AtomicLongArray counts = new AtomicLongArray(TagCombinationCounts.COMBINATIONS);
+    private volatile boolean loaded;
+
+    /**
+     * @return the current counts, or empty until they are first loaded
+     */
+    public Optional<TagCombinationCounts> snapshot() {
+        if (!loaded) {
+            return Optional.empty();
+        }
+
+        long[] snapshot = new long[TagCombinationCounts.COMBINATIONS];
+        for (int combination = 0; combination < snapshot.length; combination++) {
+            snapshot[combination] = counts.get(combination);
+        }
+        return Optional.of(new TagCombinationCounts(snapshot));
+    }
+
+    /**
+     * @return the number of notes matching {@code tags}, or of all notes if none are given;
+     *         empty until the counts are first loaded
+     */
+    public OptionalLong count(Set<NoteTag> tags, TagMatch match) {
+        return snapshot().map(snapshot -> OptionalLong.of(snapshot.count(tags, match))).orElseGet(OptionalLong::empty);
+    }
+
+    /**
+     * Replaces all counts.
+     *
+     * @param countsByTags number of notes by their exact set of tags; an empty set stands for untagged notes
+     */
+    public void load(Map<Set<NoteTag>, Long> countsByTags) {
+        long[] fresh = new long[TagCombinationCounts.COMBINATIONS];
+        countsByTags.forEach((tags, count) -> fresh[NoteTag.mask(tags)] += count);
+
+        for (int combination = 0; combination < fresh.length; combination++) {
+            counts.set(combination, fresh[combination]);
+        }
+        loaded = true;
+    }
+
+    public void add(Set<NoteTag> tags) {
+        counts.incrementAndGet(NoteTag.mask(tags));
+    }
+
+    public void remove(Set<NoteTag> tags) {
+        counts.decrementAndGet(NoteTag.mask(tags));
+    }
+
+    public void retag(Set<NoteTag> from, Set<NoteTag> to) {
+        move(NoteTag.mask(from), NoteTag.mask(to));
+    }
+
+    private void move(int from, int to) {
+        if (from != to) {
+            counts.decrementAndGet(from);
+            counts.incrementAndGet(to);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.qoqtest.notes.service;
+
+import java.time.Instant;
+
+/**
+ * Version and time of the last change of a note, what its ETag and Last-Modified headers are made of.
+ */
+public record NoteVersion(long version, Instant lastModified) {
+}
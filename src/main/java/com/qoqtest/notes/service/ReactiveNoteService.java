@@ -0,0 +1,202 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.dto.NoteCursorPageDTO;
+import com.qoqtest.notes.dto.NoteFullResponseDTO;
+import com.qoqtest.notes.dto.NoteRequestDTO;
+import com.qoqtest.notes.dto.NoteShortResponseDTO;
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+import com.qoqtest.notes.exception.NoteNotFoundException;
+import com.qoqtest.notes.exception.NoteVersionMismatchException;
+import com.qoqtest.notes.mapper.NoteMapper;
+import com.qoqtest.notes.repository.ReactiveNoteRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Non-blocking counterpart of {@link NoteService} for the {@code reactive} profile. Notes are stored, versioned and
+ * updated the same way, including the {@code expectedVersion} check of {@link #updateNote}. Nothing is cached, and
+ * writes only go to MongoDB: the in-memory {@link NoteSearchIndex}, {@link CorpusWordStatistics}, {@link NoteTotals}
+ * and {@link NoteChangeFeed} are not kept up to date, as the endpoints they serve are only on the servlet stack.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveNoteService {
+
+    private static final Sort NEWEST_FIRST = Sort.by("createdDate").descending();
+
+    private final ReactiveNoteRepository noteRepository;
+    private final NoteMapper noteMapper;
+    private final NoteStatisticsIndexer statisticsIndexer;
+
+    public Mono<NoteFullResponseDTO> createNote(NoteRequestDTO dto) {
+        log.debug("Creating a new note with title: {}", dto.title());
+        Note note = noteMapper.toEntity(dto);
+        statisticsIndexer.index(note);
+
+        return noteRepository.save(note)
+                .doOnNext(saved -> log.info("Created new note with title: {}", dto.title()))
+                .map(noteMapper::toFullResponseDTO);
+    }
+
+    public Mono<Void> deleteNote(String id) {
+        log.info("Attempting to delete note with id: {}", id);
+
+        return noteRepository.deleteById(id)
+                .doOnSuccess(ignored -> log.info("Successfully deleted note with id: {}", id));
+    }
+
+    public Mono<NoteFullResponseDTO> getNoteById(String id) {
+        log.info("Fetching note with id: {}", id);
+
+        return noteRepository.findById(id)
+                .switchIfEmpty(notFound(id))
+                .map(noteMapper::toFullResponseDTO);
+    }
+
+    public Mono<Page<NoteShortResponseDTO>> getAllNotes(Set<NoteTag> tags, TagMatch match, int page, int size) {
+        log.info("Request to get notes page: {}, size: {}, filtering by {} of tags: {}", page, size, match, tags);
+
+        Pageable pageable = PageRequest.of(page, size, NEWEST_FIRST);
+
+        Mono<List<Note>> content;
+        Mono<Long> total;
+
+        if (tags == null || tags.isEmpty()) {
+            content = noteRepository.findAllSummaries(pageable).collectList();
+            total = noteRepository.count();
+        } else if (match == TagMatch.ALL) {
+            content = noteRepository.findSummariesByTagsAll(tags, pageable).collectList();
+            total = noteRepository.countByTagsAll(tags);
+        } else {
+            content = noteRepository.findSummariesByTagsIn(tags, pageable).collectList();
+            total = noteRepository.countByTagsIn(tags);
+        }
+
+        return Mono.zip(content, total)
+                .map(result -> new PageImpl<>(result.getT1(), pageable, result.getT2())
+                        .map(noteMapper::toShortResponseDTO));
+    }
+
+    /**
+     * Every note summary, newest first, emitted as Mongo returns it and at the pace the subscriber requests.
+     */
+    public Flux<NoteShortResponseDTO> streamNotes(Set<NoteTag> tags, TagMatch match) {
+        log.info("Request to stream notes, filtering by {} of tags: {}", match, tags);
+
+        Flux<Note> notes;
+        if (tags == null || tags.isEmpty()) {
+            notes = noteRepository.streamAllSummaries(NEWEST_FIRST);
+        } else if (match == TagMatch.ALL) {
+            notes = noteRepository.streamSummariesByTagsAll(tags, NEWEST_FIRST);
+        } else {
+            notes = noteRepository.streamSummariesByTagsIn(tags, NEWEST_FIRST);
+        }
+
+        return notes.map(noteMapper::toShortResponseDTO);
+    }
+
+    public Mono<NoteCursorPageDTO> getNotesAfter(Set<NoteTag> tags, TagMatch match, String after, int size) {
+        log.info("Request to get notes after cursor: '{}', size: {}, filtering by {} of tags: {}", after, size, match, tags);
+
+        return Mono.fromCallable(() -> (after == null || after.isBlank()) ? NoteCursor.START : NoteCursor.decode(after))
+                .flatMap(cursor -> noteRepository.findListingAfter(tags, match, cursor.createdDate(), cursor.id(), size + 1)
+                        .collectList())
+                .map(notes -> {
+                    // One extra note tells whether another page exists without counting the collection.
+                    boolean hasNext = notes.size() > size;
+                    List<Note> page = hasNext ? notes.subList(0, size) : notes;
+                    String nextCursor = hasNext ? NoteCursor.of(page.getLast()).encode() : null;
+
+                    return new NoteCursorPageDTO(
+                            page.stream().map(noteMapper::toShortResponseDTO).toList(),
+                            page.size(),
+                            hasNext,
+                            nextCursor);
+                });
+    }
+
+    /**
+     * @param expectedVersion version the note must be at, or {@code null} to update the latest version
+     */
+    public Mono<NoteFullResponseDTO> updateNote(String id, NoteRequestDTO dto, Long expectedVersion) {
+        log.info("Attempting to update note with id: {}", id);
+
+        Note changes = noteMapper.toEntity(dto);
+        changes.setId(id);
+        changes.setLastModifiedDate(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        if (changes.getText() != null) {
+            log.debug("Text changed, rebuilding word statistics for note id: {}", id);
+            statisticsIndexer.index(changes);
+        }
+
+        return noteRepository.updateFields(changes, expectedVersion)
+                .switchIfEmpty(updateFailed(id, expectedVersion))
+                .doOnNext(updated -> log.info("Successfully updated note with id: {}. New title: '{}'", id, updated.getTitle()))
+                .map(noteMapper::toFullResponseDTO);
+    }
+
+    public Mono<Map<String, Long>> getNoteWordFrequencyDescending(String id) {
+        log.info("Fetching word statistics for note id: {}", id);
+
+        return noteRepository.findStatisticsById(id)
+                .switchIfEmpty(notFound(id))
+                .flatMap(note -> {
+                    if (!statisticsIndexer.isStale(note)) {
+                        return Mono.just(note.getWordFrequencies());
+                    }
+
+                    log.debug("Stored statistics for note {} are missing or outdated (version {}), rebuilding",
+                            id, note.getWordStatsVersion());
+                    return noteRepository.findById(id)
+                            .switchIfEmpty(notFound(id))
+                            .flatMap(full -> {
+                                List<WordCount> frequencies = statisticsIndexer.compute(full.getText());
+                                return noteRepository.updateWordStatistics(id, full.getVersion(), frequencies,
+                                                NoteStatisticsIndexer.CURRENT_VERSION)
+                                        .thenReturn(frequencies);
+                            });
+                })
+                .map(statisticsIndexer::toMap);
+    }
+
+    private <T> Mono<T> updateFailed(String id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return notFound(id);
+        }
+
+        return noteRepository.findVersionById(id)
+                .switchIfEmpty(notFound(id))
+                .flatMap(current -> {
+                    log.warn("Update failed: Note with id {} is at version {}, not {}", id, current.getVersion(), expectedVersion);
+                    return Mono.error(new NoteVersionMismatchException(
+                            "Note " + id + " is at version " + current.getVersion() + ", not " + expectedVersion));
+                });
+    }
+
+    private static <T> Mono<T> notFound(String id) {
+        return Mono.defer(() -> {
+            log.warn("Note not found with id: {}", id);
+            return Mono.error(new NoteNotFoundException("Note not found with id: " + id));
+        });
+    }
+}
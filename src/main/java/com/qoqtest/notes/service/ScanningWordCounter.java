@@ -0,0 +1,200 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.entity.WordCount;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Single-pass {@link WordCounter} that scans code points of the original string instead of building
+ * a lowercase copy, a regex split array and boxed maps. Lowercased words are appended to a pooled
+ * char buffer and counted in an open-addressing table of primitive ints, so the only allocations per
+ * call are the returned list and one {@link String} per unique word.
+ * <p>
+ * Buffers are pooled rather than held in a {@code ThreadLocal}: with virtual threads every request runs
+ * on a fresh thread, so a thread-local buffer would be allocated per call and never reused.
+ * <p>
+ * Lowercasing is done per code point, so the locale- and context-sensitive rules of
+ * {@link String#toLowerCase()} (final sigma, dotted capital I) do not apply.
+ */
+@Component
+public class ScanningWordCounter implements WordCounter {
+
+    /** Scratch buffers grown beyond this many chars are not kept for reuse. */
+    private static final int MAX_RETAINED_CHARS = 1 << 16;
+
+    /** Enough idle buffers for every core to count concurrently without allocating. */
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final BlockingQueue<Scratch> scratchPool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    @Override
+    public List<WordCount> countDescending(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Scratch scratch = scratchPool.poll();
+        if (scratch == null) {
+            scratch = new Scratch();
+        }
+        scratch.reset();
+        try {
+            scan(text, scratch);
+            return scratch.sortedResult();
+        } finally {
+            if (scratch.chars.length <= MAX_RETAINED_CHARS) {
+                scratchPool.offer(scratch);
+            }
+        }
+    }
+
+    private static void scan(String text, Scratch scratch) {
+        int length = text.length();
+        int i = 0;
+
+        while (i < length) {
+            int codePoint = text.codePointAt(i);
+            if (!Character.isLetter(codePoint)) {
+                i += Character.charCount(codePoint);
+                continue;
+            }
+
+            int wordStart = scratch.charCount;
+            int hash = 0;
+            while (i < length) {
+                codePoint = text.codePointAt(i);
+                if (!Character.isLetter(codePoint)) {
+                    break;
+                }
+                i += Character.charCount(codePoint);
+
+                int lower = Character.toLowerCase(codePoint);
+                if (Character.isBmpCodePoint(lower)) {
+                    scratch.append((char) lower);
+                    hash = 31 * hash + lower;
+                } else {
+                    char high = Character.highSurrogate(lower);
+                    char low = Character.lowSurrogate(lower);
+                    scratch.append(high);
+                    scratch.append(low);
+                    hash = 31 * (31 * hash + high) + low;
+                }
+            }
+
+            scratch.count(wordStart, scratch.charCount - wordStart, hash);
+        }
+    }
+
+    private static final class Scratch {
+
+        private char[] chars = new char[1024];
+        private int charCount;
+
+        private int[] wordStart = new int[256];
+        private int[] wordLength = new int[256];
+        private int[] wordHash = new int[256];
+        private int[] wordCount = new int[256];
+        private int words;
+
+        /** Open-addressing table of word index + 1; zero marks an empty slot. */
+        private int[] table = new int[512];
+
+        private long[] order = new long[256];
+
+        void reset() {
+            charCount = 0;
+            words = 0;
+            Arrays.fill(table, 0);
+        }
+
+        void append(char c) {
+            if (charCount == chars.length) {
+                chars = Arrays.copyOf(chars, chars.length * 2);
+            }
+            chars[charCount++] = c;
+        }
+
+        /**
+         * Counts the word just appended at {@code [start, start + length)}. A repeated word is
+         * removed from the char buffer again, so the buffer only ever holds unique words.
+         */
+        void count(int start, int length, int hash) {
+            int mask = table.length - 1;
+            int slot = mix(hash) & mask;
+
+            while (table[slot] != 0) {
+                int word = table[slot] - 1;
+                if (wordHash[word] == hash && wordLength[word] == length
+                        && Arrays.equals(chars, wordStart[word], wordStart[word] + length,
+                        chars, start, start + length)) {
+                    wordCount[word]++;
+                    charCount = start;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            if (words == wordStart.length) {
+                int capacity = words * 2;
+                wordStart = Arrays.copyOf(wordStart, capacity);
+                wordLength = Arrays.copyOf(wordLength, capacity);
+                wordHash = Arrays.copyOf(wordHash, capacity);
+                wordCount = Arrays.copyOf(wordCount, capacity);
+            }
+
+            wordStart[words] = start;
+            wordLength[words] = length;
+            wordHash[words] = hash;
+            wordCount[words] = 1;
+            table[slot] = ++words;
+
+            if (words * 2 > table.length) {
+                rehash(table.length * 2);
+            }
+        }
+
+        private void rehash(int capacity) {
+            table = new int[capacity];
+            int mask = capacity - 1;
+            for (int word = 0; word < words; word++) {
+                int slot = mix(wordHash[word]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = word + 1;
+            }
+        }
+
+        List<WordCount> sortedResult() {
+            if (words == 0) {
+                return Collections.emptyList();
+            }
+
+            if (order.length < words) {
+                order = new long[wordStart.length];
+            }
+            // High half orders by count descending, low half keeps first-appearance order for ties.
+            for (int word = 0; word < words; word++) {
+                order[word] = ((long) (Integer.MAX_VALUE - wordCount[word]) << 32) | word;
+            }
+            Arrays.sort(order, 0, words);
+
+            List<WordCount> result = new ArrayList<>(words);
+            for (int i = 0; i < words; i++) {
+                int word = (int) order[i];
+                result.add(new WordCount(new String(chars, wordStart[word], wordLength[word]), wordCount[word]));
+            }
+            return result;
+        }
+
+        private static int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.qoqtest.notes.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent reads of the same note: while one call for an operation and note id is running, further calls
+ * for them wait for its result instead of querying MongoDB again. Unlike the note cache, nothing is kept once the
+ * call finishes, so this also covers uncached reads and {@code spring.cache.type=none}.
+ * <p>
+ * A waiting call gives up after {@code notes.single-flight.timeout} and runs the read itself, so a stuck call never
+ * holds up the others for longer than that. Writes {@link #forget} the note, so a read that starts after a write
+ * never gets the result of a read that started before it.
+ * <p>
+ * Calls are counted in {@code notes.single-flight.calls}, tagged with the operation and whether the call
+ * {@code executed}, was {@code coalesced} or {@code timed_out}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SingleFlight {
+
+    private final MeterRegistry meterRegistry;
+
+    // Running calls by note id and operation, so forgetting a note is one removal. The inner maps are only
+    // touched inside compute calls of the outer one, which lock the note's entry.
+    private final ConcurrentHashMap<String, Map<String, CompletableFuture<Object>>> calls = new ConcurrentHashMap<>();
+
+    @Value("${notes.single-flight.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${notes.single-flight.timeout:5s}")
+    private Duration timeout = Duration.ofSeconds(5);
+
+    /**
+     * Runs {@code call}, or waits for the one already running for the same operation and id and returns its result
+     * or rethrows its exception.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, String id, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> running = attach(id, operation, own);
+
+        if (running == null) {
+            count(operation, "executed");
+            T result;
+            try {
+                result = call.get();
+            } catch (RuntimeException | Error e) {
+                detach(id, operation, own);
+                own.completeExceptionally(e);
+                throw e;
+            }
+            // Detached first, so calls that start once the result exists read the note again.
+            detach(id, operation, own);
+            own.complete(result);
+            return result;
+        }
+
+        try {
+            T result = (T) running.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            count(operation, "coalesced");
+            return result;
+        } catch (TimeoutException e) {
+            log.warn("Waited {} ms for a concurrent {} of note {}, reading it directly", timeout.toMillis(), operation, id);
+            count(operation, "timed_out");
+            return call.get();
+        } catch (ExecutionException e) {
+            count(operation, "coalesced");
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a concurrent " + operation + " of note " + id, e);
+        }
+    }
+
+    /**
+     * Detaches the running calls for the note, so later calls read it again. Calls already waiting still get
+     * their results.
+     */
+    public void forget(String id) {
+        calls.remove(id);
+    }
+
+    /**
+     * Registers {@code own} as the running call, unless there already is one, which is returned instead.
+     */
+    private CompletableFuture<Object> attach(String id, String operation, CompletableFuture<Object> own) {
+        AtomicReference<CompletableFuture<Object>> running = new AtomicReference<>();
+        calls.compute(id, (key, noteCalls) -> {
+            Map<String, CompletableFuture<Object>> current = noteCalls == null ? new HashMap<>(4) : noteCalls;
+            running.set(current.putIfAbsent(operation, own));
+            return current;
+        });
+        return running.get();
+    }
+
+    private void detach(String id, String operation, CompletableFuture<Object> own) {
+        calls.computeIfPresent(id, (key, noteCalls) -> {
+            noteCalls.remove(operation, own);
+            return noteCalls.isEmpty() ? null : noteCalls;
+        });
+    }
+
+    private void count(String operation, String result) {
+        meterRegistry.counter("notes.single-flight.calls", "operation", operation, "result", result).increment();
+    }
+}
@@ -0,0 +1,79 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.entity.NoteTag;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Number of notes per combination of tags, indexed by the {@link NoteTag#mask} of the combination. Every count over
+ * tags, for any filter, is a sum over these few slots, so none needs a query.
+ */
+public final class TagCombinationCounts {
+
+    static final int COMBINATIONS = 1 << NoteTag.values().length;
+
+    private final long[] counts;
+
+    TagCombinationCounts(long[] counts) {
+        this.counts = counts;
+    }
+
+    /**
+     * @param countsByTags number of notes by their exact set of tags; an empty set stands for untagged notes
+     */
+    public static TagCombinationCounts of(Map<Set<NoteTag>, Long> countsByTags) {
+        long[] counts = new long[COMBINATIONS];
+        countsByTags.forEach((tags, count) -> counts[NoteTag.mask(tags)] += count);
+        return new TagCombinationCounts(counts);
+    }
+
+    /**
+     * @return the number of notes matching {@code tags}, or of all notes if none are given
+     */
+    public long count(Set<NoteTag> tags, TagMatch match) {
+        int filter = NoteTag.mask(tags);
+        long total = 0;
+        for (int combination = 0; combination < COMBINATIONS; combination++) {
+            if (matches(combination, filter, match)) {
+                total += counts[combination];
+            }
+        }
+        return Math.max(total, 0);
+    }
+
+    /**
+     * @return for every tag, in declaration order, the number of notes matching {@code tags} that also have it
+     */
+    public Map<NoteTag, Long> facets(Set<NoteTag> tags, TagMatch match) {
+        int filter = NoteTag.mask(tags);
+        long[] perTag = new long[NoteTag.values().length];
+
+        for (int combination = 0; combination < COMBINATIONS; combination++) {
+            if (matches(combination, filter, match)) {
+                for (NoteTag tag : NoteTag.values()) {
+                    if ((combination & (1 << tag.ordinal())) != 0) {
+                        perTag[tag.ordinal()] += counts[combination];
+                    }
+                }
+            }
+        }
+
+        Map<NoteTag, Long> facets = new EnumMap<>(NoteTag.class);
+        for (NoteTag tag : NoteTag.values()) {
+            facets.put(tag, Math.max(perTag[tag.ordinal()], 0));
+        }
+        return facets;
+    }
+
+    /**
+     * Whether notes tagged with {@code combination} pass the filter; an empty filter passes every note.
+     */
+    static boolean matches(int combination, int filter, TagMatch match) {
+        return filter == 0 || (match == TagMatch.ALL
+                ? (combination & filter) == filter
+                : (combination & filter) != 0);
+    }
+}
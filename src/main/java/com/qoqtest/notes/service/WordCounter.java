@@ -0,0 +1,18 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.entity.WordCount;
+
+import java.util.List;
+
+/**
+ * Tokenizes note text into words and counts them.
+ * A word is a maximal run of Unicode letters ({@code \p{L}}), compared case-insensitively.
+ */
+public interface WordCounter {
+
+    /**
+     * @return unique lowercase words sorted by count descending; words with equal counts keep
+     * the order of their first appearance in the text
+     */
+    List<WordCount> countDescending(String text);
+}
@@ -0,0 +1,77 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.config.StatisticsProperties;
+import com.qoqtest.notes.exception.UnsupportedLanguageException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Narrows the word statistics of a note down to what the client asked for.
+ * <p>
+ * Histograms are stored sorted by count descending, so the top words are a prefix of them: selection walks
+ * the histogram from the front and stops after {@code limit} words or at the first word below
+ * {@code minCount}. Cost and response size follow the requested words, not the words of the note.
+ */
+@Component
+@RequiredArgsConstructor
+public class WordStatisticsFilter {
+
+    private final StatisticsProperties properties;
+
+    /**
+     * @param frequencies word counts sorted descending, as returned by the stats endpoint
+     * @param limit       maximum number of words, or {@code null} for all
+     * @param minCount    minimum count of a returned word
+     * @param language    language whose configured stop words are left out, or {@code null} to keep all words
+     * @throws UnsupportedLanguageException if no stop words are configured for {@code language}
+     */
+    public Map<String, Long> select(Map<String, Long> frequencies, Integer limit, long minCount, String language) {
+        return select(frequencies, limit, minCount, stopWords(language));
+    }
+
+    /**
+     * The same selection for many notes, with the stop words looked up once.
+     *
+     * @throws UnsupportedLanguageException if no stop words are configured for {@code language}
+     */
+    public UnaryOperator<Map<String, Long>> selector(Integer limit, long minCount, String language) {
+        Set<String> stopWords = stopWords(language);
+        return frequencies -> select(frequencies, limit, minCount, stopWords);
+    }
+
+    private static Map<String, Long> select(Map<String, Long> frequencies, Integer limit, long minCount, Set<String> stopWords) {
+        if (limit == null && minCount <= 1 && stopWords.isEmpty()) {
+            return frequencies;
+        }
+
+        int max = limit == null ? Integer.MAX_VALUE : Math.max(0, limit);
+        Map<String, Long> selected = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : frequencies.entrySet()) {
+            if (selected.size() == max || entry.getValue() < minCount) {
+                break;
+            }
+            if (!stopWords.contains(entry.getKey())) {
+                selected.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return selected;
+    }
+
+    private Set<String> stopWords(String language) {
+        if (language == null || language.isBlank()) {
+            return Set.of();
+        }
+
+        Set<String> stopWords = properties.stopWords().get(language.toLowerCase(Locale.ROOT));
+        if (stopWords == null) {
+            throw new UnsupportedLanguageException("No stop words configured for language: " + language);
+        }
+        return stopWords;
+    }
+}
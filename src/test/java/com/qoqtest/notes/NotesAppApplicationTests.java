@@ -3,7 +3,11 @@ package com.qoqtest.notes;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+		"notes.statistics.backfill.enabled=false",
+		"notes.indexes.enabled=false",
+		"notes.search.enabled=false"
+})
 class NotesAppApplicationTests {
 
 	@Test
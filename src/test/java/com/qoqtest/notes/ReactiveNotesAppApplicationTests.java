@@ -0,0 +1,31 @@
+package com.qoqtest.notes;
+
+import com.qoqtest.notes.controller.NoteController;
+import com.qoqtest.notes.controller.ReactiveNoteController;
+import com.qoqtest.notes.repository.ReactiveNoteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+		"notes.statistics.backfill.enabled=false",
+		"notes.indexes.enabled=false"
+})
+@ActiveProfiles("reactive")
+class ReactiveNotesAppApplicationTests {
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Test
+	void contextLoadsReactiveStack() {
+		assertThat(context.getBeanNamesForType(ReactiveNoteController.class)).hasSize(1);
+		assertThat(context.getBeanNamesForType(ReactiveNoteRepository.class)).hasSize(1);
+		assertThat(context.getBeanNamesForType(NoteController.class)).isEmpty();
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.qoqtest.notes.config;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.qoqtest.notes.entity.Note;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class NoteIndexInitializerTest {
+
+    @Test
+    @DisplayName("Should accept an index scan that already returns documents in sort order")
+    void findBlockingStages_IndexScan_ReturnsEmpty() {
+        Document explain = explainOf(new Document("stage", "LIMIT")
+                .append("inputStage", new Document("stage", "FETCH")
+                        .append("inputStage", new Document("stage", "IXSCAN")
+                                .append("indexName", "createdDate_id"))));
+
+        assertThat(NoteIndexInitializer.findBlockingStages(explain)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should flag a collection scan followed by an in-memory sort")
+    void findBlockingStages_CollectionScan_ReturnsCollscanAndSort() {
+        Document explain = explainOf(new Document("stage", "SORT")
+                .append("inputStage", new Document("stage", "COLLSCAN")));
+
+        assertThat(NoteIndexInitializer.findBlockingStages(explain)).containsExactly("COLLSCAN", "SORT");
+    }
+
+    @Test
+    @DisplayName("Should look into every branch of a merged plan")
+    void findBlockingStages_SortMerge_InspectsAllInputStages() {
+        Document explain = explainOf(new Document("stage", "SORT_MERGE")
+                .append("inputStages", List.of(
+                        new Document("stage", "IXSCAN"),
+                        new Document("stage", "COLLSCAN"))));
+
+        assertThat(NoteIndexInitializer.findBlockingStages(explain)).containsExactly("COLLSCAN");
+    }
+
+    @Test
+    @DisplayName("Should explain the keyset listing with the query the repository runs")
+    @SuppressWarnings("unchecked")
+    void verifyQueryPlans_KeysetListing_ExplainsOrOnSortKey() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        FindIterable<Document> find = mock(FindIterable.class, RETURNS_SELF);
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.getCollectionName(Note.class)).thenReturn("notes");
+        when(mongoTemplate.getCollection("notes")).thenReturn(collection);
+        when(collection.find(any(Bson.class))).thenReturn(find);
+        when(find.explain()).thenReturn(explainOf(new Document("stage", "IXSCAN")));
+
+        new NoteIndexInitializer(mongoTemplate).verifyQueryPlans();
+
+        ArgumentCaptor<Bson> filters = ArgumentCaptor.forClass(Bson.class);
+        verify(collection, times(6)).find(filters.capture());
+        Document keyset = (Document) filters.getAllValues().get(3);
+        List<Document> branches = keyset.getList("$or", Document.class);
+        assertThat(branches).hasSize(2);
+        assertThat(branches.get(0).get("createdDate", Document.class).get("$lt")).isInstanceOf(Date.class);
+        assertThat(branches.get(1).get("_id", Document.class).get("$lt")).isInstanceOf(ObjectId.class);
+        assertThat(((Document) filters.getAllValues().get(5)).get("tags", Document.class)).containsKey("$all");
+        verify(find, times(6)).limit(10);
+    }
+
+    private static Document explainOf(Document winningPlan) {
+        return new Document("queryPlanner", new Document("winningPlan", winningPlan));
+    }
+}
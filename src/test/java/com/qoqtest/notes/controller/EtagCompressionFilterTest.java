@@ -0,0 +1,113 @@
+package com.qoqtest.notes.controller;
+
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EtagCompressionFilterTest {
+
+    private static final String BODY = "{\"text\":\"" + "note text ".repeat(200) + "\"}";
+
+    private final EtagCompressionFilter filter = new EtagCompressionFilter();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "minResponseSize", DataSize.ofKilobytes(1));
+        ReflectionTestUtils.setField(filter, "mimeTypes", List.of(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    @DisplayName("Should gzip a response with a strong ETag under an ETag of its own")
+    void strongEtag_GzipAccepted_CompressesAndSuffixesEtag() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes/1");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> write(res, "\"3\"", BODY));
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"3-gzip\"");
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getContentAsByteArray().length).isLessThan(BODY.length() / 4);
+        assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(BODY);
+    }
+
+    @Test
+    @DisplayName("Should leave the response as is when gzip is refused")
+    void strongEtag_GzipRefused_KeepsIdentity() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes/1");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> write(res, "\"3\"", BODY));
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"3\"");
+        assertThat(response.getContentAsString()).isEqualTo(BODY);
+    }
+
+    @Test
+    @DisplayName("Should show the plain ETag to the controllers and confirm the gzip one on 304")
+    void conditionalRequest_GzipEtag_UnsuffixedForControllers() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes/1");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"3-gzip\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> {
+            seen.set(((HttpServletRequest) req).getHeader(HttpHeaders.IF_NONE_MATCH));
+            ((HttpServletResponse) res).setStatus(304);
+            ((HttpServletResponse) res).setHeader(HttpHeaders.ETAG, "\"3\"");
+        });
+
+        assertThat(seen.get()).isEqualTo("\"3\"");
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"3-gzip\"");
+    }
+
+    @Test
+    @DisplayName("Should not filter the streamed export")
+    void export_NotFiltered() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes/export");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<Object> passed = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> passed.set(res));
+
+        assertThat(passed.get()).isSameAs(response);
+    }
+
+    private static void write(ServletResponse response, String etag, String body) throws IOException {
+        HttpServletResponse http = (HttpServletResponse) response;
+        http.setHeader(HttpHeaders.ETAG, etag);
+        http.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        http.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String gunzip(byte[] zipped) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(zipped))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,30 +1,93 @@
 package com.qoqtest.notes.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.qoqtest.notes.config.StatisticsProperties;
+import com.qoqtest.notes.config.WireFormatConfig;
+import com.qoqtest.notes.dto.TagFacetsDTO;
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.dto.BatchItemStatus;
+import com.qoqtest.notes.dto.CorpusStatisticsDTO;
+import com.qoqtest.notes.dto.NoteBatchItemResultDTO;
+import com.qoqtest.notes.dto.NoteBatchResultDTO;
+import com.qoqtest.notes.dto.NoteChangeDTO;
+import com.qoqtest.notes.dto.NoteChangeOperation;
+import com.qoqtest.notes.dto.NoteCursorPageDTO;
 import com.qoqtest.notes.dto.NoteFullResponseDTO;
+import com.qoqtest.notes.dto.NoteImportResultDTO;
 import com.qoqtest.notes.dto.NoteRequestDTO;
+import com.qoqtest.notes.dto.NoteSearchHitDTO;
+import com.qoqtest.notes.dto.NoteShortResponseDTO;
+import com.qoqtest.notes.dto.PageTotal;
+import com.qoqtest.notes.dto.SearchOperator;
+import com.qoqtest.notes.dto.SearchOrder;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.service.CorpusStatisticsService;
+import com.qoqtest.notes.service.NoteBatchService;
+import com.qoqtest.notes.service.NoteChangeEvent;
+import com.qoqtest.notes.service.NoteChangeFeed;
+import com.qoqtest.notes.service.NoteExportService;
+import com.qoqtest.notes.service.NoteSearchService;
 import com.qoqtest.notes.service.NoteService;
+import com.qoqtest.notes.service.NoteStatisticsBatchService;
+import com.qoqtest.notes.service.NoteStatisticsIndexer;
+import com.qoqtest.notes.service.NoteVersion;
+import com.qoqtest.notes.service.WordStatisticsFilter;
+import com.qoqtest.notes.exception.CorpusStatisticsUnavailableException;
 import com.qoqtest.notes.exception.NoteNotFoundException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.never;
 import static org.mockito.ArgumentMatchers.any;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
 @WebMvcTest(NoteController.class)
+@Import({WordStatisticsFilter.class, WireFormatConfig.class})
+@EnableConfigurationProperties(StatisticsProperties.class)
 class NoteControllerTest {
 
     @Autowired
@@ -33,10 +96,28 @@ class NoteControllerTest {
     @MockitoBean
     private NoteService noteService;
 
+    @MockitoBean
+    private NoteBatchService noteBatchService;
+
+    @MockitoBean
+    private NoteSearchService noteSearchService;
+
+    @MockitoBean
+    private NoteExportService noteExportService;
+
+    @MockitoBean
+    private NoteStatisticsBatchService noteStatisticsBatchService;
+
+    @MockitoBean
+    private CorpusStatisticsService corpusStatisticsService;
+
+    @MockitoBean
+    private NoteChangeFeed noteChangeFeed;
+
     @Test
     @DisplayName("POST /api/notes - Success")
     void createNote_ValidRequest_ReturnsCreated() throws Exception {
-        NoteFullResponseDTO response = new NoteFullResponseDTO("1", "Title", "Text", null, null);
+        NoteFullResponseDTO response = new NoteFullResponseDTO("1", "Title", "Text", null, null, 0, null);
 
         when(noteService.createNote(any(NoteRequestDTO.class))).thenReturn(response);
 
@@ -67,18 +148,79 @@ class NoteControllerTest {
     @DisplayName("GET /api/notes/{id}/stats - Success")
     void getStats_ReturnsMap() throws Exception {
         Map<String, Long> stats = Map.of("java", 2L, "spring", 1L);
+        when(noteService.getNoteVersion("1")).thenReturn(new NoteVersion(4, Instant.parse("2026-03-01T10:00:00Z")));
         when(noteService.getNoteWordFrequencyDescending("1")).thenReturn(stats);
 
         mockMvc.perform(get("/api/notes/1/stats"))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4-" + NoteStatisticsIndexer.CURRENT_VERSION + "\""))
                 .andExpect(jsonPath("$.java").value(2))
                 .andExpect(jsonPath("$.spring").value(1));
     }
 
+    @Test
+    @DisplayName("GET /api/notes/{id}/stats - Not Modified since the last change")
+    void getStats_NotModifiedSince_Returns304WithoutStatistics() throws Exception {
+        when(noteService.getNoteVersion("1")).thenReturn(new NoteVersion(4, Instant.parse("2026-03-01T10:00:00Z")));
+
+        mockMvc.perform(get("/api/notes/1/stats").header(HttpHeaders.IF_MODIFIED_SINCE, "Sun, 01 Mar 2026 10:00:00 GMT"))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(noteService, never()).getNoteWordFrequencyDescending("1");
+    }
+
+    @Test
+    @DisplayName("GET /api/notes/{id}/stats - Top words without stop words")
+    void getStats_WithLimitAndStopWords_ReturnsTopWords() throws Exception {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("the", 5L);
+        stats.put("java", 3L);
+        stats.put("spring", 2L);
+        stats.put("boot", 1L);
+        when(noteService.getNoteVersion("1")).thenReturn(new NoteVersion(0, null));
+        when(noteService.getNoteWordFrequencyDescending("1")).thenReturn(stats);
+
+        mockMvc.perform(get("/api/notes/1/stats").param("limit", "2").param("stopWords", "en"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$.java").value(3))
+                .andExpect(jsonPath("$.spring").value(2));
+    }
+
+    @Test
+    @DisplayName("GET /api/notes/stats - Top words of a tag")
+    void getCorpusStats_ReturnsTopWords() throws Exception {
+        Map<String, Long> words = new LinkedHashMap<>();
+        words.put("meeting", 12L);
+        words.put("budget", 7L);
+        when(corpusStatisticsService.getTopWords(NoteTag.IMPORTANT, 2))
+                .thenReturn(new CorpusStatisticsDTO(NoteTag.IMPORTANT, 5, 40, words));
+
+        mockMvc.perform(get("/api/notes/stats").param("tag", "IMPORTANT").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notes").value(5))
+                .andExpect(jsonPath("$.uniqueWords").value(40))
+                .andExpect(jsonPath("$.words.meeting").value(12))
+                .andExpect(jsonPath("$.words.budget").value(7));
+    }
+
+    @Test
+    @DisplayName("GET /api/notes/stats - Search index disabled")
+    void getCorpusStats_SearchDisabled_Returns503() throws Exception {
+        when(corpusStatisticsService.getTopWords(null, 10))
+                .thenThrow(new CorpusStatisticsUnavailableException("Corpus statistics are loaded with the search index, which is disabled"));
+
+        mockMvc.perform(get("/api/notes/stats"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.message").value("Corpus statistics are loaded with the search index, which is disabled"));
+    }
+
     @Test
     @DisplayName("GET /api/notes - Pagination Check")
     void getAll_ReturnsPage() throws Exception {
-        when(noteService.getAllNotes(null, 0, 10)).thenReturn(Page.empty());
+        when(noteService.getAllNotes(null, TagMatch.ANY, 0, 10, PageTotal.APPROXIMATE)).thenReturn(Page.empty());
 
         mockMvc.perform(get("/api/notes")
                         .param("page", "0")
@@ -86,20 +228,366 @@ class NoteControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @DisplayName("GET /api/notes?total=EXACT - Counts the total")
+    void getAll_ExactTotal_PassesTotalMode() throws Exception {
+        when(noteService.getAllNotes(Set.of(NoteTag.BUSINESS), TagMatch.ANY, 0, 10, PageTotal.EXACT)).thenReturn(Page.empty());
+
+        mockMvc.perform(get("/api/notes")
+                        .param("tags", "BUSINESS")
+                        .param("total", "EXACT"))
+                .andExpect(status().isOk());
+
+        verify(noteService).getAllNotes(Set.of(NoteTag.BUSINESS), TagMatch.ANY, 0, 10, PageTotal.EXACT);
+    }
+
+    @Test
+    @DisplayName("GET /api/notes/facets - Counts per tag")
+    void getTagFacets_ReturnsCountsPerTag() throws Exception {
+        Map<NoteTag, Long> counts = new EnumMap<>(Map.of(NoteTag.BUSINESS, 4L, NoteTag.PERSONAL, 0L, NoteTag.IMPORTANT, 2L));
+        when(noteService.getTagFacets(Set.of(NoteTag.BUSINESS), TagMatch.ALL))
+                .thenReturn(new TagFacetsDTO(Set.of(NoteTag.BUSINESS), TagMatch.ALL, 4, counts));
+
+        mockMvc.perform(get("/api/notes/facets")
+                        .param("tags", "BUSINESS")
+                        .param("match", "ALL"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notes").value(4))
+                .andExpect(jsonPath("$.facets.BUSINESS").value(4))
+                .andExpect(jsonPath("$.facets.IMPORTANT").value(2));
+    }
+
+    @Test
+    @DisplayName("GET /api/notes?after= - Cursor Pagination")
+    void getAllAfter_ReturnsCursorPage() throws Exception {
+        NoteCursorPageDTO page = new NoteCursorPageDTO(
+                List.of(new NoteShortResponseDTO("1", "Title", null)), 1, true, "next-token");
+        when(noteService.getNotesAfter(null, TagMatch.ANY, "", 1)).thenReturn(page);
+
+        mockMvc.perform(get("/api/notes")
+                        .param("after", "")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Title"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("next-token"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/notes?after= - Zero size is rejected before querying")
+    void getAllAfter_ZeroSize_Returns400() throws Exception {
+        mockMvc.perform(get("/api/notes")
+                        .param("after", "")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors.size").exists());
+
+        verify(noteService, never()).getNotesAfter(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("GET /api/notes?after= - Negative size is rejected instead of reading every note")
+    void getAllAfter_NegativeSize_Returns400() throws Exception {
+        mockMvc.perform(get("/api/notes")
+                        .param("after", "")
+                        .param("size", "-1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors.size").exists());
+
+        verify(noteService, never()).getNotesAfter(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("GET /api/notes - Size above the maximum is rejected")
+    void getAll_SizeAboveMax_Returns400() throws Exception {
+        mockMvc.perform(get("/api/notes").param("size", String.valueOf(NoteService.MAX_PAGE_SIZE + 1)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors.size").exists());
+    }
+
+    @Test
+    @DisplayName("GET /api/notes?after= - Not Modified for the ETag of the same listing")
+    void getAllAfter_SameListing_Returns304() throws Exception {
+        NoteCursorPageDTO page = new NoteCursorPageDTO(
+                List.of(new NoteShortResponseDTO("1", "Title", null)), 1, false, null);
+        when(noteService.getNotesAfter(null, TagMatch.ANY, "", 10)).thenReturn(page);
+
+        String etag = mockMvc.perform(get("/api/notes").param("after", ""))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(etag).isNotNull().doesNotStartWith("W/");
+        mockMvc.perform(get("/api/notes").param("after", "").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("POST /api/notes/batch - Per-item results")
+    void createBatch_ReturnsItemResults() throws Exception {
+        NoteBatchResultDTO result = new NoteBatchResultDTO(1, 1, List.of(
+                new NoteBatchItemResultDTO(0, "1", BatchItemStatus.CREATED),
+                new NoteBatchItemResultDTO(1, null, BatchItemStatus.INVALID, Map.of("title", "Title is mandatory"))));
+        when(noteBatchService.createNotes(anyList())).thenReturn(result);
+
+        mockMvc.perform(post("/api/notes/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [
+                                    { "title": "Title", "text": "Text" },
+                                    { "title": "", "text": "Text" }
+                                ]
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[1].errors.title").value("Title is mandatory"));
+    }
+
+    @Test
+    @DisplayName("POST /api/notes/batch/delete - Requires ids")
+    void deleteBatch_EmptyIds_Returns400() throws Exception {
+        mockMvc.perform(post("/api/notes/batch/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors.ids").value("Ids are mandatory"));
+    }
+
+    @Test
+    @DisplayName("POST /api/notes/batch/tags - Success")
+    void updateTagsBatch_ReturnsItemResults() throws Exception {
+        NoteBatchResultDTO result = new NoteBatchResultDTO(1, 0, List.of(
+                new NoteBatchItemResultDTO(0, "1", BatchItemStatus.UPDATED)));
+        when(noteBatchService.updateTags(List.of("1"), Set.of(NoteTag.IMPORTANT), null)).thenReturn(result);
+
+        mockMvc.perform(post("/api/notes/batch/tags")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [\"1\"], \"add\": [\"IMPORTANT\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].status").value("UPDATED"));
+    }
+
+    @Test
+    @DisplayName("GET /api/notes/search - Ranked hits")
+    void search_ReturnsHits() throws Exception {
+        Page<NoteSearchHitDTO> hits = new PageImpl<>(
+                List.of(new NoteSearchHitDTO("1", "Java notes", null, 1.5)), PageRequest.of(0, 10), 1);
+        when(noteSearchService.search("java spring", SearchOperator.OR, Set.of(NoteTag.BUSINESS), SearchOrder.NEWEST, 0, 10))
+                .thenReturn(hits);
+
+        mockMvc.perform(get("/api/notes/search")
+                        .param("q", "java spring")
+                        .param("operator", "OR")
+                        .param("tags", "BUSINESS")
+                        .param("sort", "NEWEST"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Java notes"))
+                .andExpect(jsonPath("$.content[0].score").value(1.5))
+                .andExpect(jsonPath("$.page.totalElements").value(1));
+    }
+
+    @Test
+    @DisplayName("GET /api/notes/export - Gzip-compressed NDJSON")
+    void export_Gzip_StreamsCompressedNdjson() throws Exception {
+        Instant from = Instant.parse("2026-01-01T00:00:00Z");
+        when(noteExportService.exportNotes(eq(Set.of(NoteTag.BUSINESS)), eq(from), isNull(), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(3, OutputStream.class).write("{\"id\":\"1\"}\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        MvcResult result = mockMvc.perform(get("/api/notes/export")
+                        .param("tags", "BUSINESS")
+                        .param("from", "2026-01-01T00:00:00Z")
+                        .param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"notes.ndjson.gz\""))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream unzipped = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(unzipped.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":\"1\"}\n");
+        }
+    }
+
+    @Test
+    @DisplayName("GET /api/notes/export - Plain NDJSON")
+    void export_Plain_StreamsNdjson() throws Exception {
+        when(noteExportService.exportNotes(isNull(), isNull(), isNull(), any(OutputStream.class))).thenReturn(0L);
+
+        MvcResult result = mockMvc.perform(get("/api/notes/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+        verify(noteExportService).exportNotes(isNull(), isNull(), isNull(), any(OutputStream.class));
+    }
+
+    @Test
+    @DisplayName("POST /api/notes/stats - Streams the word statistics of the given notes")
+    void batchStats_Ids_StreamsNdjson() throws Exception {
+        when(noteStatisticsBatchService.writeStatistics(eq(List.of("1", "2")), eq(Set.of(NoteTag.BUSINESS)), eq(TagMatch.ALL),
+                any(), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    UnaryOperator<Map<String, Long>> selection = invocation.getArgument(3);
+                    Map<String, Long> words = selection.apply(Map.of("the", 5L));
+                    invocation.getArgument(4, OutputStream.class)
+                            .write(("{\"id\":\"1\",\"words\":" + words + "}\n").getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        MvcResult result = mockMvc.perform(post("/api/notes/stats")
+                        .param("tags", "BUSINESS")
+                        .param("match", "ALL")
+                        .param("stopWords", "en")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [\"1\", \"2\"]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":\"1\",\"words\":{}}\n"));
+    }
+
+    @Test
+    @DisplayName("POST /api/notes/stats - Unknown stop word language is rejected before streaming")
+    void batchStats_UnknownLanguage_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/notes/stats").param("stopWords", "xx"))
+                .andExpect(status().isBadRequest());
+
+        verify(noteStatisticsBatchService, never()).writeStatistics(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("GET /api/notes/changes - Streams changes after the token as server-sent events")
+    void changes_AfterToken_StreamsEvents() throws Exception {
+        NoteChangeDTO change = new NoteChangeDTO(NoteChangeOperation.CREATE, "1", 0L, "Title",
+                Instant.parse("2026-01-05T10:00:00Z"), Set.of(NoteTag.BUSINESS));
+        when(noteChangeFeed.changesAfter("feed-6")).thenReturn(Flux.just(
+                new NoteChangeEvent("feed-7", change),
+                new NoteChangeEvent("feed-8", new NoteChangeDTO(NoteChangeOperation.DELETE, "2"))));
+
+        MvcResult result = mockMvc.perform(get("/api/notes/changes")
+                        .header("Last-Event-ID", "feed-1")
+                        .param("after", "feed-6")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string("id:feed-7\n"
+                        + "data:{\"op\":\"CREATE\",\"id\":\"1\",\"version\":0,\"title\":\"Title\",\"createdDate\":\"2026-01-05T10:00:00Z\",\"tags\":[\"BUSINESS\"]}\n\n"
+                        + "id:feed-8\n"
+                        + "data:{\"op\":\"DELETE\",\"id\":\"2\"}\n\n"));
+    }
+
+    @Test
+    @DisplayName("POST /api/notes/import - Gzip-compressed NDJSON")
+    void importNotes_Gzip_ReturnsSummary() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream zipped = new GZIPOutputStream(compressed)) {
+            zipped.write("{\"title\":\"T\",\"text\":\"x\"}\n".getBytes(StandardCharsets.UTF_8));
+        }
+        when(noteBatchService.importNotes(any(InputStream.class))).thenAnswer(invocation -> {
+            String body = new String(invocation.getArgument(0, InputStream.class).readAllBytes(), StandardCharsets.UTF_8);
+            return new NoteImportResultDTO(body.lines().count(), 1, 0, 0, List.of(), false);
+        });
+
+        mockMvc.perform(post("/api/notes/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content(compressed.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lines").value(1))
+                .andExpect(jsonPath("$.imported").value(1));
+    }
+
     @Test
     @DisplayName("GET /api/notes/{id} - Success")
     void getById_ValidId_ReturnsNote() throws Exception {
         String id = "123";
-        NoteFullResponseDTO response = new NoteFullResponseDTO(id, "Title", "Text", null, null);
+        NoteFullResponseDTO response = new NoteFullResponseDTO(id, "Title", "Text", null, null, 0, null);
 
         when(noteService.getNoteById(id)).thenReturn(response);
 
         mockMvc.perform(get("/api/notes/" + id))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
                 .andExpect(jsonPath("$.id").value(id))
                 .andExpect(jsonPath("$.title").value("Title"));
     }
 
+    @Test
+    @DisplayName("GET /api/notes/{id} - CBOR on request")
+    void getById_AcceptCbor_ReturnsCbor() throws Exception {
+        Instant created = Instant.parse("2026-03-01T10:00:00Z");
+        when(noteService.getNoteById("123"))
+                .thenReturn(new NoteFullResponseDTO("123", "Title", "Text", created, Set.of(NoteTag.BUSINESS), 2, created));
+
+        byte[] body = mockMvc.perform(get("/api/notes/123").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode note = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertThat(note.get("title").asText()).isEqualTo("Title");
+        assertThat(note.get("createdDate").asText()).isEqualTo("2026-03-01T10:00:00Z");
+        assertThat(note.get("version").asLong()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("GET /api/notes/{id}/stats - Smile on request")
+    void getStats_AcceptSmile_ReturnsSmile() throws Exception {
+        when(noteService.getNoteVersion("1")).thenReturn(new NoteVersion(0, null));
+        when(noteService.getNoteWordFrequencyDescending("1")).thenReturn(Map.of("java", 2L));
+
+        byte[] body = mockMvc.perform(get("/api/notes/1/stats").accept(WireFormatConfig.SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WireFormatConfig.SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(new ObjectMapper(new SmileFactory()).readTree(body).get("java").asLong()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("GET /api/notes/{id} - Not Modified for the current ETag")
+    void getById_CurrentEtag_Returns304WithoutLoadingNote() throws Exception {
+        when(noteService.getNoteVersion("123")).thenReturn(new NoteVersion(7, Instant.parse("2026-03-01T10:00:00Z")));
+
+        mockMvc.perform(get("/api/notes/123").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+                .andExpect(content().string(""));
+
+        verify(noteService, never()).getNoteById("123");
+    }
+
+    @Test
+    @DisplayName("GET /api/notes/{id} - Full note for an outdated ETag")
+    void getById_OutdatedEtag_ReturnsNote() throws Exception {
+        Instant modified = Instant.parse("2026-03-01T10:00:00Z");
+        when(noteService.getNoteVersion("123")).thenReturn(new NoteVersion(8, modified));
+        when(noteService.getNoteById("123"))
+                .thenReturn(new NoteFullResponseDTO("123", "Title", "Text", null, null, 8, modified));
+
+        mockMvc.perform(get("/api/notes/123").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, "\"8\""))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Sun, 01 Mar 2026 10:00:00 GMT"))
+                .andExpect(jsonPath("$.version").value(8));
+    }
+
     @Test
     @DisplayName("GET /api/notes/{id} - Not Found")
     void getById_NotFound_Returns404() throws Exception {
@@ -119,9 +607,9 @@ class NoteControllerTest {
     @DisplayName("PUT /api/notes/{id} - Success")
     void updateNote_ValidRequest_ReturnsUpdatedNote() throws Exception {
         String id = "123";
-        NoteFullResponseDTO response = new NoteFullResponseDTO(id, "Updated Title", "Updated Text", null, null);
+        NoteFullResponseDTO response = new NoteFullResponseDTO(id, "Updated Title", "Updated Text", null, null, 0, null);
 
-        when(noteService.updateNote(eq(id), any(NoteRequestDTO.class))).thenReturn(response);
+        when(noteService.updateNote(eq(id), any(NoteRequestDTO.class), isNull())).thenReturn(response);
 
         mockMvc.perform(put("/api/notes/" + id)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -139,11 +627,12 @@ class NoteControllerTest {
     @DisplayName("PATCH /api/notes/{id} - Success")
     void patchNote_ValidRequest_ReturnsPatchedNote() throws Exception {
         String id = "123";
-        NoteFullResponseDTO response = new NoteFullResponseDTO(id, "Patched Title", "Original Text", null, null);
+        NoteFullResponseDTO response = new NoteFullResponseDTO(id, "Patched Title", "Original Text", null, null, 4, null);
 
-        when(noteService.updateNote(eq(id), any(NoteRequestDTO.class))).thenReturn(response);
+        when(noteService.updateNote(eq(id), any(NoteRequestDTO.class), eq(3L))).thenReturn(response);
 
         mockMvc.perform(patch("/api/notes/" + id)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("""
                                 {
@@ -151,6 +640,7 @@ class NoteControllerTest {
                                 }
                                 """))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
                 .andExpect(jsonPath("$.title").value("Patched Title"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,202 @@
+package com.qoqtest.notes.controller;
+
+import com.qoqtest.notes.config.StatisticsProperties;
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.dto.NoteFullResponseDTO;
+import com.qoqtest.notes.dto.NoteRequestDTO;
+import com.qoqtest.notes.dto.NoteShortResponseDTO;
+import com.qoqtest.notes.exception.NoteNotFoundException;
+import com.qoqtest.notes.exception.NoteVersionMismatchException;
+import com.qoqtest.notes.handler.ReactiveGlobalExceptionHandler;
+import com.qoqtest.notes.service.ReactiveNoteService;
+import com.qoqtest.notes.service.WordStatisticsFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveNoteController.class)
+@Import({ReactiveGlobalExceptionHandler.class, WordStatisticsFilter.class})
+@EnableConfigurationProperties(StatisticsProperties.class)
+class ReactiveNoteControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private ReactiveNoteService noteService;
+
+    @Test
+    @DisplayName("POST /api/notes - Success")
+    void createNote_ValidRequest_ReturnsCreated() {
+        when(noteService.createNote(any(NoteRequestDTO.class)))
+                .thenReturn(Mono.just(new NoteFullResponseDTO("1", "Title", "Text", null, null, 0, null)));
+
+        webTestClient.post().uri("/api/notes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("""
+                        {
+                            "title": "Title",
+                            "text": "Text"
+                        }
+                        """)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("1");
+    }
+
+    @Test
+    @DisplayName("POST /api/notes - Validation Error")
+    void createNote_BlankTitle_Returns400() {
+        webTestClient.post().uri("/api/notes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"title\": \"\", \"text\": \"valid text\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.validationErrors.title").isEqualTo("Title is mandatory");
+    }
+
+    @Test
+    @DisplayName("GET /api/notes - Pagination Check")
+    void getAll_ReturnsPage() {
+        when(noteService.getAllNotes(null, TagMatch.ANY, 0, 10)).thenReturn(Mono.just(Page.empty()));
+
+        webTestClient.get().uri("/api/notes?page=0&size=10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content").isArray()
+                .jsonPath("$.page.totalElements").isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("GET /api/notes?after= - Zero size is rejected")
+    void getAllAfter_ZeroSize_Returns400() {
+        webTestClient.get().uri("/api/notes?after=&size=0")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.validationErrors.size").exists();
+    }
+
+    @Test
+    @DisplayName("GET /api/notes as NDJSON - Streams summaries")
+    void stream_NdjsonAccept_StreamsNotes() {
+        when(noteService.streamNotes(null, TagMatch.ANY)).thenReturn(Flux.just(
+                new NoteShortResponseDTO("1", "First", null),
+                new NoteShortResponseDTO("2", "Second", null)));
+
+        webTestClient.get().uri("/api/notes")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(NoteShortResponseDTO.class)
+                .hasSize(2);
+    }
+
+    @Test
+    @DisplayName("GET /api/notes/{id} - Not Found")
+    void getById_NotFound_Returns404() {
+        when(noteService.getNoteById("999"))
+                .thenReturn(Mono.error(new NoteNotFoundException("Note not found with id: 999")));
+
+        webTestClient.get().uri("/api/notes/999")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Note not found with id: 999")
+                .jsonPath("$.path").isEqualTo("/api/notes/999");
+    }
+
+    @Test
+    @DisplayName("PUT /api/notes/{id} - Stale If-Match")
+    void update_StaleIfMatch_Returns412() {
+        when(noteService.updateNote(eq("1"), any(NoteRequestDTO.class), eq(3L)))
+                .thenReturn(Mono.error(new NoteVersionMismatchException("Note 1 is at version 4, not 3")));
+
+        webTestClient.put().uri("/api/notes/1")
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"title\": \"Title\", \"text\": \"Text\"}")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED)
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Note 1 is at version 4, not 3");
+    }
+
+    @Test
+    @DisplayName("PATCH /api/notes/{id} - Returns the new ETag")
+    void patch_NoIfMatch_ReturnsNewEtag() {
+        when(noteService.updateNote(eq("1"), any(NoteRequestDTO.class), isNull()))
+                .thenReturn(Mono.just(new NoteFullResponseDTO("1", "Title", "Text", null, null, 5, null)));
+
+        webTestClient.patch().uri("/api/notes/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"title\": \"Title\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"5\"");
+    }
+
+    @Test
+    @DisplayName("GET /api/notes/{id}/stats - Success")
+    void getStats_ReturnsMap() {
+        when(noteService.getNoteWordFrequencyDescending("1")).thenReturn(Mono.just(Map.of("java", 2L)));
+
+        webTestClient.get().uri("/api/notes/1/stats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.java").isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("GET /api/notes/{id}/stats - Words above minCount")
+    void getStats_WithMinCount_ReturnsFrequentWords() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("java", 3L);
+        stats.put("spring", 2L);
+        stats.put("boot", 1L);
+        when(noteService.getNoteWordFrequencyDescending("1")).thenReturn(Mono.just(stats));
+
+        webTestClient.get().uri("/api/notes/1/stats?minCount=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$.spring").isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("DELETE /api/notes/{id} - Success")
+    void deleteNote_ReturnsNoContent() {
+        when(noteService.deleteNote("123")).thenReturn(Mono.empty());
+
+        webTestClient.delete().uri("/api/notes/123")
+                .exchange()
+                .expectStatus().isNoContent();
+
+        verify(noteService).deleteNote("123");
+    }
+}
@@ -1,21 +1,44 @@
 package com.qoqtest.notes.exception;
 
+import com.qoqtest.notes.config.StatisticsProperties;
 import com.qoqtest.notes.controller.NoteController;
+import com.qoqtest.notes.dto.NoteRequestDTO;
+import com.qoqtest.notes.service.CorpusStatisticsService;
+import com.qoqtest.notes.service.NoteBatchService;
+import com.qoqtest.notes.service.NoteChangeFeed;
+import com.qoqtest.notes.service.NoteExportService;
+import com.qoqtest.notes.service.NoteSearchService;
 import com.qoqtest.notes.service.NoteService;
+import com.qoqtest.notes.service.NoteStatisticsBatchService;
+import com.qoqtest.notes.service.NoteVersion;
+import com.qoqtest.notes.service.WordStatisticsFilter;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(NoteController.class)
+@Import(WordStatisticsFilter.class)
+@EnableConfigurationProperties(StatisticsProperties.class)
 class GlobalExceptionHandlerTest {
 
     @Autowired
@@ -24,6 +47,24 @@ class GlobalExceptionHandlerTest {
     @MockitoBean
     private NoteService noteService;
 
+    @MockitoBean
+    private NoteBatchService noteBatchService;
+
+    @MockitoBean
+    private NoteSearchService noteSearchService;
+
+    @MockitoBean
+    private NoteExportService noteExportService;
+
+    @MockitoBean
+    private NoteStatisticsBatchService noteStatisticsBatchService;
+
+    @MockitoBean
+    private CorpusStatisticsService corpusStatisticsService;
+
+    @MockitoBean
+    private NoteChangeFeed noteChangeFeed;
+
     @Test
     @DisplayName("Should return 500 when unexpected exception occurs")
     void handleGeneralException_Returns500() throws Exception {
@@ -45,4 +86,66 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.validationErrors.title").exists())
                 .andExpect(jsonPath("$.validationErrors.title").value("Title is mandatory"));
     }
+
+    @Test
+    @DisplayName("Should return 400 when pagination cursor is invalid")
+    void handleInvalidCursor_Returns400() throws Exception {
+        when(noteService.getNotesAfter(isNull(), any(), anyString(), anyInt()))
+                .thenThrow(new InvalidCursorException("Invalid cursor: broken"));
+
+        mockMvc.perform(get("/api/notes").param("after", "broken"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor: broken"))
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    @DisplayName("Should return 400 when no stop words are configured for the language")
+    void handleUnsupportedLanguage_Returns400() throws Exception {
+        when(noteService.getNoteVersion("1")).thenReturn(new NoteVersion(0, null));
+        when(noteService.getNoteWordFrequencyDescending("1")).thenReturn(Map.of("java", 2L));
+
+        mockMvc.perform(get("/api/notes/1/stats").param("stopWords", "xx"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("No stop words configured for language: xx"))
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    @DisplayName("Should return 412 when the note is no longer at the If-Match version")
+    void handleVersionMismatch_Returns412() throws Exception {
+        when(noteService.updateNote(eq("1"), any(NoteRequestDTO.class), eq(2L)))
+                .thenThrow(new NoteVersionMismatchException("Note 1 is at version 3, not 2"));
+
+        mockMvc.perform(patch("/api/notes/1")
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"New Title\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message").value("Note 1 is at version 3, not 2"))
+                .andExpect(jsonPath("$.status").value(412));
+    }
+
+    @Test
+    @DisplayName("Should return 412 for an If-Match that is not a strong note ETag")
+    void handleWeakIfMatch_Returns412() throws Exception {
+        mockMvc.perform(put("/api/notes/1")
+                        .header(HttpHeaders.IF_MATCH, "W/\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Title\", \"text\": \"Text\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(noteService, never()).updateNote(anyString(), any(NoteRequestDTO.class), any());
+    }
+
+    @Test
+    @DisplayName("Should return 400 when a gzip import body is not gzip")
+    void handleInvalidGzip_Returns400() throws Exception {
+        mockMvc.perform(post("/api/notes/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content("{\"title\": \"plain\", \"text\": \"text\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Request body is not valid gzip"));
+    }
 }
@@ -0,0 +1,58 @@
+package com.qoqtest.notes.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestLogSamplingFilterTest {
+
+    private final RequestLogSamplingFilter samplingFilter = new RequestLogSamplingFilter();
+
+    private final SampledRequestTurboFilter turboFilter = new SampledRequestTurboFilter();
+
+    @Test
+    @DisplayName("Should drop routine lines of unsampled reads but keep their warnings")
+    void unsampledRead_DropsInfoKeepsWarn() throws Exception {
+        ReflectionTestUtils.setField(samplingFilter, "sampleRate", 0.0);
+        AtomicReference<FilterReply> info = new AtomicReference<>();
+        AtomicReference<FilterReply> warn = new AtomicReference<>();
+
+        samplingFilter.doFilter(new MockHttpServletRequest("GET", "/api/notes/1"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    info.set(turboFilter.decide(null, null, Level.INFO, "Fetching note", null, null));
+                    warn.set(turboFilter.decide(null, null, Level.WARN, "Note not found", null, null));
+                });
+
+        assertThat(info.get()).isEqualTo(FilterReply.DENY);
+        assertThat(warn.get()).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(MDC.get(RequestLogSamplingFilter.SAMPLED)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should always log writes")
+    void write_AlwaysSampled() throws Exception {
+        ReflectionTestUtils.setField(samplingFilter, "sampleRate", 0.0);
+        AtomicReference<FilterReply> info = new AtomicReference<>();
+
+        samplingFilter.doFilter(new MockHttpServletRequest("POST", "/api/notes"), new MockHttpServletResponse(),
+                (request, response) -> info.set(turboFilter.decide(null, null, Level.INFO, "Created note", null, null)));
+
+        assertThat(info.get()).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    @DisplayName("Should not filter logging outside of requests")
+    void outsideRequest_Neutral() {
+        assertThat(turboFilter.decide(null, null, Level.DEBUG, "Backfill progress", null, null))
+                .isEqualTo(FilterReply.NEUTRAL);
+    }
+}
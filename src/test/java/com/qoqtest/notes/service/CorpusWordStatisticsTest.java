@@ -0,0 +1,129 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorpusWordStatisticsTest {
+
+    private final NoteStatisticsIndexer statisticsIndexer = new NoteStatisticsIndexer(new ScanningWordCounter());
+
+    private final CorpusWordStatistics corpusStatistics = new CorpusWordStatistics();
+
+    private final NoteSearchIndex searchIndex = new NoteSearchIndex(corpusStatistics);
+
+    @Test
+    @DisplayName("Should return the most frequent words across all notes and per tag")
+    void top_CountsAllNotesAndTags() {
+        searchIndex.index(note("1", "java spring java", Set.of(NoteTag.BUSINESS)));
+        searchIndex.index(note("2", "java kotlin", Set.of(NoteTag.BUSINESS, NoteTag.IMPORTANT)));
+        searchIndex.index(note("3", "spring spring garden", null));
+
+        CorpusWordStatistics.Top all = corpusStatistics.top(null, 2);
+        CorpusWordStatistics.Top business = corpusStatistics.top(NoteTag.BUSINESS, 10);
+
+        assertThat(all.notes()).isEqualTo(3);
+        assertThat(all.uniqueWords()).isEqualTo(4);
+        assertThat(all.words()).containsExactly(new WordCount("java", 3), new WordCount("spring", 3));
+        assertThat(business.notes()).isEqualTo(2);
+        assertThat(business.words()).containsExactly(
+                new WordCount("java", 3), new WordCount("kotlin", 1), new WordCount("spring", 1));
+        assertThat(corpusStatistics.top(NoteTag.PERSONAL, 10).words()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should follow updated text, changed tags and deleted notes")
+    void top_FollowsWrites() {
+        Note first = note("1", "draft draft", Set.of(NoteTag.PERSONAL));
+        Note second = note("2", "draft plan", null);
+        searchIndex.index(first);
+        searchIndex.index(second);
+
+        Note updated = note("1", "final", Set.of(NoteTag.PERSONAL));
+        updated.setVersion(1);
+        Note retagged = note("1", "final", Set.of(NoteTag.IMPORTANT));
+        retagged.setVersion(2);
+        searchIndex.index(updated);
+        searchIndex.index(retagged);
+        searchIndex.remove("2");
+
+        assertThat(corpusStatistics.top(null, 10).words()).containsExactly(new WordCount("final", 1));
+        assertThat(corpusStatistics.top(NoteTag.IMPORTANT, 10).words()).containsExactly(new WordCount("final", 1));
+        assertThat(corpusStatistics.top(NoteTag.PERSONAL, 10).notes()).isZero();
+        assertThat(corpusStatistics.top(null, 10).uniqueWords()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should select the same top words when the vocabulary is scanned in parallel")
+    void top_LargeVocabulary_SelectsBest() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            text.append(word(i)).append(' ');
+        }
+        searchIndex.index(note("1", text.toString(), null));
+        searchIndex.index(note("2", word(7) + " " + word(7) + " " + word(19_999), null));
+
+        CorpusWordStatistics.Top top = corpusStatistics.top(null, 3);
+
+        assertThat(top.uniqueWords()).isEqualTo(20_000);
+        assertThat(top.words()).containsExactly(
+                new WordCount(word(7), 3), new WordCount(word(19_999), 2), new WordCount(word(0), 1));
+    }
+
+    @Test
+    @DisplayName("Should count only the newest version of a note indexed concurrently and out of order")
+    void top_ConcurrentUpdates_CountNewestVersion() throws Exception {
+        List<Callable<Boolean>> writes = new ArrayList<>();
+        for (int version = 0; version < 200; version++) {
+            Note note = note("1", word(version) + " shared", Set.of(version % 2 == 0 ? NoteTag.BUSINESS : NoteTag.PERSONAL));
+            note.setVersion(version);
+            writes.add(() -> searchIndex.index(note).applied());
+        }
+        Collections.shuffle(writes, new Random(42));
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (Future<Boolean> write : executor.invokeAll(writes)) {
+                write.get();
+            }
+        }
+
+        CorpusWordStatistics.Top all = corpusStatistics.top(null, 10);
+        assertThat(all.notes()).isEqualTo(1);
+        assertThat(all.uniqueWords()).isEqualTo(2);
+        assertThat(all.words()).containsExactlyInAnyOrder(new WordCount(word(199), 1), new WordCount("shared", 1));
+        assertThat(corpusStatistics.top(NoteTag.PERSONAL, 10).notes()).isEqualTo(1);
+        assertThat(corpusStatistics.top(NoteTag.BUSINESS, 10).notes()).isZero();
+    }
+
+    /** Distinct letters-only words, since digits are not part of words. */
+    private static String word(int i) {
+        StringBuilder word = new StringBuilder("w");
+        for (int n = i; n > 0 || word.length() == 1; n /= 26) {
+            word.append((char) ('a' + n % 26));
+        }
+        return word.toString();
+    }
+
+    private Note note(String id, String text, Set<NoteTag> tags) {
+        Note note = new Note();
+        note.setId(id);
+        note.setText(text);
+        note.setTags(tags);
+        statisticsIndexer.index(note);
+        return note;
+    }
+}
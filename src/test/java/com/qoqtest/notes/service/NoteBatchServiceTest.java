@@ -0,0 +1,295 @@
+package com.qoqtest.notes.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.qoqtest.notes.config.CacheConfig;
+import com.qoqtest.notes.dto.BatchItemStatus;
+import com.qoqtest.notes.dto.NoteBatchItemResultDTO;
+import com.qoqtest.notes.dto.NoteBatchResultDTO;
+import com.qoqtest.notes.dto.NoteChangeDTO;
+import com.qoqtest.notes.dto.NoteChangeOperation;
+import com.qoqtest.notes.dto.NoteImportErrorDTO;
+import com.qoqtest.notes.dto.NoteImportResultDTO;
+import com.qoqtest.notes.dto.NoteRequestDTO;
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+import com.qoqtest.notes.mapper.NoteMapperImpl;
+import com.qoqtest.notes.repository.NoteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NoteBatchServiceTest {
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.NOTES, CacheConfig.NOTE_STATISTICS);
+
+    private final CorpusWordStatistics corpusStatistics = new CorpusWordStatistics();
+
+    private final NoteSearchIndex searchIndex = new NoteSearchIndex(corpusStatistics);
+
+    private final NoteTotals noteTotals = new NoteTotals();
+
+    private final NoteChangeFeed changeFeed = spy(new NoteChangeFeed(new NoteMapperImpl()));
+
+    private NoteBatchService noteBatchService;
+
+    @BeforeEach
+    void setUp() {
+        noteBatchService = new NoteBatchService(
+                noteRepository,
+                new NoteMapperImpl(),
+                new NoteStatisticsIndexer(new ScanningWordCounter()),
+                searchIndex,
+                noteTotals,
+                new SingleFlight(new SimpleMeterRegistry()),
+                changeFeed,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                cacheManager,
+                new Jackson2ObjectMapperBuilder().build());
+        ReflectionTestUtils.setField(noteBatchService, "chunkSize", 2);
+        ReflectionTestUtils.setField(noteBatchService, "maxReportedErrors", 10);
+    }
+
+    @Test
+    @DisplayName("Should insert valid notes in chunks and report invalid ones per item")
+    void createNotes_MixedItems_InsertsValidInChunks() {
+        List<NoteRequestDTO> dtos = Arrays.asList(
+                new NoteRequestDTO("First", "one one", null),
+                new NoteRequestDTO("", "no title", null),
+                new NoteRequestDTO("Second", "two", Set.of(NoteTag.BUSINESS)),
+                null,
+                new NoteRequestDTO("Third", "three", null));
+
+        NoteBatchResultDTO result = noteBatchService.createNotes(dtos);
+
+        assertThat(result.succeeded()).isEqualTo(3);
+        assertThat(result.failed()).isEqualTo(2);
+        assertThat(result.items()).extracting(NoteBatchItemResultDTO::status).containsExactly(
+                BatchItemStatus.CREATED, BatchItemStatus.INVALID, BatchItemStatus.CREATED,
+                BatchItemStatus.INVALID, BatchItemStatus.CREATED);
+        assertThat(result.items().get(1).errors()).containsEntry("title", "Title is mandatory");
+        assertThat(result.items().get(0).id()).isNotBlank();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Note>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(noteRepository, times(2)).insertBulk(chunks.capture());
+        assertThat(chunks.getAllValues()).extracting(List::size).containsExactly(2, 1);
+        assertThat(searchIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should report notes rejected by the bulk write as failed")
+    void createNotes_BulkWriteError_MarksItemFailed() {
+        BulkWriteError error = new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1);
+        MongoBulkWriteException writeException = new MongoBulkWriteException(
+                BulkWriteResult.unacknowledged(), List.of(error), null, new ServerAddress(), Set.of());
+        doThrow(new BulkOperationException("bulk failed", writeException))
+                .when(noteRepository).insertBulk(anyList());
+
+        NoteBatchResultDTO result = noteBatchService.createNotes(List.of(
+                new NoteRequestDTO("First", "one", null),
+                new NoteRequestDTO("Second", "two", null)));
+
+        assertThat(result.items()).extracting(NoteBatchItemResultDTO::status)
+                .containsExactly(BatchItemStatus.CREATED, BatchItemStatus.FAILED);
+        assertThat(result.items().get(1).errors()).containsEntry("write", "duplicate key");
+    }
+
+    @Test
+    @DisplayName("Should import valid lines in chunks and report the line of every invalid one")
+    void importNotes_MixedLines_InsertsValidInChunks() throws Exception {
+        String ndjson = String.join("\n",
+                "{\"title\":\"First\",\"text\":\"one\",\"tags\":[\"BUSINESS\"]}",
+                "",
+                "{\"title\":\"Broken\"",
+                "{\"title\":\"Tagged\",\"text\":\"bad tag\",\"tags\":[\"UNKNOWN\"]}",
+                "{\"title\":\"" + "x".repeat(256) + "\",\"text\":\"long title\"}",
+                "{\"id\":\"65f000000000000000000001\",\"title\":\"Second\",\"text\":\"two\",\"createdDate\":\"2026-01-01T00:00:00Z\"}\r",
+                "{\"id\":\"exported\",\"title\":\"Foreign\",\"text\":\"bad id\"}",
+                "{\"title\":\"Third\",\"text\":\"three\"}");
+
+        NoteImportResultDTO result = noteBatchService.importNotes(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.lines()).isEqualTo(7);
+        assertThat(result.imported()).isEqualTo(3);
+        assertThat(result.failed()).isEqualTo(4);
+        assertThat(result.errorsTruncated()).isFalse();
+        assertThat(result.errors()).extracting(NoteImportErrorDTO::line).containsExactly(3L, 4L, 5L, 7L);
+        assertThat(result.errors().get(0).errors()).containsKey("line");
+        assertThat(result.errors().get(1).errors()).containsKey("tags");
+        assertThat(result.errors().get(2).errors()).containsEntry("title", "Title must be at most 255 characters");
+        assertThat(result.errors().get(3).errors()).containsKey("id");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Note>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(noteRepository, times(2)).insertBulk(chunks.capture());
+        assertThat(chunks.getAllValues()).extracting(List::size).containsExactly(2, 1);
+        Note restored = chunks.getAllValues().get(0).get(1);
+        assertThat(restored.getId()).isEqualTo("65f000000000000000000001");
+        assertThat(restored.getCreatedDate()).isEqualTo(Instant.parse("2026-01-01T00:00:00Z"));
+        assertThat(searchIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should skip lines whose note already exists")
+    void importNotes_ExistingId_SkipsLine() throws Exception {
+        BulkWriteError error = new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 0);
+        MongoBulkWriteException writeException = new MongoBulkWriteException(
+                BulkWriteResult.unacknowledged(), List.of(error), null, new ServerAddress(), Set.of());
+        doThrow(new BulkOperationException("bulk failed", writeException))
+                .when(noteRepository).insertBulk(anyList());
+        String ndjson = "{\"id\":\"65f000000000000000000001\",\"title\":\"First\",\"text\":\"one\"}\n"
+                + "{\"id\":\"65f000000000000000000002\",\"title\":\"Second\",\"text\":\"two\"}\n";
+
+        NoteImportResultDTO result = noteBatchService.importNotes(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.skipped()).isEqualTo(1);
+        assertThat(result.failed()).isZero();
+        assertThat(result.errors()).isEmpty();
+        assertThat(searchIndex.size()).isEqualTo(1);
+        verify(changeFeed, never()).publish(argThat(change -> "65f000000000000000000001".equals(change.id())));
+    }
+
+    @Test
+    @DisplayName("Should count every failed line but list only the first ones")
+    void importNotes_ManyInvalidLines_TruncatesErrors() throws Exception {
+        ReflectionTestUtils.setField(noteBatchService, "maxReportedErrors", 1);
+
+        NoteImportResultDTO result = noteBatchService.importNotes(
+                new ByteArrayInputStream("null\n[]\n{\"title\":\"\"}\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.failed()).isEqualTo(3);
+        assertThat(result.errors()).hasSize(1);
+        assertThat(result.errorsTruncated()).isTrue();
+        verify(noteRepository, never()).insertBulk(anyList());
+    }
+
+    @Test
+    @DisplayName("Should delete existing notes, report missing ids and evict them from the cache")
+    void deleteNotes_SomeMissing_ReportsNotFound() {
+        cacheManager.getCache(CacheConfig.NOTES).put("a", "cached");
+        when(noteRepository.removeById("a")).thenReturn(Optional.of(stored("a", "alpha", null)));
+        when(noteRepository.removeById("b")).thenReturn(Optional.empty());
+        when(noteRepository.removeById("c")).thenReturn(Optional.of(stored("c", "gamma", null)));
+
+        NoteBatchResultDTO result = noteBatchService.deleteNotes(List.of("a", "b", "c"));
+
+        assertThat(result.items()).extracting(NoteBatchItemResultDTO::status)
+                .containsExactly(BatchItemStatus.DELETED, BatchItemStatus.NOT_FOUND, BatchItemStatus.DELETED);
+        assertThat(cacheManager.getCache(CacheConfig.NOTES).get("a")).isNull();
+        verify(changeFeed).deleted("a");
+        verify(changeFeed).deleted("c");
+        verify(changeFeed, never()).deleted("b");
+    }
+
+    @Test
+    @DisplayName("Should count a note removed by a concurrent delete only once")
+    void deleteNotes_RemovedConcurrently_ReportsNotFound() {
+        Note a = stored("a", "alpha", Set.of(NoteTag.PERSONAL));
+        searchIndex.index(a);
+        noteTotals.load(Map.of(Set.of(NoteTag.PERSONAL), 1L));
+        when(noteRepository.removeById("a")).thenReturn(Optional.of(a), Optional.empty());
+
+        NoteBatchResultDTO result = noteBatchService.deleteNotes(List.of("a", "a"));
+
+        assertThat(result.items()).extracting(NoteBatchItemResultDTO::status)
+                .containsExactly(BatchItemStatus.DELETED, BatchItemStatus.NOT_FOUND);
+        assertThat(noteTotals.count(Set.of(NoteTag.PERSONAL), TagMatch.ANY)).hasValue(0);
+        verify(changeFeed, times(1)).deleted("a");
+    }
+
+    @Test
+    @DisplayName("Should change tags of existing notes only")
+    void updateTags_ExistingNotes_UpdatesTags() {
+        Set<NoteTag> add = Set.of(NoteTag.IMPORTANT);
+        Set<NoteTag> remove = Set.of(NoteTag.PERSONAL);
+        Note a = stored("a", "alpha words", Set.of(NoteTag.PERSONAL));
+        Note b = stored("b", "beta words", null);
+        searchIndex.index(a);
+        searchIndex.index(b);
+        noteTotals.load(Map.of(Set.of(NoteTag.PERSONAL), 1L, Set.of(), 1L));
+        when(noteRepository.findStatisticsByIdIn(List.of("a", "b"))).thenReturn(List.of(a, b));
+        when(noteRepository.findStatisticsByIdIn(Set.of("a", "b"))).thenReturn(List.of(
+                retagged(a, Set.of(NoteTag.IMPORTANT), 1), retagged(b, Set.of(NoteTag.IMPORTANT), 1)));
+
+        NoteBatchResultDTO result = noteBatchService.updateTags(List.of("a", "b"), add, remove);
+
+        assertThat(result.succeeded()).isEqualTo(2);
+        verify(noteRepository).updateTags(Set.of("a", "b"), add, remove);
+        assertThat(corpusStatistics.top(NoteTag.IMPORTANT, 10).words()).extracting(WordCount::word)
+                .containsExactly("words", "alpha", "beta");
+        assertThat(corpusStatistics.top(NoteTag.PERSONAL, 10).notes()).isZero();
+        assertThat(noteTotals.count(Set.of(NoteTag.IMPORTANT), TagMatch.ANY)).hasValue(2);
+        assertThat(noteTotals.count(Set.of(NoteTag.PERSONAL), TagMatch.ANY)).hasValue(0);
+
+        ArgumentCaptor<NoteChangeDTO> changes = ArgumentCaptor.forClass(NoteChangeDTO.class);
+        verify(changeFeed, times(2)).publish(changes.capture());
+        assertThat(changes.getAllValues()).extracting(NoteChangeDTO::id, NoteChangeDTO::op, NoteChangeDTO::tags)
+                .containsExactly(tuple("a", NoteChangeOperation.UPDATE, Set.of(NoteTag.IMPORTANT)),
+                        tuple("b", NoteChangeOperation.UPDATE, Set.of(NoteTag.IMPORTANT)));
+    }
+
+    @Test
+    @DisplayName("Should reject a chunk size below one")
+    void setChunkSize_NotPositive_Throws() {
+        assertThatThrownBy(() -> noteBatchService.setChunkSize(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("notes.batch.chunk-size");
+    }
+
+    private static Note retagged(Note note, Set<NoteTag> tags, long version) {
+        Note retagged = new Note();
+        retagged.setId(note.getId());
+        retagged.setTags(tags);
+        retagged.setWordFrequencies(note.getWordFrequencies());
+        retagged.setVersion(version);
+        return retagged;
+    }
+
+    private Note stored(String id, String text, Set<NoteTag> tags) {
+        Note note = new Note();
+        note.setId(id);
+        note.setText(text);
+        note.setTags(tags);
+        note.setWordFrequencies(new NoteStatisticsIndexer(new ScanningWordCounter()).compute(text));
+        return note;
+    }
+}
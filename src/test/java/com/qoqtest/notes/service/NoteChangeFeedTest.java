@@ -0,0 +1,150 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.dto.NoteChangeDTO;
+import com.qoqtest.notes.dto.NoteChangeOperation;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.mapper.NoteMapperImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NoteChangeFeedTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final NoteChangeFeed changeFeed = new NoteChangeFeed(new NoteMapperImpl());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(changeFeed, "bufferSize", 3);
+    }
+
+    @Test
+    @DisplayName("Should deliver changes written after subscribing")
+    void changesAfter_NoToken_DeliversNewChanges() {
+        changeFeed.deleted("old");
+        Note note = note("1", Set.of(NoteTag.BUSINESS));
+        Note retagged = note("1", Set.of(NoteTag.IMPORTANT));
+        retagged.setVersion(1);
+
+        StepVerifier.create(changeFeed.changesAfter(null))
+                .then(() -> changeFeed.created(note))
+                .assertNext(event -> assertThat(event.change()).isEqualTo(new NoteChangeDTO(
+                        NoteChangeOperation.CREATE, "1", 0L, "Title 1", note.getCreatedDate(), Set.of(NoteTag.BUSINESS))))
+                .then(() -> changeFeed.updated(retagged))
+                .assertNext(event -> assertThat(event.change().tags()).containsExactly(NoteTag.IMPORTANT))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("Should replay the changes after a token before the new ones")
+    void changesAfter_Token_ReplaysMissedChanges() {
+        changeFeed.deleted("1");
+        String token = firstEventAfter(null, () -> changeFeed.deleted("2")).token();
+        changeFeed.deleted("3");
+        changeFeed.deleted("4");
+
+        StepVerifier.create(changeFeed.changesAfter(token).map(event -> event.change().id()))
+                .expectNext("3", "4")
+                .then(() -> changeFeed.deleted("5"))
+                .expectNext("5")
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("Should reset a subscriber whose token is unknown or no longer buffered")
+    void changesAfter_UnresumableToken_StartsWithReset() {
+        String token = firstEventAfter(null, () -> changeFeed.deleted("1")).token();
+        for (int i = 2; i <= 5; i++) {
+            changeFeed.deleted(String.valueOf(i));
+        }
+
+        for (String unresumable : List.of(token, "other-feed-1", "garbage")) {
+            StepVerifier.create(changeFeed.changesAfter(unresumable))
+                    .assertNext(event -> assertThat(event.change().op()).isEqualTo(NoteChangeOperation.RESET))
+                    .then(() -> changeFeed.deleted("6"))
+                    .assertNext(event -> assertThat(event.change().id()).isEqualTo("6"))
+                    .thenCancel()
+                    .verify(TIMEOUT);
+        }
+    }
+
+    @Test
+    @DisplayName("Should resume from the token of a reset without missing changes")
+    void changesAfter_ResetToken_ResumesAfterIt() {
+        NoteChangeEvent reset = firstEventAfter("garbage", () -> {});
+        changeFeed.deleted("1");
+
+        StepVerifier.create(changeFeed.changesAfter(reset.token()).map(event -> event.change().id()))
+                .expectNext("1")
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("Should leave recording to the change stream when it is enabled")
+    void created_ChangeStreamEnabled_RecordsNothing() {
+        ReflectionTestUtils.setField(changeFeed, "changeStream", true);
+
+        StepVerifier.create(changeFeed.changesAfter(null).map(event -> event.change().id()))
+                .then(() -> {
+                    changeFeed.created(note("1", null));
+                    changeFeed.publish(new NoteChangeDTO(NoteChangeOperation.DELETE, "2"));
+                })
+                .expectNext("2")
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("Should drop changes not newer than the last one recorded for the note")
+    void updated_OutOfOrder_DropsOlderVersions() {
+        Note newer = note("1", Set.of(NoteTag.IMPORTANT));
+        newer.setVersion(2);
+        Note older = note("1", Set.of(NoteTag.BUSINESS));
+        older.setVersion(1);
+        Note afterDelete = note("1", null);
+        afterDelete.setVersion(3);
+
+        StepVerifier.create(changeFeed.changesAfter(null).map(event -> event.change().op() + " " + event.change().version()))
+                .then(() -> {
+                    changeFeed.updated(newer);
+                    changeFeed.updated(older);
+                    changeFeed.updated(newer);
+                    changeFeed.deleted("1");
+                    changeFeed.updated(afterDelete);
+                    changeFeed.created(note("2", null));
+                })
+                .expectNext("UPDATE 2", "DELETE null", "CREATE 0")
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    private NoteChangeEvent firstEventAfter(String token, Runnable write) {
+        return changeFeed.changesAfter(token)
+                .doOnSubscribe(subscription -> write.run())
+                .blockFirst(TIMEOUT);
+    }
+
+    private static Note note(String id, Set<NoteTag> tags) {
+        Note note = new Note();
+        note.setId(id);
+        note.setTitle("Title " + id);
+        note.setText("Text " + id);
+        note.setCreatedDate(Instant.parse("2026-01-05T10:00:00Z"));
+        note.setTags(tags);
+        return note;
+    }
+}
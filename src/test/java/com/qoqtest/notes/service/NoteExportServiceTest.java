@@ -0,0 +1,75 @@
+package com.qoqtest.notes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qoqtest.notes.dto.NoteFullResponseDTO;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.mapper.NoteMapperImpl;
+import com.qoqtest.notes.repository.NoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NoteExportServiceTest {
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    private final ObjectMapper objectMapper = new Jackson2ObjectMapperBuilder().build();
+
+    private NoteExportService noteExportService;
+
+    @BeforeEach
+    void setUp() {
+        noteExportService = new NoteExportService(noteRepository, new NoteMapperImpl(), objectMapper);
+    }
+
+    @Test
+    @DisplayName("Should write one full note per line and close the cursor")
+    void exportNotes_WritesNdjson() throws Exception {
+        Set<NoteTag> tags = Set.of(NoteTag.PERSONAL);
+        Instant from = Instant.parse("2026-01-01T00:00:00Z");
+        Instant created = Instant.parse("2026-02-03T04:05:06Z");
+        AtomicBoolean closed = new AtomicBoolean();
+        when(noteRepository.streamForExport(tags, from, null)).thenReturn(Stream.of(
+                        new Note("1", "First", "multi\nline", created, tags, 0, null, null, null),
+                        new Note("2", "Second", "text", created, null, 0, null, null, null))
+                .onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = noteExportService.exportNotes(tags, from, null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(exported).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], NoteFullResponseDTO.class))
+                .isEqualTo(new NoteFullResponseDTO("1", "First", "multi\nline", created, tags, 0, created));
+        assertThat(objectMapper.readValue(lines[1], NoteFullResponseDTO.class).id()).isEqualTo("2");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should write nothing when no note matches")
+    void exportNotes_NoMatches_WritesNothing() throws Exception {
+        when(noteRepository.streamForExport(null, null, null)).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(noteExportService.exportNotes(null, null, null, out)).isZero();
+        assertThat(out.size()).isZero();
+    }
+}
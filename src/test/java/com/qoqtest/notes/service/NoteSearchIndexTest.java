@@ -0,0 +1,146 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.dto.SearchOperator;
+import com.qoqtest.notes.dto.SearchOrder;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NoteSearchIndexTest {
+
+    private final NoteStatisticsIndexer statisticsIndexer = new NoteStatisticsIndexer(new ScanningWordCounter());
+
+    private final NoteSearchIndex searchIndex = new NoteSearchIndex(new CorpusWordStatistics());
+
+    @Test
+    @DisplayName("Should require every term with AND and any term with OR, best match first")
+    void search_AndOr_MatchesAndRanks() {
+        searchIndex.index(note("1", 1, "Java and Spring", null));
+        searchIndex.index(note("2", 2, "Java java java", null));
+        searchIndex.index(note("3", 3, "Spring only", null));
+
+        NoteSearchIndex.Result all = searchIndex.search(List.of("java", "spring"), SearchOperator.AND, null, SearchOrder.RELEVANCE, 0, 10);
+        NoteSearchIndex.Result any = searchIndex.search(List.of("java", "spring"), SearchOperator.OR, null, SearchOrder.RELEVANCE, 0, 10);
+        NoteSearchIndex.Result java = searchIndex.search(List.of("java"), SearchOperator.AND, null, SearchOrder.RELEVANCE, 0, 10);
+
+        assertThat(all.hits()).extracting(NoteSearchIndex.Hit::id).containsExactly("1");
+        assertThat(any.total()).isEqualTo(3);
+        assertThat(java.hits()).extracting(NoteSearchIndex.Hit::id).containsExactly("2", "1");
+        assertThat(searchIndex.search(List.of("java", "kotlin"), SearchOperator.AND, null, SearchOrder.RELEVANCE, 0, 10).total())
+                .isZero();
+    }
+
+    @Test
+    @DisplayName("Should filter by tags and page through matches newest first")
+    void search_TagsAndNewest_ReturnsRequestedPage() {
+        searchIndex.index(note("1", 1, "meeting notes", Set.of(NoteTag.BUSINESS)));
+        searchIndex.index(note("2", 2, "meeting notes", Set.of(NoteTag.PERSONAL)));
+        searchIndex.index(note("3", 3, "meeting notes meeting", Set.of(NoteTag.BUSINESS, NoteTag.IMPORTANT)));
+        searchIndex.index(note("4", 4, "meeting", Set.of(NoteTag.BUSINESS)));
+
+        NoteSearchIndex.Result firstPage = searchIndex.search(List.of("meeting"), SearchOperator.AND,
+                Set.of(NoteTag.BUSINESS), SearchOrder.NEWEST, 0, 2);
+        NoteSearchIndex.Result secondPage = searchIndex.search(List.of("meeting"), SearchOperator.AND,
+                Set.of(NoteTag.BUSINESS), SearchOrder.NEWEST, 2, 2);
+
+        assertThat(firstPage.total()).isEqualTo(3);
+        assertThat(firstPage.hits()).extracting(NoteSearchIndex.Hit::id).containsExactly("4", "3");
+        assertThat(secondPage.hits()).extracting(NoteSearchIndex.Hit::id).containsExactly("1");
+    }
+
+    @Test
+    @DisplayName("Should reflect updated text, changed tags and deleted notes")
+    void indexRemoveUpdateTags_KeepIndexCurrent() {
+        Note first = note("1", 1, "old words", null);
+        Note second = note("2", 2, "old words", null);
+        searchIndex.index(first);
+        searchIndex.index(second);
+
+        Note updated = note("1", 1, "new words", null);
+        updated.setVersion(1);
+        Note retagged = note("1", 1, "new words", Set.of(NoteTag.IMPORTANT));
+        retagged.setVersion(2);
+        searchIndex.index(updated);
+        searchIndex.remove("2");
+        searchIndex.index(retagged);
+
+        assertThat(searchIndex.search(List.of("old"), SearchOperator.OR, null, SearchOrder.RELEVANCE, 0, 10).total()).isZero();
+        assertThat(searchIndex.search(List.of("new"), SearchOperator.OR, Set.of(NoteTag.IMPORTANT), SearchOrder.RELEVANCE, 0, 10)
+                .hits()).extracting(NoteSearchIndex.Hit::id).containsExactly("1");
+        assertThat(searchIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep results correct after dead entries are compacted away")
+    void remove_ManyNotes_CompactsAndKeepsResults() {
+        for (int i = 0; i < 3000; i++) {
+            searchIndex.index(note(String.valueOf(i), i, i % 2 == 0 ? "even number" : "odd number", null));
+        }
+        for (int i = 0; i < 2500; i++) {
+            searchIndex.remove(String.valueOf(i));
+        }
+
+        NoteSearchIndex.Result even = searchIndex.search(List.of("even"), SearchOperator.AND, null, SearchOrder.NEWEST, 0, 3);
+
+        assertThat(even.total()).isEqualTo(250);
+        assertThat(even.hits()).extracting(NoteSearchIndex.Hit::id).containsExactly("2998", "2996", "2994");
+        assertThat(searchIndex.search(List.of("number"), SearchOperator.AND, null, SearchOrder.NEWEST, 0, 1).total())
+                .isEqualTo(500);
+    }
+
+    @Test
+    @DisplayName("Should not let a startup load overwrite notes written or deleted meanwhile")
+    void load_ConcurrentWrites_Win() {
+        searchIndex.beginLoad();
+        searchIndex.index(note("1", 1, "fresh text", null));
+        searchIndex.remove("2");
+
+        searchIndex.load(List.of(note("1", 1, "stale text", null), note("2", 2, "deleted text", null), note("3", 3, "other text", null)));
+        searchIndex.finishLoad();
+
+        assertThat(searchIndex.search(List.of("text"), SearchOperator.AND, null, SearchOrder.NEWEST, 0, 10).hits())
+                .extracting(NoteSearchIndex.Hit::id).containsExactly("3", "1");
+        assertThat(searchIndex.search(List.of("stale"), SearchOperator.AND, null, SearchOrder.NEWEST, 0, 10).total()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should ignore writes older than the indexed version and writes after a removal")
+    void index_OutOfOrderWrites_KeepNewest() {
+        Note created = note("1", 1, "first draft", null);
+        Note newer = note("1", 1, "final text", Set.of(NoteTag.IMPORTANT));
+        newer.setVersion(2);
+        Note older = note("1", 1, "second draft", null);
+        older.setVersion(1);
+        Note other = note("2", 2, "other draft", null);
+
+        assertThat(searchIndex.index(created)).isEqualTo(new NoteSearchIndex.Indexed(true, null));
+        assertThat(searchIndex.index(newer)).isEqualTo(new NoteSearchIndex.Indexed(true, Set.of()));
+        assertThat(searchIndex.index(older).applied()).isFalse();
+        searchIndex.index(other);
+        assertThat(searchIndex.remove("2")).contains(Set.of());
+        other.setVersion(1);
+
+        assertThat(searchIndex.index(other).applied()).isFalse();
+        assertThat(searchIndex.remove("2")).isEmpty();
+        assertThat(searchIndex.search(List.of("draft"), SearchOperator.OR, null, SearchOrder.NEWEST, 0, 10).total()).isZero();
+        assertThat(searchIndex.search(List.of("final"), SearchOperator.AND, Set.of(NoteTag.IMPORTANT), SearchOrder.NEWEST, 0, 10)
+                .hits()).extracting(NoteSearchIndex.Hit::id).containsExactly("1");
+    }
+
+    private Note note(String id, long createdSecond, String text, Set<NoteTag> tags) {
+        Note note = new Note();
+        note.setId(id);
+        note.setCreatedDate(Instant.ofEpochSecond(createdSecond));
+        note.setText(text);
+        note.setTags(tags);
+        statisticsIndexer.index(note);
+        return note;
+    }
+}
@@ -0,0 +1,107 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.config.CacheConfig;
+import com.qoqtest.notes.dto.NoteChangeDTO;
+import com.qoqtest.notes.dto.NoteChangeOperation;
+import com.qoqtest.notes.dto.NoteFullResponseDTO;
+import com.qoqtest.notes.dto.NoteRequestDTO;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.WordCount;
+import com.qoqtest.notes.mapper.NoteMapper;
+import com.qoqtest.notes.repository.NoteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(
+        classes = {NoteService.class, NoteStatisticsIndexer.class, NoteSearchIndex.class, CorpusWordStatistics.class, NoteTotals.class, SingleFlight.class, NoteChangeFeed.class, SimpleMeterRegistry.class, ScanningWordCounter.class, CacheConfig.class},
+        properties = {
+                "spring.cache.type=caffeine",
+                "spring.cache.cache-names=notes,noteStatistics"
+        })
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+class NoteServiceCacheTest {
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockitoBean
+    private NoteRepository noteRepository;
+
+    @MockitoBean
+    private NoteMapper noteMapper;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("Should load a note once and serve repeated reads from the cache")
+    void getNoteById_RepeatedReads_HitsRepositoryOnce() {
+        Note note = new Note();
+        NoteFullResponseDTO dto = new NoteFullResponseDTO("1", "Title", "Text", null, null, 0, null);
+        when(noteRepository.findById("1")).thenReturn(Optional.of(note));
+        when(noteMapper.toFullResponseDTO(note)).thenReturn(dto);
+
+        assertThat(noteService.getNoteById("1")).isEqualTo(dto);
+        assertThat(noteService.getNoteById("1")).isEqualTo(dto);
+
+        verify(noteRepository, times(1)).findById("1");
+        verify(noteMapper, times(1)).toFullResponseDTO(note);
+    }
+
+    @Test
+    @DisplayName("Should evict the cached note and statistics when the note is updated")
+    void updateNote_EvictsCachedNoteAndStatistics() {
+        Note note = new Note();
+        note.setWordFrequencies(List.of(new WordCount("old", 1)));
+        note.setWordStatsVersion(NoteStatisticsIndexer.CURRENT_VERSION);
+        when(noteRepository.findById("1")).thenReturn(Optional.of(note));
+        when(noteRepository.findStatisticsById("1")).thenReturn(Optional.of(note));
+        when(noteMapper.toEntity(any())).thenReturn(new Note());
+        when(noteRepository.updateFields(any(Note.class), isNull())).thenReturn(Optional.of(note));
+        when(noteMapper.toFullResponseDTO(any(Note.class)))
+                .thenReturn(new NoteFullResponseDTO("1", "Title", "Text", null, null, 0, null));
+        when(noteMapper.toChangeDTO(any(Note.class), eq(NoteChangeOperation.UPDATE)))
+                .thenReturn(new NoteChangeDTO(NoteChangeOperation.UPDATE, "1"));
+
+        noteService.getNoteById("1");
+        noteService.getNoteWordFrequencyDescending("1");
+        noteService.updateNote("1", new NoteRequestDTO("New Title", null, null), null);
+
+        assertThat(cacheManager.getCache(CacheConfig.NOTES).get("1")).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.NOTE_STATISTICS).get("1")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should evict the cached note when the note is deleted")
+    void deleteNote_EvictsCachedNote() {
+        Note note = new Note();
+        when(noteRepository.findById("1")).thenReturn(Optional.of(note));
+        when(noteMapper.toFullResponseDTO(note)).thenReturn(new NoteFullResponseDTO("1", "Title", "Text", null, null, 0, null));
+
+        noteService.getNoteById("1");
+        noteService.deleteNote("1");
+        noteService.getNoteById("1");
+
+        verify(noteRepository, times(2)).findById("1");
+    }
+}
@@ -0,0 +1,99 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.config.MetricsConfig;
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.dto.PageTotal;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+import com.qoqtest.notes.exception.NoteNotFoundException;
+import com.qoqtest.notes.mapper.NoteMapper;
+import com.qoqtest.notes.repository.NoteRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAspectsAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(
+        classes = {NoteService.class, NoteStatisticsIndexer.class, ScanningWordCounter.class, NoteSearchIndex.class, CorpusWordStatistics.class, NoteTotals.class, SingleFlight.class, NoteChangeFeed.class,
+                MetricsConfig.class, SimpleMeterRegistry.class},
+        properties = "management.observations.annotations.enabled=true")
+@ImportAutoConfiguration({AopAutoConfiguration.class, MetricsAspectsAutoConfiguration.class})
+class NoteServiceMetricsTest {
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private NoteRepository noteRepository;
+
+    @MockitoBean
+    private NoteMapper noteMapper;
+
+    @Test
+    @DisplayName("Should time listings separately with and without a tag filter")
+    void getAllNotes_TimedPerFilter() {
+        when(noteRepository.findAllSummaries(any(Pageable.class))).thenReturn(List.of());
+        when(noteRepository.findSummariesByTagsIn(eq(Set.of(NoteTag.BUSINESS)), any(Pageable.class))).thenReturn(List.of());
+
+        noteService.getAllNotes(null, TagMatch.ANY, 0, 10, PageTotal.EXACT);
+        noteService.getAllNotes(Set.of(NoteTag.BUSINESS), TagMatch.ANY, 0, 10, PageTotal.EXACT);
+        noteService.getAllNotes(Set.of(NoteTag.BUSINESS), TagMatch.ANY, 1, 10, PageTotal.APPROXIMATE);
+
+        assertThat(operationCount("list", "filtered", "false")).isEqualTo(1);
+        assertThat(operationCount("list", "filtered", "true")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should tag failed operations with their exception")
+    void getNoteById_NotFound_TimedWithException() {
+        when(noteRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertThrows(NoteNotFoundException.class, () -> noteService.getNoteById("missing"));
+
+        assertThat(operationCount("getById", "exception", "NoteNotFoundException")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should count word histograms served as stored")
+    void getNoteWordFrequencyDescending_CountsStoredHistograms() {
+        Note stored = new Note();
+        stored.setWordFrequencies(List.of(new WordCount("note", 1)));
+        stored.setWordStatsVersion(NoteStatisticsIndexer.CURRENT_VERSION);
+        when(noteRepository.findStatisticsById("1")).thenReturn(Optional.of(stored));
+
+        noteService.getNoteWordFrequencyDescending("1");
+
+        assertThat(meterRegistry.get("notes.statistics.histograms").tag("result", "stored").counter().count())
+                .isEqualTo(1.0);
+        assertThat(operationCount("stats", "exception", "none")).isEqualTo(1);
+    }
+
+    private long operationCount(String operation, String tagKey, String tagValue) {
+        return meterRegistry.get(MetricsConfig.OPERATIONS)
+                .tag(MetricsConfig.OPERATION, operation)
+                .tag(tagKey, tagValue)
+                .timer()
+                .count();
+    }
+}
@@ -1,18 +1,28 @@
 package com.qoqtest.notes.service;
 
+import com.qoqtest.notes.dto.TagFacetsDTO;
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.dto.NoteCursorPageDTO;
 import com.qoqtest.notes.dto.NoteFullResponseDTO;
 import com.qoqtest.notes.dto.NoteRequestDTO;
 import com.qoqtest.notes.dto.NoteShortResponseDTO;
+import com.qoqtest.notes.dto.PageTotal;
 import com.qoqtest.notes.entity.Note;
 import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+import com.qoqtest.notes.exception.InvalidCursorException;
 import com.qoqtest.notes.exception.NoteNotFoundException;
+import com.qoqtest.notes.exception.NoteVersionMismatchException;
 import com.qoqtest.notes.mapper.NoteMapper;
 import com.qoqtest.notes.repository.NoteRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 
@@ -36,6 +46,24 @@ class NoteServiceTest {
     @Mock
     private NoteMapper noteMapper;
 
+    @Spy
+    private NoteStatisticsIndexer statisticsIndexer = new NoteStatisticsIndexer(new ScanningWordCounter());
+
+    @Mock
+    private NoteSearchIndex searchIndex;
+
+    @Spy
+    private NoteTotals noteTotals = new NoteTotals();
+
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+
+    @Mock
+    private NoteChangeFeed changeFeed;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private NoteService noteService;
 
@@ -44,7 +72,7 @@ class NoteServiceTest {
     void createNote_Success() {
         NoteRequestDTO dto = new NoteRequestDTO("New Note", "Content", null);
         Note note = new Note();
-        NoteFullResponseDTO expected = new NoteFullResponseDTO("1", "New Note", "Content", null, null);
+        NoteFullResponseDTO expected = new NoteFullResponseDTO("1", "New Note", "Content", null, null, 0, null);
 
         when(noteMapper.toEntity(dto)).thenReturn(note);
         when(noteRepository.save(note)).thenReturn(note);
@@ -53,7 +81,10 @@ class NoteServiceTest {
         NoteFullResponseDTO result = noteService.createNote(dto);
 
         assertThat(result.title()).isEqualTo("New Note");
+        assertThat(note.getWordFrequencies()).isEmpty();
+        assertThat(note.getWordStatsVersion()).isEqualTo(NoteStatisticsIndexer.CURRENT_VERSION);
         verify(noteRepository).save(note);
+        verify(changeFeed).created(note);
     }
 
     @Test
@@ -62,7 +93,7 @@ class NoteServiceTest {
         String id = "123";
         Note note = new Note();
         note.setId(id);
-        NoteFullResponseDTO expectedDto = new NoteFullResponseDTO(id, "Title", "Text", null, null);
+        NoteFullResponseDTO expectedDto = new NoteFullResponseDTO(id, "Title", "Text", null, null, 0, null);
 
         when(noteRepository.findById(id)).thenReturn(Optional.of(note));
         when(noteMapper.toFullResponseDTO(note)).thenReturn(expectedDto);
@@ -88,7 +119,9 @@ class NoteServiceTest {
         String id = "1";
         Note note = new Note();
         note.setText("Java is cool, java is powerful!");
+        note.setVersion(3);
 
+        when(noteRepository.findStatisticsById(id)).thenReturn(Optional.of(new Note()));
         when(noteRepository.findById(id)).thenReturn(Optional.of(note));
 
         Map<String, Long> stats = noteService.getNoteWordFrequencyDescending(id);
@@ -98,6 +131,24 @@ class NoteServiceTest {
         assertThat(stats.get("cool")).isEqualTo(1L);
 
         assertThat(stats.keySet().iterator().next()).isIn("java", "is");
+        verify(noteRepository).updateWordStatistics(eq(id), eq(3L), anyList(), eq(NoteStatisticsIndexer.CURRENT_VERSION));
+    }
+
+    @Test
+    @DisplayName("Should serve stored word statistics without reloading the note text")
+    void getNoteWordFrequencyDescending_FreshStatistics_ServedFromIndex() {
+        String id = "1";
+        Note stored = new Note();
+        stored.setWordFrequencies(List.of(new WordCount("note", 2), new WordCount("is", 1)));
+        stored.setWordStatsVersion(NoteStatisticsIndexer.CURRENT_VERSION);
+
+        when(noteRepository.findStatisticsById(id)).thenReturn(Optional.of(stored));
+
+        Map<String, Long> stats = noteService.getNoteWordFrequencyDescending(id);
+
+        assertThat(stats).containsExactly(Map.entry("note", 2L), Map.entry("is", 1L));
+        verify(noteRepository, never()).findById(id);
+        verify(noteRepository, never()).updateWordStatistics(anyString(), anyLong(), anyList(), anyInt());
     }
 
     @Test
@@ -107,6 +158,7 @@ class NoteServiceTest {
         Note note = new Note();
         note.setText("   ");
 
+        when(noteRepository.findStatisticsById(id)).thenReturn(Optional.of(new Note()));
         when(noteRepository.findById(id)).thenReturn(Optional.of(note));
 
         Map<String, Long> stats = noteService.getNoteWordFrequencyDescending(id);
@@ -119,7 +171,7 @@ class NoteServiceTest {
     void getNoteWordFrequencyDescending_NotFound_ThrowsException() {
         String id = "404-id";
 
-        when(noteRepository.findById(id)).thenReturn(Optional.empty());
+        when(noteRepository.findStatisticsById(id)).thenReturn(Optional.empty());
 
         NoteNotFoundException exception = assertThrows(NoteNotFoundException.class, () ->
                 noteService.getNoteWordFrequencyDescending(id)
@@ -127,36 +179,119 @@ class NoteServiceTest {
 
         assertThat(exception.getMessage()).isEqualTo("Note not found with id: " + id);
 
-        verify(noteRepository, times(1)).findById(id);
+        verify(noteRepository, times(1)).findStatisticsById(id);
     }
 
     @Test
     @DisplayName("Should delete note when it exists")
     void deleteNote_Exists_DeletesSuccessfully() {
         String id = "123";
+        Note removed = new Note();
+        removed.setId(id);
+        removed.setTags(Set.of(NoteTag.BUSINESS));
+        when(noteRepository.removeById(id)).thenReturn(Optional.of(removed));
 
         noteService.deleteNote(id);
 
-        verify(noteRepository, times(1)).deleteById(id);
+        verify(noteRepository, times(1)).removeById(id);
+        verify(searchIndex).remove(id);
+        verify(noteTotals).remove(Set.of(NoteTag.BUSINESS));
+        verify(singleFlight).forget(id);
+        verify(changeFeed).deleted(id);
     }
 
     @Test
-    @DisplayName("Should update note when it exists")
+    @DisplayName("Should update note in one atomic write and return it at the next version")
     void updateNote_Exists_ReturnsUpdatedDto() {
         String id = "1";
-        Note existingNote = new Note();
+        List<WordCount> oldWords = List.of(new WordCount("old", 1));
+        Note previous = new Note();
+        previous.setId(id);
+        previous.setVersion(2);
+        previous.setWordFrequencies(oldWords);
+        Note changes = new Note();
+        changes.setText("New Text");
         NoteRequestDTO dto = new NoteRequestDTO("New Title", "New Text", null);
-        NoteFullResponseDTO expectedResponse = new NoteFullResponseDTO(id, "New Title", "New Text", null, null);
+        NoteFullResponseDTO expectedResponse = new NoteFullResponseDTO(id, "New Title", "New Text", null, null, 3, null);
 
-        when(noteRepository.findById(id)).thenReturn(Optional.of(existingNote));
-        when(noteRepository.save(existingNote)).thenReturn(existingNote);
-        when(noteMapper.toFullResponseDTO(existingNote)).thenReturn(expectedResponse);
+        when(noteMapper.toEntity(dto)).thenReturn(changes);
+        when(noteRepository.updateFields(changes, null)).thenReturn(Optional.of(previous));
+        when(searchIndex.index(previous)).thenReturn(new NoteSearchIndex.Indexed(true, null));
+        when(noteMapper.toFullResponseDTO(previous)).thenReturn(expectedResponse);
 
-        NoteFullResponseDTO result = noteService.updateNote(id, dto);
+        NoteFullResponseDTO result = noteService.updateNote(id, dto, null);
 
         assertThat(result.title()).isEqualTo("New Title");
+        assertThat(changes.getId()).isEqualTo(id);
+        assertThat(previous.getVersion()).isEqualTo(3);
+        assertThat(previous.getLastModifiedDate()).isEqualTo(changes.getLastModifiedDate());
+
+        verify(statisticsIndexer).index(changes);
+        verify(noteMapper).updateEntityFromDto(dto, previous);
+        verify(searchIndex).index(previous);
+        verify(singleFlight).forget(id);
+        verify(changeFeed).updated(previous);
+        verify(noteRepository, never()).findById(any());
+        verify(noteRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should leave the word statistics alone when the text is not changed")
+    void updateNote_NoText_KeepsWordStatistics() {
+        Note changes = new Note();
+        NoteRequestDTO dto = new NoteRequestDTO(null, null, Set.of(NoteTag.IMPORTANT));
 
-        verify(noteMapper).updateEntityFromDto(dto, existingNote);
+        when(noteMapper.toEntity(dto)).thenReturn(changes);
+        when(noteRepository.updateFields(changes, 4L)).thenReturn(Optional.of(new Note()));
+        when(searchIndex.index(any(Note.class))).thenReturn(new NoteSearchIndex.Indexed(true, null));
+
+        noteService.updateNote("1", dto, 4L);
+
+        verify(statisticsIndexer, never()).index(any());
+    }
+
+    @Test
+    @DisplayName("Should move the totals from the indexed tags and skip an update older than the indexed version")
+    void updateNote_OutOfOrder_TotalsFollowIndex() {
+        NoteRequestDTO dto = new NoteRequestDTO(null, null, Set.of(NoteTag.IMPORTANT));
+        Note stale = new Note();
+        stale.setTags(Set.of(NoteTag.BUSINESS));
+        noteTotals.load(Map.of(Set.of(NoteTag.PERSONAL), 1L));
+
+        when(noteMapper.toEntity(dto)).thenReturn(new Note());
+        doAnswer(invocation -> {
+            invocation.<Note>getArgument(1).setTags(dto.tags());
+            return null;
+        }).when(noteMapper).updateEntityFromDto(eq(dto), any(Note.class));
+        when(noteRepository.updateFields(any(Note.class), isNull())).thenReturn(Optional.of(stale), Optional.of(new Note()));
+        when(searchIndex.index(any(Note.class))).thenReturn(
+                new NoteSearchIndex.Indexed(true, Set.of(NoteTag.PERSONAL)), new NoteSearchIndex.Indexed(false, null));
+
+        noteService.updateNote("1", dto, null);
+        noteService.updateNote("1", dto, null);
+
+        assertThat(noteTotals.count(Set.of(NoteTag.IMPORTANT), TagMatch.ANY)).hasValue(1);
+        assertThat(noteTotals.count(Set.of(NoteTag.PERSONAL), TagMatch.ANY)).hasValue(0);
+        assertThat(noteTotals.count(null, TagMatch.ANY)).hasValue(1);
+        verify(changeFeed, times(2)).updated(any(Note.class));
+    }
+
+    @Test
+    @DisplayName("Should reject an update based on another version of the note")
+    void updateNote_OtherVersion_ThrowsVersionMismatch() {
+        Note current = new Note();
+        current.setVersion(3);
+        NoteRequestDTO dto = new NoteRequestDTO("New Title", null, null);
+
+        when(noteMapper.toEntity(dto)).thenReturn(new Note());
+        when(noteRepository.updateFields(any(Note.class), eq(2L))).thenReturn(Optional.empty());
+        when(noteRepository.findVersionById("1")).thenReturn(Optional.of(current));
+
+        NoteVersionMismatchException exception = assertThrows(NoteVersionMismatchException.class, () ->
+                noteService.updateNote("1", dto, 2L));
+
+        assertThat(exception.getMessage()).isEqualTo("Note 1 is at version 3, not 2");
+        verify(searchIndex, never()).index(any(Note.class));
     }
 
     @Test
@@ -166,15 +301,17 @@ class NoteServiceTest {
         String id = "999";
         NoteRequestDTO dto = new NoteRequestDTO("Updated Title", "Updated Content", null);
 
-        when(noteRepository.findById(id)).thenReturn(Optional.empty());
+        when(noteMapper.toEntity(dto)).thenReturn(new Note());
+        when(noteRepository.updateFields(any(Note.class), eq(null))).thenReturn(Optional.empty());
 
         NoteNotFoundException exception = assertThrows(NoteNotFoundException.class, () ->
-                noteService.updateNote(id, dto)
+                noteService.updateNote(id, dto, null)
         );
 
         assertThat(exception.getMessage()).isEqualTo("Note not found with id: " + id);
 
-        verify(noteRepository, never()).save(any(Note.class));
+        verify(noteRepository, never()).findVersionById(any());
+        verify(searchIndex, never()).index(any(Note.class));
     }
 
     @Test
@@ -182,16 +319,18 @@ class NoteServiceTest {
     void getAllNotes_NoTags_ReturnsPagedNotes() {
 
         Pageable pageable = PageRequest.of(0, 10, Sort.by("createdDate").descending());
-        Page<Note> notePage = new PageImpl<>(List.of(new Note()));
 
-        when(noteRepository.findAll(pageable)).thenReturn(notePage);
+        when(noteRepository.findAllSummaries(pageable)).thenReturn(List.of(new Note()));
         when(noteMapper.toShortResponseDTO(any(Note.class))).thenReturn(new NoteShortResponseDTO("1", "Title", null));
 
-        Page<NoteShortResponseDTO> result = noteService.getAllNotes(null, 0, 10);
+        Page<NoteShortResponseDTO> result = noteService.getAllNotes(null, TagMatch.ANY, 0, 10, PageTotal.EXACT);
 
         assertThat(result).isNotEmpty();
+        assertThat(result.getTotalElements()).isEqualTo(1);
 
-        verify(noteRepository).findAll(pageable);
+        verify(noteRepository).findAllSummaries(pageable);
+        verify(noteRepository, never()).count();
+        verify(noteRepository, never()).findAll(any(Pageable.class));
     }
 
     @Test
@@ -202,17 +341,135 @@ class NoteServiceTest {
         Pageable pageable = PageRequest.of(0, 10, Sort.by("createdDate").descending());
 
         Note note = new Note();
-        Page<Note> notePage = new PageImpl<>(List.of(note));
 
-        when(noteRepository.findByTagsIn(tags, pageable)).thenReturn(notePage);
+        when(noteRepository.findSummariesByTagsIn(tags, pageable)).thenReturn(List.of(note));
 
         when(noteMapper.toShortResponseDTO(any(Note.class)))
                 .thenReturn(new NoteShortResponseDTO("1", "Title", Instant.now()));
 
-        Page<NoteShortResponseDTO> result = noteService.getAllNotes(tags, 0, 10);
+        Page<NoteShortResponseDTO> result = noteService.getAllNotes(tags, TagMatch.ANY, 0, 10, PageTotal.EXACT);
 
         assertThat(result).isNotEmpty();
         assertThat(result.getContent().getFirst().title()).isEqualTo("Title");
-        verify(noteRepository).findByTagsIn(tags, pageable);
+        verify(noteRepository).findSummariesByTagsIn(tags, pageable);
+    }
+
+    @Test
+    @DisplayName("Should count the exact total of a full page in MongoDB")
+    void getAllNotes_ExactTotal_CountsMatchingNotes() {
+        Set<NoteTag> tags = Set.of(NoteTag.IMPORTANT);
+        noteTotals.load(Map.of(Set.of(NoteTag.IMPORTANT), 7L));
+
+        when(noteRepository.findSummariesByTagsIn(eq(tags), any(Pageable.class))).thenReturn(List.of(new Note(), new Note()));
+        when(noteRepository.countByTagsIn(tags)).thenReturn(42L);
+
+        Page<NoteShortResponseDTO> result = noteService.getAllNotes(tags, TagMatch.ANY, 0, 2, PageTotal.EXACT);
+
+        assertThat(result.getTotalElements()).isEqualTo(42);
+    }
+
+    @Test
+    @DisplayName("Should take an approximate total from the counts per tag combination")
+    void getAllNotes_ApproximateTotal_UsesNoteTotals() {
+        Set<NoteTag> tags = Set.of(NoteTag.IMPORTANT);
+        noteTotals.load(Map.of(
+                Set.of(NoteTag.IMPORTANT), 5L,
+                Set.of(NoteTag.IMPORTANT, NoteTag.BUSINESS), 2L,
+                Set.of(NoteTag.BUSINESS), 100L));
+
+        when(noteRepository.findSummariesByTagsIn(eq(tags), any(Pageable.class))).thenReturn(List.of(new Note(), new Note()));
+
+        Page<NoteShortResponseDTO> result = noteService.getAllNotes(tags, TagMatch.ANY, 0, 2, PageTotal.APPROXIMATE);
+
+        assertThat(result.getTotalElements()).isEqualTo(7);
+        verify(noteRepository, never()).countByTagsIn(any());
+    }
+
+    @Test
+    @DisplayName("Should estimate an approximate unfiltered total before the counts are loaded")
+    void getAllNotes_ApproximateTotalNotLoaded_EstimatesCount() {
+        when(noteRepository.findAllSummaries(any(Pageable.class))).thenReturn(List.of(new Note(), new Note()));
+        when(noteRepository.estimatedCount()).thenReturn(1_000L);
+
+        Page<NoteShortResponseDTO> result = noteService.getAllNotes(null, TagMatch.ANY, 0, 2, PageTotal.APPROXIMATE);
+
+        assertThat(result.getTotalElements()).isEqualTo(1_000);
+        verify(noteRepository, never()).count();
+    }
+
+    @Test
+    @DisplayName("Should list and count the notes with all of the given tags")
+    void getAllNotes_MatchAll_QueriesAllTags() {
+        Set<NoteTag> tags = Set.of(NoteTag.BUSINESS, NoteTag.IMPORTANT);
+
+        when(noteRepository.findSummariesByTagsAll(eq(tags), any(Pageable.class))).thenReturn(List.of(new Note(), new Note()));
+        when(noteRepository.countByTagsAll(tags)).thenReturn(9L);
+
+        Page<NoteShortResponseDTO> result = noteService.getAllNotes(tags, TagMatch.ALL, 0, 2, PageTotal.EXACT);
+
+        assertThat(result.getTotalElements()).isEqualTo(9);
+        verify(noteRepository, never()).findSummariesByTagsIn(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should count tag facets with one aggregation until the totals are loaded")
+    void getTagFacets_NotLoaded_AggregatesOnce() {
+        when(noteRepository.countByTagCombination()).thenReturn(Map.of(
+                Set.of(NoteTag.BUSINESS), 3L,
+                Set.of(NoteTag.BUSINESS, NoteTag.PERSONAL), 1L,
+                Set.of(), 2L));
+
+        TagFacetsDTO facets = noteService.getTagFacets(Set.of(NoteTag.BUSINESS), TagMatch.ANY);
+
+        assertThat(facets.notes()).isEqualTo(4);
+        assertThat(facets.facets()).containsEntry(NoteTag.BUSINESS, 4L).containsEntry(NoteTag.PERSONAL, 1L)
+                .containsEntry(NoteTag.IMPORTANT, 0L);
+        verify(noteRepository, times(1)).countByTagCombination();
+    }
+
+    @Test
+    @DisplayName("Should return first cursor page with next cursor pointing at its last note")
+    void getNotesAfter_FirstPage_ReturnsNextCursor() {
+        Note newest = new Note();
+        newest.setId("65f000000000000000000003");
+        newest.setCreatedDate(Instant.parse("2026-02-03T10:00:00Z"));
+        Note older = new Note();
+        older.setId("65f000000000000000000002");
+        older.setCreatedDate(Instant.parse("2026-02-02T10:00:00Z"));
+        Note oldest = new Note();
+
+        when(noteRepository.findListingAfter(null, TagMatch.ANY, null, null, 3)).thenReturn(List.of(newest, older, oldest));
+        when(noteMapper.toShortResponseDTO(any(Note.class))).thenReturn(new NoteShortResponseDTO("1", "Title", null));
+
+        NoteCursorPageDTO result = noteService.getNotesAfter(null, TagMatch.ANY, "", 2);
+
+        assertThat(result.content()).hasSize(2);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(NoteCursor.decode(result.nextCursor())).isEqualTo(NoteCursor.of(older));
+        verify(noteRepository, never()).count();
+    }
+
+    @Test
+    @DisplayName("Should continue listing after the decoded cursor position")
+    void getNotesAfter_WithCursor_QueriesAfterSortKey() {
+        Set<NoteTag> tags = Set.of(NoteTag.BUSINESS);
+        NoteCursor cursor = new NoteCursor(Instant.parse("2026-02-02T10:00:00Z"), "65f000000000000000000002");
+
+        when(noteRepository.findListingAfter(tags, TagMatch.ALL, cursor.createdDate(), cursor.id(), 11)).thenReturn(List.of(new Note()));
+        when(noteMapper.toShortResponseDTO(any(Note.class))).thenReturn(new NoteShortResponseDTO("1", "Title", null));
+
+        NoteCursorPageDTO result = noteService.getNotesAfter(tags, TagMatch.ALL, cursor.encode(), 10);
+
+        assertThat(result.content()).hasSize(1);
+        assertThat(result.hasNext()).isFalse();
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void getNotesAfter_MalformedCursor_ThrowsException() {
+        assertThrows(InvalidCursorException.class, () -> noteService.getNotesAfter(null, TagMatch.ANY, "not-a-cursor", 10));
+
+        verify(noteRepository, never()).findListingAfter(any(), any(), any(), any(), anyInt());
     }
 }
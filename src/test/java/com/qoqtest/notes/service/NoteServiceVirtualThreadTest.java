@@ -0,0 +1,92 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.config.CacheConfig;
+import com.qoqtest.notes.dto.NoteFullResponseDTO;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.mapper.NoteMapper;
+import com.qoqtest.notes.repository.NoteRepository;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(
+        classes = {NoteService.class, NoteStatisticsIndexer.class, NoteSearchIndex.class, CorpusWordStatistics.class, NoteTotals.class, SingleFlight.class, NoteChangeFeed.class, SimpleMeterRegistry.class, ScanningWordCounter.class, CacheConfig.class},
+        properties = {
+                "spring.threads.virtual.enabled=true",
+                "spring.cache.type=caffeine",
+                "spring.cache.cache-names=notes,noteStatistics",
+                "spring.cache.caffeine.spec=maximumSize=100"
+        })
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+class NoteServiceVirtualThreadTest {
+
+    private static final long MONGO_LATENCY_MILLIS = 50;
+
+    @Autowired
+    private NoteService noteService;
+
+    @MockitoBean
+    private NoteRepository noteRepository;
+
+    @MockitoBean
+    private NoteMapper noteMapper;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    @DisplayName("Should not pin the carrier thread while a cached read waits on Mongo")
+    void cachedReads_OnVirtualThreads_DoNotPinCarrier() throws Exception {
+        Note note = new Note();
+        note.setText("Java is cool, java is powerful!");
+        when(noteRepository.findById("1")).thenAnswer(slowly(Optional.of(note)));
+        when(noteRepository.findStatisticsById("1")).thenAnswer(slowly(Optional.of(new Note())));
+        when(noteMapper.toFullResponseDTO(note)).thenReturn(new NoteFullResponseDTO("1", "Title", note.getText(), null, null, 0, null));
+
+        List<RecordedEvent> pinnedEvents;
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(MONGO_LATENCY_MILLIS / 2));
+            recording.start();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                assertThat(executor.submit(() -> noteService.getNoteById("1")).get().title()).isEqualTo("Title");
+                assertThat(executor.submit(() -> noteService.getNoteWordFrequencyDescending("1")).get())
+                        .containsEntry("java", 2L);
+            }
+
+            recording.stop();
+            Path dump = tempDir.resolve("pinning.jfr");
+            recording.dump(dump);
+            pinnedEvents = RecordingFile.readAllEvents(dump);
+        }
+
+        assertThat(pinnedEvents).isEmpty();
+    }
+
+    private static Answer<Object> slowly(Object result) {
+        return invocation -> {
+            Thread.sleep(MONGO_LATENCY_MILLIS);
+            return result;
+        };
+    }
+}
@@ -0,0 +1,202 @@
+package com.qoqtest.notes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qoqtest.notes.config.StatisticsProperties;
+import com.qoqtest.notes.dto.BatchItemStatus;
+import com.qoqtest.notes.dto.NoteStatisticsDTO;
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+import com.qoqtest.notes.exception.NoteNotFoundException;
+import com.qoqtest.notes.repository.NoteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NoteStatisticsBatchServiceTest {
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    @Mock
+    private NoteService noteService;
+
+    private final ObjectMapper objectMapper = new Jackson2ObjectMapperBuilder().build();
+
+    private final ForkJoinPool statisticsPool = new ForkJoinPool(2);
+
+    private NoteStatisticsBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        batchService = new NoteStatisticsBatchService(noteRepository, noteService,
+                new NoteStatisticsIndexer(new ScanningWordCounter()), objectMapper, statisticsPool, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        statisticsPool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should write the selected words of every note, rebuild stale ones and report missing ids")
+    void writeStatistics_Ids_WritesOneLinePerId() throws Exception {
+        List<String> ids = List.of("a", "b", "missing");
+        AtomicBoolean closed = new AtomicBoolean();
+        when(noteRepository.streamStatistics(ids, null, TagMatch.ANY)).thenReturn(Stream.of(
+                        stored("a", new WordCount("alpha", 3), new WordCount("beta", 1)),
+                        stale("b"))
+                .onClose(() -> closed.set(true)));
+        when(noteService.getNoteWordFrequencyDescending("b")).thenReturn(Map.of("gamma", 2L));
+        UnaryOperator<Map<String, Long>> topWord = new WordStatisticsFilter(new StatisticsProperties(Map.of())).selector(1, 1, null);
+
+        Map<String, NoteStatisticsDTO> lines = write(ids, null, topWord);
+
+        assertThat(lines).containsOnlyKeys("a", "b", "missing");
+        assertThat(lines.get("a").words()).containsExactly(Map.entry("alpha", 3L));
+        assertThat(lines.get("b").words()).containsExactly(Map.entry("gamma", 2L));
+        assertThat(lines.get("missing")).isEqualTo(new NoteStatisticsDTO("missing", BatchItemStatus.NOT_FOUND));
+        assertThat(closed).isTrue();
+        verify(noteService, never()).getNoteWordFrequencyDescending("a");
+    }
+
+    @Test
+    @DisplayName("Should write all notes of a tag, more than are computed at once")
+    void writeStatistics_Tags_WritesEveryNote() throws Exception {
+        Set<NoteTag> tags = Set.of(NoteTag.BUSINESS);
+        List<Note> notes = IntStream.range(0, 50).mapToObj(i -> stored("n" + i, new WordCount("word", i + 1))).toList();
+        when(noteRepository.streamStatistics(null, tags, TagMatch.ALL)).thenReturn(notes.stream());
+
+        Map<String, NoteStatisticsDTO> lines = write(null, tags, UnaryOperator.identity());
+
+        assertThat(lines).hasSize(50);
+        assertThat(lines.get("n49").words()).containsExactly(Map.entry("word", 50L));
+    }
+
+    @Test
+    @DisplayName("Should report a note that failed or vanished without ending the stream")
+    void writeStatistics_NoteFails_WritesStatus() throws Exception {
+        List<String> ids = List.of("gone", "broken", "a");
+        when(noteRepository.streamStatistics(ids, null, TagMatch.ANY))
+                .thenReturn(Stream.of(stale("gone"), stale("broken"), stored("a", new WordCount("alpha", 1))));
+        when(noteService.getNoteWordFrequencyDescending("gone")).thenThrow(new NoteNotFoundException("Note not found with id: gone"));
+        when(noteService.getNoteWordFrequencyDescending("broken")).thenThrow(new IllegalStateException("Mongo is down"));
+
+        Map<String, NoteStatisticsDTO> lines = write(ids, null, UnaryOperator.identity());
+
+        assertThat(lines.get("gone").status()).isEqualTo(BatchItemStatus.NOT_FOUND);
+        assertThat(lines.get("broken").status()).isEqualTo(BatchItemStatus.FAILED);
+        assertThat(lines.get("a").words()).containsExactly(Map.entry("alpha", 1L));
+    }
+
+    @Test
+    @DisplayName("Should rebuild stale notes on virtual threads and cancel them when the response fails")
+    void writeStatistics_WriteFails_CancelsRebuilds() throws Exception {
+        List<String> ids = List.of("a", "b", "c");
+        when(noteRepository.streamStatistics(ids, null, TagMatch.ANY))
+                .thenReturn(Stream.of(stored("a", new WordCount("alpha", 1)), stale("b"), stale("c")));
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch interrupted = new CountDownLatch(2);
+        Set<Boolean> virtual = ConcurrentHashMap.newKeySet();
+        when(noteService.getNoteWordFrequencyDescending(anyString())).thenAnswer(invocation -> {
+            virtual.add(Thread.currentThread().isVirtual());
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return Map.of();
+        });
+        OutputStream abortedClient = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                awaitRebuilds();
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void flush() throws IOException {
+                write(new byte[0], 0, 0);
+            }
+
+            private void awaitRebuilds() throws IOException {
+                try {
+                    started.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+        };
+
+        assertThatThrownBy(() -> batchService.writeStatistics(ids, null, TagMatch.ANY, UnaryOperator.identity(), abortedClient))
+                .isInstanceOf(IOException.class);
+
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(virtual).containsExactly(true);
+    }
+
+    private Map<String, NoteStatisticsDTO> write(List<String> ids, Set<NoteTag> tags,
+                                                 UnaryOperator<Map<String, Long>> selection) throws IOException {
+        TagMatch match = tags == null ? TagMatch.ANY : TagMatch.ALL;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = batchService.writeStatistics(ids, tags, match, selection, out);
+
+        Map<String, NoteStatisticsDTO> lines = new HashMap<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            NoteStatisticsDTO statistics = objectMapper.readValue(line, NoteStatisticsDTO.class);
+            lines.put(statistics.id(), statistics);
+        }
+        assertThat(written).isEqualTo(lines.size());
+        return lines;
+    }
+
+    private static Note stored(String id, WordCount... words) {
+        Note note = new Note();
+        note.setId(id);
+        note.setWordFrequencies(List.of(words));
+        note.setWordStatsVersion(NoteStatisticsIndexer.CURRENT_VERSION);
+        return note;
+    }
+
+    private static Note stale(String id) {
+        Note note = new Note();
+        note.setId(id);
+        return note;
+    }
+}
@@ -0,0 +1,32 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.entity.NoteTag;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NoteTotalsTest {
+
+    private final NoteTotals noteTotals = new NoteTotals();
+
+    @Test
+    @DisplayName("Should follow created, retagged and deleted notes once loaded")
+    void addRetagRemove_AdjustCounts() {
+        assertThat(noteTotals.count(null, TagMatch.ANY)).isEmpty();
+        noteTotals.load(Map.of());
+
+        noteTotals.add(Set.of(NoteTag.PERSONAL));
+        noteTotals.add(null);
+        noteTotals.retag(null, Set.of(NoteTag.IMPORTANT));
+        noteTotals.remove(Set.of(NoteTag.PERSONAL));
+
+        assertThat(noteTotals.count(null, TagMatch.ANY)).hasValue(1);
+        assertThat(noteTotals.count(Set.of(NoteTag.IMPORTANT), TagMatch.ANY)).hasValue(1);
+        assertThat(noteTotals.count(Set.of(NoteTag.PERSONAL), TagMatch.ANY)).hasValue(0);
+    }
+}
@@ -0,0 +1,212 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.dto.NoteFullResponseDTO;
+import com.qoqtest.notes.dto.NoteRequestDTO;
+import com.qoqtest.notes.dto.NoteShortResponseDTO;
+import com.qoqtest.notes.entity.Note;
+import com.qoqtest.notes.entity.NoteTag;
+import com.qoqtest.notes.entity.WordCount;
+import com.qoqtest.notes.exception.InvalidCursorException;
+import com.qoqtest.notes.exception.NoteNotFoundException;
+import com.qoqtest.notes.exception.NoteVersionMismatchException;
+import com.qoqtest.notes.mapper.NoteMapper;
+import com.qoqtest.notes.repository.ReactiveNoteRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveNoteServiceTest {
+
+    @Mock
+    private ReactiveNoteRepository noteRepository;
+
+    @Mock
+    private NoteMapper noteMapper;
+
+    @Spy
+    private NoteStatisticsIndexer statisticsIndexer = new NoteStatisticsIndexer(new ScanningWordCounter());
+
+    @InjectMocks
+    private ReactiveNoteService noteService;
+
+    @Test
+    @DisplayName("Should index word statistics before saving a new note")
+    void createNote_Success() {
+        NoteRequestDTO dto = new NoteRequestDTO("New Note", "Content content", null);
+        Note note = new Note();
+        note.setText(dto.text());
+        NoteFullResponseDTO expected = new NoteFullResponseDTO("1", "New Note", "Content content", null, null, 0, null);
+
+        when(noteMapper.toEntity(dto)).thenReturn(note);
+        when(noteRepository.save(note)).thenReturn(Mono.just(note));
+        when(noteMapper.toFullResponseDTO(note)).thenReturn(expected);
+
+        StepVerifier.create(noteService.createNote(dto))
+                .expectNext(expected)
+                .verifyComplete();
+
+        assertThat(note.getWordFrequencies()).containsExactly(new WordCount("content", 2));
+    }
+
+    @Test
+    @DisplayName("Should signal NoteNotFound when note does not exist")
+    void getNoteById_NotFound_ErrorsWithNoteNotFound() {
+        when(noteRepository.findById("missing")).thenReturn(Mono.empty());
+
+        StepVerifier.create(noteService.getNoteById("missing"))
+                .expectErrorMatches(e -> e instanceof NoteNotFoundException
+                        && e.getMessage().equals("Note not found with id: missing"))
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Should combine summary page and tag-filtered count")
+    void getAllNotes_WithTags_ReturnsPage() {
+        Set<NoteTag> tags = Set.of(NoteTag.IMPORTANT);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("createdDate").descending());
+        Note note = new Note();
+
+        when(noteRepository.findSummariesByTagsIn(tags, pageable)).thenReturn(Flux.just(note));
+        when(noteRepository.countByTagsIn(tags)).thenReturn(Mono.just(42L));
+        when(noteMapper.toShortResponseDTO(note)).thenReturn(new NoteShortResponseDTO("1", "Title", Instant.now()));
+
+        StepVerifier.create(noteService.getAllNotes(tags, TagMatch.ANY, 0, 10))
+                .assertNext(page -> {
+                    assertThat(page.getContent()).extracting(NoteShortResponseDTO::title).containsExactly("Title");
+                    assertThat(page.getTotalElements()).isEqualTo(42L);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should return first cursor page with next cursor pointing at its last note")
+    void getNotesAfter_FirstPage_ReturnsNextCursor() {
+        Note newest = new Note();
+        newest.setId("65f000000000000000000003");
+        newest.setCreatedDate(Instant.parse("2026-02-03T10:00:00Z"));
+        Note older = new Note();
+        older.setId("65f000000000000000000002");
+        older.setCreatedDate(Instant.parse("2026-02-02T10:00:00Z"));
+
+        when(noteRepository.findListingAfter(null, TagMatch.ANY, null, null, 2)).thenReturn(Flux.just(newest, older));
+        when(noteMapper.toShortResponseDTO(any(Note.class))).thenReturn(new NoteShortResponseDTO("1", "Title", null));
+
+        StepVerifier.create(noteService.getNotesAfter(null, TagMatch.ANY, "", 1))
+                .assertNext(page -> {
+                    assertThat(page.content()).hasSize(1);
+                    assertThat(page.hasNext()).isTrue();
+                    assertThat(NoteCursor.decode(page.nextCursor())).isEqualTo(NoteCursor.of(newest));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should signal a malformed cursor without querying")
+    void getNotesAfter_MalformedCursor_ErrorsWithInvalidCursor() {
+        StepVerifier.create(noteService.getNotesAfter(null, TagMatch.ANY, "not-a-cursor", 10))
+                .expectError(InvalidCursorException.class)
+                .verify();
+
+        verify(noteRepository, never()).findListingAfter(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should rebuild and store missing word statistics")
+    void getNoteWordFrequencyDescending_StaleStatistics_RebuildsAndStores() {
+        String id = "1";
+        Note note = new Note();
+        note.setText("Java is cool, java is powerful!");
+
+        when(noteRepository.findStatisticsById(id)).thenReturn(Mono.just(new Note()));
+        when(noteRepository.findById(id)).thenReturn(Mono.just(note));
+        when(noteRepository.updateWordStatistics(eq(id), eq(0L), anyList(), eq(NoteStatisticsIndexer.CURRENT_VERSION)))
+                .thenReturn(Mono.just(true));
+
+        StepVerifier.create(noteService.getNoteWordFrequencyDescending(id))
+                .assertNext(stats -> assertThat(stats)
+                        .containsEntry("java", 2L)
+                        .containsEntry("is", 2L)
+                        .containsEntry("cool", 1L))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should serve stored word statistics without reloading the note text")
+    void getNoteWordFrequencyDescending_FreshStatistics_ServedFromIndex() {
+        String id = "1";
+        Note stored = new Note();
+        stored.setWordFrequencies(List.of(new WordCount("note", 2), new WordCount("is", 1)));
+        stored.setWordStatsVersion(NoteStatisticsIndexer.CURRENT_VERSION);
+
+        when(noteRepository.findStatisticsById(id)).thenReturn(Mono.just(stored));
+
+        StepVerifier.create(noteService.getNoteWordFrequencyDescending(id))
+                .assertNext(stats -> assertThat(stats).containsExactly(Map.entry("note", 2L), Map.entry("is", 1L)))
+                .verifyComplete();
+
+        verify(noteRepository, never()).findById(id);
+    }
+
+    @Test
+    @DisplayName("Should reindex statistics of a new text and write the update in one round trip")
+    void updateNote_TextChanged_ReindexesAndUpdates() {
+        String id = "1";
+        Note changes = new Note();
+        changes.setText("New Text");
+        Note updated = new Note();
+        NoteRequestDTO dto = new NoteRequestDTO("New Title", "New Text", null);
+        NoteFullResponseDTO expected = new NoteFullResponseDTO(id, "New Title", "New Text", null, null, 1, null);
+
+        when(noteMapper.toEntity(dto)).thenReturn(changes);
+        when(noteRepository.updateFields(changes, null)).thenReturn(Mono.just(updated));
+        when(noteMapper.toFullResponseDTO(updated)).thenReturn(expected);
+
+        StepVerifier.create(noteService.updateNote(id, dto, null))
+                .expectNext(expected)
+                .verifyComplete();
+
+        assertThat(changes.getId()).isEqualTo(id);
+        verify(statisticsIndexer).index(changes);
+        verify(noteRepository, never()).findById(id);
+    }
+
+    @Test
+    @DisplayName("Should reject an update of another version than the expected one")
+    void updateNote_VersionMismatch_ThrowsPreconditionFailed() {
+        String id = "1";
+        NoteRequestDTO dto = new NoteRequestDTO("New Title", null, null);
+        Note changes = new Note();
+        Note current = new Note();
+        current.setVersion(4);
+
+        when(noteMapper.toEntity(dto)).thenReturn(changes);
+        when(noteRepository.updateFields(changes, 3L)).thenReturn(Mono.empty());
+        when(noteRepository.findVersionById(id)).thenReturn(Mono.just(current));
+
+        StepVerifier.create(noteService.updateNote(id, dto, 3L))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(NoteVersionMismatchException.class)
+                        .hasMessageContaining("version 4"))
+                .verify();
+    }
+}
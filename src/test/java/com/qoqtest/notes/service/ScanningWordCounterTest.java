@@ -0,0 +1,67 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.entity.WordCount;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScanningWordCounterTest {
+
+    private final ScanningWordCounter wordCounter = new ScanningWordCounter();
+
+    @Test
+    @DisplayName("Should count words case-insensitively, most frequent first")
+    void countDescending_SimpleText_ReturnsSortedCounts() {
+        List<WordCount> result = wordCounter.countDescending("note is just a Note");
+
+        assertThat(result).containsExactly(
+                new WordCount("note", 2),
+                new WordCount("is", 1),
+                new WordCount("just", 1),
+                new WordCount("a", 1));
+    }
+
+    @Test
+    @DisplayName("Should split on every non-letter character like \\P{L}+")
+    void countDescending_MultilingualText_MatchesRegexSplit() {
+        String text = "Привет, мир! Hello-world 42 times; 日本語のテキスト, café CAFÉ naïve\tпривет\n"
+                + "straße STRASSE über_alles 𝒜𝒷𝒸 𝒜𝒷𝒸";
+
+        Map<String, Long> expected = Arrays.stream(text.toLowerCase().split("\\P{L}+"))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.groupingBy(word -> word, Collectors.counting()));
+
+        Map<String, Long> actual = wordCounter.countDescending(text).stream()
+                .collect(Collectors.toMap(WordCount::word, WordCount::count));
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Should keep counts correct when the word table grows")
+    void countDescending_ManyUniqueWords_CountsEveryWord() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            text.append(Integer.toString(i, 26).replaceAll("\\d", "z").replace('a', 'y')).append(' ');
+            text.append("common ");
+        }
+
+        List<WordCount> result = wordCounter.countDescending(text.toString());
+
+        assertThat(result.getFirst()).isEqualTo(new WordCount("common", 5000));
+        assertThat(result.stream().mapToLong(WordCount::count).sum()).isEqualTo(10000);
+    }
+
+    @Test
+    @DisplayName("Should return an empty list for text without letters")
+    void countDescending_NoLetters_ReturnsEmptyList() {
+        assertThat(wordCounter.countDescending("  123 --- !!! ")).isEmpty();
+        assertThat(wordCounter.countDescending("")).isEmpty();
+    }
+}
@@ -0,0 +1,183 @@
+package com.qoqtest.notes.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(meterRegistry);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should share one load between concurrent calls for the same note")
+    void execute_ConcurrentCalls_ShareOneLoad() throws Exception {
+        Future<String> leader = executor.submit(() -> singleFlight.execute("getById", "1", blockedLoad("note")));
+        started.await();
+
+        List<Thread> followers = new ArrayList<>();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            CompletableFuture<String> result = new CompletableFuture<>();
+            followers.add(Thread.ofPlatform().start(() -> result.complete(singleFlight.execute("getById", "1", load("own")))));
+            results.add(result);
+        }
+        awaitWaiting(followers);
+        release.countDown();
+
+        assertThat(leader.get()).isEqualTo("note");
+        for (CompletableFuture<String> result : results) {
+            assertThat(result.get()).isEqualTo("note");
+        }
+        assertThat(loads).hasValue(0);
+        assertThat(calls("getById", "executed")).isEqualTo(1);
+        assertThat(calls("getById", "coalesced")).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should hand the failure of the shared load to every waiting call")
+    void execute_LoadFails_RethrowsToWaitingCalls() throws Exception {
+        Supplier<String> failingLoad = () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalStateException("Mongo is down");
+        };
+        Future<String> leader = executor.submit(() -> singleFlight.execute("stats", "1", failingLoad));
+        started.await();
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Thread follower = Thread.ofPlatform().start(() -> {
+            try {
+                result.complete(singleFlight.execute("stats", "1", load("own")));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        awaitWaiting(List.of(follower));
+        release.countDown();
+
+        assertThatThrownBy(leader::get).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(result::get).hasCauseInstanceOf(IllegalStateException.class).hasMessageContaining("Mongo is down");
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Should load the note itself once waiting for the shared load times out")
+    void execute_SharedLoadTooSlow_LoadsItself() throws Exception {
+        ReflectionTestUtils.setField(singleFlight, "timeout", Duration.ofMillis(50));
+        executor.submit(() -> singleFlight.execute("getVersion", "1", blockedLoad("stuck")));
+        started.await();
+
+        assertThat(singleFlight.execute("getVersion", "1", load("own"))).isEqualTo("own");
+        assertThat(calls("getVersion", "timed_out")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should start a new load for calls made after the note was forgotten")
+    void forget_RunningLoad_NextCallLoadsAgain() throws Exception {
+        Future<String> leader = executor.submit(() -> singleFlight.execute("getById", "1", blockedLoad("before")));
+        started.await();
+
+        singleFlight.forget("1");
+
+        assertThat(singleFlight.execute("getById", "1", load("after"))).isEqualTo("after");
+        assertThat(calls("getById", "executed")).isEqualTo(2);
+
+        release.countDown();
+        assertThat(leader.get()).isEqualTo("before");
+    }
+
+    @Test
+    @DisplayName("Should keep coalescing the calls of other notes when one note is forgotten")
+    void forget_OtherNote_KeepsRunningCall() throws Exception {
+        Future<String> leader = executor.submit(() -> singleFlight.execute("getById", "1", blockedLoad("note")));
+        started.await();
+
+        singleFlight.forget("2");
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Thread follower = Thread.ofPlatform().start(() -> result.complete(singleFlight.execute("getById", "1", load("own"))));
+        awaitWaiting(List.of(follower));
+        release.countDown();
+
+        assertThat(leader.get()).isEqualTo("note");
+        assertThat(result.get()).isEqualTo("note");
+        assertThat(loads).hasValue(0);
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(singleFlight, "calls")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep calls for different notes and operations apart")
+    void execute_DifferentKeys_LoadSeparately() throws Exception {
+        executor.submit(() -> singleFlight.execute("getById", "1", blockedLoad("note")));
+        started.await();
+
+        assertThat(singleFlight.execute("getById", "2", load("other note"))).isEqualTo("other note");
+        assertThat(singleFlight.execute("getVersion", "1", load("version"))).isEqualTo("version");
+        assertThat(calls("getById", "coalesced")).isZero();
+    }
+
+    private Supplier<String> blockedLoad(String value) {
+        return () -> {
+            started.countDown();
+            await(release);
+            return value;
+        };
+    }
+
+    private Supplier<String> load(String value) {
+        return () -> {
+            loads.incrementAndGet();
+            return value;
+        };
+    }
+
+    private double calls(String operation, String result) {
+        return meterRegistry.counter("notes.single-flight.calls", "operation", operation, "result", result).count();
+    }
+
+    private static void awaitWaiting(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            while (thread.getState() != Thread.State.TIMED_WAITING) {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.dto.TagMatch;
+import com.qoqtest.notes.entity.NoteTag;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TagCombinationCountsTest {
+
+    private final TagCombinationCounts counts = TagCombinationCounts.of(Map.of(
+            Set.of(), 4L,
+            Set.of(NoteTag.BUSINESS), 3L,
+            Set.of(NoteTag.BUSINESS, NoteTag.IMPORTANT), 2L,
+            Set.of(NoteTag.PERSONAL), 1L));
+
+    @Test
+    @DisplayName("Should count the notes with any or all of the given tags")
+    void count_SumsMatchingCombinations() {
+        assertThat(counts.count(null, TagMatch.ANY)).isEqualTo(10);
+        assertThat(counts.count(Set.of(), TagMatch.ALL)).isEqualTo(10);
+        assertThat(counts.count(Set.of(NoteTag.BUSINESS), TagMatch.ANY)).isEqualTo(5);
+        assertThat(counts.count(Set.of(NoteTag.IMPORTANT, NoteTag.PERSONAL), TagMatch.ANY)).isEqualTo(3);
+        assertThat(counts.count(Set.of(NoteTag.BUSINESS, NoteTag.IMPORTANT), TagMatch.ALL)).isEqualTo(2);
+        assertThat(counts.count(Set.of(NoteTag.BUSINESS, NoteTag.PERSONAL), TagMatch.ALL)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should count every tag among the notes matching the filter")
+    void facets_CountTagsOfMatchingNotes() {
+        assertThat(counts.facets(null, TagMatch.ANY)).containsExactly(
+                Map.entry(NoteTag.BUSINESS, 5L), Map.entry(NoteTag.PERSONAL, 1L), Map.entry(NoteTag.IMPORTANT, 2L));
+        assertThat(counts.facets(Set.of(NoteTag.BUSINESS), TagMatch.ALL)).containsExactly(
+                Map.entry(NoteTag.BUSINESS, 5L), Map.entry(NoteTag.PERSONAL, 0L), Map.entry(NoteTag.IMPORTANT, 2L));
+    }
+}
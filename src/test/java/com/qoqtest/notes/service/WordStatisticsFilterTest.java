@@ -0,0 +1,63 @@
+package com.qoqtest.notes.service;
+
+import com.qoqtest.notes.config.StatisticsProperties;
+import com.qoqtest.notes.exception.UnsupportedLanguageException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WordStatisticsFilterTest {
+
+    private WordStatisticsFilter filter;
+    private Map<String, Long> frequencies;
+
+    @BeforeEach
+    void setUp() {
+        filter = new WordStatisticsFilter(new StatisticsProperties(Map.of("EN", Set.of("The", "a"))));
+
+        frequencies = new LinkedHashMap<>();
+        frequencies.put("the", 9L);
+        frequencies.put("java", 5L);
+        frequencies.put("a", 4L);
+        frequencies.put("spring", 3L);
+        frequencies.put("boot", 1L);
+    }
+
+    @Test
+    @DisplayName("Should return the stored histogram as is without options")
+    void select_NoOptions_ReturnsAllWords() {
+        assertThat(filter.select(frequencies, null, 1, null)).isSameAs(frequencies);
+    }
+
+    @Test
+    @DisplayName("Should keep the top words above minCount in order")
+    void select_LimitAndMinCount_ReturnsPrefix() {
+        assertThat(filter.select(frequencies, 2, 1, null)).containsExactly(
+                Map.entry("the", 9L), Map.entry("java", 5L));
+        assertThat(filter.select(frequencies, null, 4, null)).containsExactly(
+                Map.entry("the", 9L), Map.entry("java", 5L), Map.entry("a", 4L));
+        assertThat(filter.select(frequencies, 0, 1, null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should leave out stop words before applying the limit")
+    void select_StopWords_SkipsThemAndFillsLimit() {
+        assertThat(filter.select(frequencies, 3, 1, "en")).containsExactly(
+                Map.entry("java", 5L), Map.entry("spring", 3L), Map.entry("boot", 1L));
+    }
+
+    @Test
+    @DisplayName("Should reject a language without stop words")
+    void select_UnknownLanguage_Throws() {
+        assertThatThrownBy(() -> filter.select(frequencies, null, 1, "fr"))
+                .isInstanceOf(UnsupportedLanguageException.class)
+                .hasMessage("No stop words configured for language: fr");
+    }
+}